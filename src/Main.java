@@ -4,6 +4,7 @@ import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import pt.pa.controller.LogisticsNetworkController;
 import pt.pa.model.LogisticsNetwork;
+import pt.pa.model.LogisticsNetworkException;
 import pt.pa.view.LogisticsNetworkView;
 
 import java.io.FileNotFoundException;
@@ -19,6 +20,12 @@ import java.io.FileNotFoundException;
  * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
  */
 public class Main extends Application {
+    //created in the working directory; each route added or removed in the view is
+    //forced to the log (one fsync) before the controller returns to the UI thread
+    private static final String SNAPSHOT_FILE = "network.bin";
+    private static final String LOG_FILE = "network.wal";
+
+    private LogisticsNetwork model;
 
     public static void main(String[] args) {
         launch(args);
@@ -26,7 +33,15 @@ public class Main extends Application {
 
     @Override
     public void start(Stage primaryStage) throws NumberFormatException {
-        LogisticsNetwork model = new LogisticsNetwork();
+        model = new LogisticsNetwork();
+        String recoveryError = null;
+        try {
+            //the network of the last session, saved in the snapshot and the log
+            model.openLog(SNAPSHOT_FILE, LOG_FILE);
+        } catch (LogisticsNetworkException e) {
+            recoveryError = e.getMessage() + "\nThe changes of this session will not be saved.";
+        }
+
         LogisticsNetworkView view = new LogisticsNetworkView(model);
         LogisticsNetworkController controller = new LogisticsNetworkController(view, model);
 
@@ -40,6 +55,18 @@ public class Main extends Application {
         stage.show();
 
         view.initGraphDisplay();
+        if (model.getNumberOfHubs() > 0) {
+            view.resetGraphPanel();
+            view.disableGlobalButton();
+        }
+        if (recoveryError != null) {
+            view.displayError(recoveryError);
+        }
+    }
+
+    @Override
+    public void stop() {
+        model.closeLog();
     }
 }
 
@@ -23,6 +23,9 @@
  */
 package com.brunomnsilva.smartgraph.containers;
 
+import com.brunomnsilva.smartgraph.graphview.SmartGraphPanel;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.ReadOnlyDoubleWrapper;
 import javafx.geometry.Bounds;
@@ -35,6 +38,7 @@ import javafx.scene.input.MouseEvent;
 import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
+import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
 
 /**
@@ -47,6 +51,10 @@ import javafx.scene.text.Text;
  * events first. The node should consume any event not meant to propagate to
  * this pane.
  *
+ * If the content is a {@link SmartGraphPanel}, it is told which of its region is
+ * visible, so elements outside it are not rendered and the level of detail
+ * follows the zoom (see {@link SmartGraphPanel#setViewport}).
+ *
  * @author brunomnsilva
  */
 public class ContentZoomPane extends BorderPane {
@@ -75,6 +83,7 @@ public class ContentZoomPane extends BorderPane {
         setRight(createSlider());
 
         enablePanAndZoom();
+        enableViewportCulling();
     }
 
     private Node createSlider() {
@@ -184,6 +193,30 @@ public class ContentZoomPane extends BorderPane {
 
     }
 
+    private void enableViewportCulling() {
+        if (!(content instanceof SmartGraphPanel)) {
+            return;
+        }
+        SmartGraphPanel<?, ?> graphPanel = (SmartGraphPanel<?, ?>) content;
+
+        //content outside this pane is not visible
+        Rectangle clip = new Rectangle();
+        clip.widthProperty().bind(widthProperty());
+        clip.heightProperty().bind(heightProperty());
+        setClip(clip);
+
+        InvalidationListener viewportListener = observable ->
+                graphPanel.setViewport(content.parentToLocal(getLayoutBounds()), content.getScaleX());
+
+        //changes with the pan, the zoom and the size of both panes, but not when
+        //the vertices move (the bounds in parent of the content would)
+        for (Observable property : new Observable[]{content.translateXProperty(), content.translateYProperty(),
+                content.scaleXProperty(), content.scaleYProperty(), content.layoutXProperty(), content.layoutYProperty(),
+                graphPanel.widthProperty(), graphPanel.heightProperty(), widthProperty(), heightProperty()}) {
+            property.addListener(viewportListener);
+        }
+    }
+
     public DoubleProperty scaleFactorProperty() {
         return scaleFactorProperty;
     }
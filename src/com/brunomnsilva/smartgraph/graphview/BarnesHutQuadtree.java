@@ -0,0 +1,232 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019 brunomnsilva@gmail.com.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.brunomnsilva.smartgraph.graphview;
+
+import java.util.Arrays;
+
+/**
+ * Quadtree of vertex positions used to approximate the repelling forces of a
+ * force-directed layout (Barnes-Hut), in O(n log n) instead of O(n^2).
+ * <p>
+ * A cell that is far enough from a vertex, i.e., whose size divided by the
+ * distance to its center of mass is below <code>theta</code>, acts as a single
+ * body with the mass (number of vertices) of the whole cell. With
+ * <code>theta = 0</code> every vertex pair is computed exactly.
+ * <p>
+ * The tree is kept in primitive arrays that are reused between builds, so
+ * rebuilding it every iteration does not allocate objects. Once built, the
+ * forces of different vertices can be computed concurrently, each thread
+ * with its own stack (see {@link #newStack()}).
+ */
+final class BarnesHutQuadtree {
+
+    private static final int NONE = -1;
+    private static final int ROOT = 0;
+    //deeper cells only happen with (almost) coincident vertices, that are aggregated
+    private static final int MAX_DEPTH = 32;
+    //each visited cell pushes at most 4 children, so the stack holds at most 3 per level
+    private static final int STACK_SIZE = 4 * (MAX_DEPTH + 1);
+
+    private double[] xs;
+    private double[] ys;
+
+    private int cells;
+    private double[] minX = new double[16];
+    private double[] minY = new double[16];
+    private double[] size = new double[16];
+    private double[] sumX = new double[16];
+    private double[] sumY = new double[16];
+    private int[] count = new int[16];
+    private int[] body = new int[16];
+    private int[] firstChild = new int[16];
+
+    /**
+     * Builds the tree with the positions of <code>n</code> vertices.
+     *
+     * @param xs x coordinates of the vertices
+     * @param ys y coordinates of the vertices
+     * @param n  number of vertices
+     */
+    void build(double[] xs, double[] ys, int n) {
+        this.xs = xs;
+        this.ys = ys;
+        this.cells = 0;
+
+        double x0 = Double.MAX_VALUE, y0 = Double.MAX_VALUE;
+        double x1 = -Double.MAX_VALUE, y1 = -Double.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            x0 = Math.min(x0, xs[i]);
+            y0 = Math.min(y0, ys[i]);
+            x1 = Math.max(x1, xs[i]);
+            y1 = Math.max(y1, ys[i]);
+        }
+
+        //square root cell, slightly larger so the maximum coordinates are inside
+        double side = n == 0 ? 1 : Math.max(Math.max(x1 - x0, y1 - y0), 1) * (1 + 1e-9);
+        newCell(x0, y0, side);
+
+        for (int i = 0; i < n; i++) {
+            insert(i);
+        }
+    }
+
+    /**
+     * Creates a traversal stack for {@link #repellingForce}, large enough for
+     * any tree.
+     *
+     * @return traversal stack
+     */
+    static int[] newStack() {
+        return new int[STACK_SIZE];
+    }
+
+    /**
+     * Computes the approximate repelling force applied on a vertex by all the
+     * other vertices, with the same force function of
+     * {@link UtilitiesPoint2D#repellingForce}.
+     *
+     * @param i     index of the vertex
+     * @param scale scale factor of the repelling force
+     * @param theta accuracy threshold (0 is exact)
+     * @param force array where the force (x, y) is stored
+     * @param stack traversal stack, owned by the calling thread
+     */
+    void repellingForce(int i, double scale, double theta, double[] force, int[] stack) {
+        double x = xs[i], y = ys[i];
+        double fx = 0, fy = 0;
+
+        int top = 0;
+        stack[top++] = ROOT;
+
+        while (top > 0) {
+            int cell = stack[--top];
+            int mass = count[cell];
+            if (mass == 0) continue;
+
+            double cx = sumX[cell], cy = sumY[cell];
+
+            if (firstChild[cell] == NONE && body[cell] == i) {
+                //the vertex itself; only the others aggregated with it repel it
+                if (--mass == 0) continue;
+                cx -= x;
+                cy -= y;
+            }
+            cx /= mass;
+            cy /= mass;
+
+            double dx = x - cx, dy = y - cy;
+            double distance = Math.sqrt(dx * dx + dy * dy);
+
+            if (firstChild[cell] == NONE || size[cell] < theta * distance) {
+                if (distance > 0) {
+                    double factor = mass * UtilitiesPoint2D.repellingFunction(distance, scale) / distance;
+                    fx += dx * factor;
+                    fy += dy * factor;
+                }
+            } else {
+                for (int c = 0; c < 4; c++) {
+                    stack[top++] = firstChild[cell] + c;
+                }
+            }
+        }
+
+        force[0] = fx;
+        force[1] = fy;
+    }
+
+    private void insert(int i) {
+        int cell = ROOT;
+        int depth = 0;
+
+        while (true) {
+            if (firstChild[cell] == NONE) {
+                if (count[cell] == 0 || depth == MAX_DEPTH) {
+                    addBody(cell, i);
+                    return;
+                }
+
+                //occupied leaf: split it and push its vertex down
+                split(cell);
+                int existing = body[cell];
+                body[cell] = NONE;
+                addBody(childFor(cell, xs[existing], ys[existing]), existing);
+            }
+
+            count[cell]++;
+            sumX[cell] += xs[i];
+            sumY[cell] += ys[i];
+
+            cell = childFor(cell, xs[i], ys[i]);
+            depth++;
+        }
+    }
+
+    private void addBody(int cell, int i) {
+        if (count[cell] == 0) {
+            body[cell] = i;
+        }
+        count[cell]++;
+        sumX[cell] += xs[i];
+        sumY[cell] += ys[i];
+    }
+
+    private void split(int cell) {
+        double half = size[cell] / 2;
+        int first = newCell(minX[cell], minY[cell], half);
+        newCell(minX[cell] + half, minY[cell], half);
+        newCell(minX[cell], minY[cell] + half, half);
+        newCell(minX[cell] + half, minY[cell] + half, half);
+        firstChild[cell] = first;
+    }
+
+    private int childFor(int cell, double x, double y) {
+        double half = size[cell] / 2;
+        int quadrant = (x >= minX[cell] + half ? 1 : 0) + (y >= minY[cell] + half ? 2 : 0);
+        return firstChild[cell] + quadrant;
+    }
+
+    private int newCell(double x, double y, double side) {
+        if (cells == count.length) {
+            int capacity = 2 * cells;
+            minX = Arrays.copyOf(minX, capacity);
+            minY = Arrays.copyOf(minY, capacity);
+            size = Arrays.copyOf(size, capacity);
+            sumX = Arrays.copyOf(sumX, capacity);
+            sumY = Arrays.copyOf(sumY, capacity);
+            count = Arrays.copyOf(count, capacity);
+            body = Arrays.copyOf(body, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+        }
+
+        int cell = cells++;
+        minX[cell] = x;
+        minY[cell] = y;
+        size[cell] = side;
+        sumX[cell] = sumY[cell] = 0;
+        count[cell] = 0;
+        body[cell] = NONE;
+        firstChild[cell] = NONE;
+        return cell;
+    }
+}
@@ -0,0 +1,655 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019 brunomnsilva@gmail.com.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.brunomnsilva.smartgraph.graphview;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * Runs the force-directed layout of a {@link SmartGraphPanel} in a background
+ * thread, over primitive arrays of positions.
+ * <p>
+ * The JavaFX thread hands the vertices and their adjacencies to the worker with
+ * {@link #setNodes(Collection)}, and then each vertex or adjacency added or
+ * removed, so a change doesn't rebuild the whole layout. The worker publishes every computed frame
+ * in a double buffer: it writes the next frame in the back buffer while the
+ * front one is copied to the vertices by {@link #applyFrame()}, on each pulse.
+ * The worker never touches the scene graph, and the JavaFX thread never
+ * computes forces.
+ * <p>
+ * Iterations run at a fixed rate, independent of the frame rate, and the forces
+ * of large graphs are computed in parallel.
+ * <p>
+ * The displacement of each vertex is limited by a temperature, with the adaptive
+ * cooling of Hu (2005): while the energy (sum of the squared forces) keeps
+ * decreasing the temperature is raised, otherwise it cools down. The worker
+ * sleeps once the average displacement of an iteration is below the convergence
+ * threshold, until it is woken by {@link #wake()} or a change of the vertices.
+ */
+final class ForceLayoutWorker {
+
+    //iterations per second; the layout used to run one iteration per pulse
+    private static final int ITERATIONS_PER_SECOND = 60;
+    //below this number of vertices, splitting the work costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 512;
+    private static final int CHUNK_SIZE = 128;
+
+    //initial temperature, as a fraction of the largest side of the area
+    private static final double INITIAL_TEMPERATURE = 0.1;
+    private static final double COOLING = 0.9;
+    //iterations with decreasing energy before the temperature is raised
+    private static final int HEATING_PROGRESS = 5;
+
+    private final double repulsionForce;
+    private final double attractionForce;
+    private final double attractionScale;
+    private final boolean barnesHut;
+    private final double barnesHutTheta;
+    private final double convergenceThreshold;
+
+    private final ScheduledThreadPoolExecutor executor;
+    private ScheduledFuture<?> task;
+    private boolean enabled = false;
+
+    /*
+    INPUT, WRITTEN BY THE JAVAFX THREAD
+     */
+    //changes of the vertices and adjacencies, applied in order by the worker thread
+    private final ConcurrentLinkedQueue<Runnable> pendingChanges = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Move> pendingMoves = new ConcurrentLinkedQueue<>();
+    private volatile double width;
+    private volatile double height;
+    private volatile boolean reheat = false;
+
+    /*
+    STATE OF THE WORKER THREAD
+     */
+    private Layout layout;
+    private final BarnesHutQuadtree quadtree = new BarnesHutQuadtree();
+    private double temperature;
+    private double energy;
+    private int progress;
+
+    /*
+    DOUBLE BUFFER, GUARDED BY 'this'
+     */
+    private Frame front = new Frame();
+    private Frame back = new Frame();
+    private boolean frontUpdated = false;
+
+    /**
+     * Creates a worker with the layout properties of a panel.
+     *
+     * @param properties properties of the panel
+     */
+    ForceLayoutWorker(SmartGraphProperties properties) {
+        this.repulsionForce = properties.getRepulsionForce();
+        this.attractionForce = properties.getAttractionForce();
+        this.attractionScale = properties.getAttractionScale();
+        this.barnesHut = properties.getUseBarnesHutLayout();
+        this.barnesHutTheta = properties.getBarnesHutTheta();
+        this.convergenceThreshold = properties.getConvergenceThreshold();
+
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "smartgraph-layout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        //do not keep an idle thread while the automatic layout is off
+        this.executor.setKeepAliveTime(1, TimeUnit.SECONDS);
+        this.executor.allowCoreThreadTimeOut(true);
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Starts iterating, if not running, until the layout converges or
+     * {@link #stop()} is called.
+     */
+    synchronized void start() {
+        enabled = true;
+        wake();
+    }
+
+    /**
+     * Stops iterating. A running iteration still publishes its frame.
+     */
+    synchronized void stop() {
+        enabled = false;
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    /**
+     * Restarts a converged layout with the initial temperature, e.g., when a
+     * vertex is dragged. Does nothing if the worker was stopped.
+     */
+    synchronized void wake() {
+        reheat = true;
+        if (enabled && task == null) {
+            task = executor.scheduleAtFixedRate(this::iterate, 0,
+                    TimeUnit.SECONDS.toNanos(1) / ITERATIONS_PER_SECOND, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Checks whether the worker is iterating, i.e., it was started and the
+     * layout has not converged yet.
+     *
+     * @return true if iterating; false otherwise
+     */
+    synchronized boolean isRunning() {
+        return task != null;
+    }
+
+    /**
+     * Puts the worker to sleep, from the worker thread, when the layout converged.
+     */
+    private synchronized void sleep() {
+        //woken up while finishing this iteration
+        if (reheat || !pendingChanges.isEmpty() || !pendingMoves.isEmpty()) {
+            return;
+        }
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    /**
+     * Sets the area where the vertices are laid out.
+     *
+     * @param width  width of the area
+     * @param height height of the area
+     */
+    void setBounds(double width, double height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Replaces the vertices being laid out, starting from their current
+     * positions, and wakes the worker. Must be called in the JavaFX thread,
+     * before the layout is started; later changes are given one by one.
+     *
+     * @param <T>   vertex element type
+     * @param nodes vertices to lay out
+     */
+    <T> void setNodes(Collection<SmartGraphVertexNode<T>> nodes) {
+        Layout next = new Layout(nodes.size());
+        for (SmartGraphVertexNode<T> node : nodes) {
+            next.add(node, node.getCenterX(), node.getCenterY(), node.getRadius());
+        }
+        for (SmartGraphVertexNode<T> node : nodes) {
+            for (SmartGraphVertexNode<T> other : node.getAdjacentVertices()) {
+                next.connect(node, other);
+            }
+        }
+
+        pendingChanges.add(() -> layout = next);
+        wake();
+    }
+
+    /**
+     * Adds a vertex to the layout, at its current position. Must be called in the
+     * JavaFX thread; ignored while the worker is stopped.
+     *
+     * @param node new vertex
+     */
+    void addNode(SmartGraphVertexNode<?> node) {
+        double x = node.getCenterX(), y = node.getCenterY(), radius = node.getRadius();
+        submit(() -> layout.add(node, x, y, radius));
+    }
+
+    /**
+     * Removes a vertex, and its adjacencies, from the layout. Must be called in
+     * the JavaFX thread; ignored while the worker is stopped.
+     *
+     * @param node removed vertex
+     */
+    void removeNode(SmartGraphVertexNode<?> node) {
+        submit(() -> layout.remove(node));
+    }
+
+    /**
+     * Makes two vertices of the layout attract each other. Must be called in the
+     * JavaFX thread; ignored while the worker is stopped.
+     *
+     * @param u a vertex
+     * @param v another vertex
+     */
+    void connect(SmartGraphVertexNode<?> u, SmartGraphVertexNode<?> v) {
+        submit(() -> layout.connect(u, v));
+    }
+
+    /**
+     * Stops the attraction between two vertices of the layout, when the last edge
+     * between them is removed. Must be called in the JavaFX thread; ignored while
+     * the worker is stopped.
+     *
+     * @param u a vertex
+     * @param v another vertex
+     */
+    void disconnect(SmartGraphVertexNode<?> u, SmartGraphVertexNode<?> v) {
+        submit(() -> layout.disconnect(u, v));
+    }
+
+    /**
+     * Queues a change of the current layout and wakes the worker. While stopped,
+     * the layout is replaced by {@link #setNodes(Collection)} when started again.
+     */
+    private synchronized void submit(Runnable change) {
+        if (!enabled) {
+            return;
+        }
+        pendingChanges.add(() -> {
+            if (layout != null) change.run();
+        });
+        wake();
+    }
+
+    /**
+     * Moves a vertex that is being dragged by the user, so the layout uses its
+     * new position, and wakes the worker. Must be called in the JavaFX thread.
+     *
+     * @param node vertex that moved
+     */
+    void moveNode(SmartGraphVertexNode<?> node) {
+        pendingMoves.add(new Move(node, node.getCenterX(), node.getCenterY()));
+        wake();
+    }
+
+    /**
+     * Copies the last published frame, if new, to the vertices. Must be called in
+     * the JavaFX thread.
+     *
+     * @return true if a frame was applied; false otherwise
+     */
+    synchronized boolean applyFrame() {
+        if (!frontUpdated) {
+            return false;
+        }
+
+        Frame frame = front;
+        for (int i = 0; i < frame.count; i++) {
+            frame.nodes[i].setPosition(frame.x[i], frame.y[i]);
+        }
+        frontUpdated = false;
+        return true;
+    }
+
+    private void iterate() {
+        try {
+            Runnable change;
+            while ((change = pendingChanges.poll()) != null) {
+                change.run();
+            }
+            if (layout == null) {
+                return;
+            }
+            if (reheat) {
+                reheat = false;
+                temperature = INITIAL_TEMPERATURE * Math.max(width, height);
+                energy = Double.MAX_VALUE;
+                progress = 0;
+            }
+
+            applyMoves();
+            computeForces();
+            double displacement = moveFromForces();
+            publish();
+
+            if (layout.count == 0 || displacement < convergenceThreshold * layout.count) {
+                sleep();
+            }
+        } catch (RuntimeException e) {
+            //an exception would silently cancel the next iterations
+            Logger.getLogger(ForceLayoutWorker.class.getName()).log(Level.SEVERE, null, e);
+        }
+    }
+
+    private void applyMoves() {
+        Move move;
+        while ((move = pendingMoves.poll()) != null) {
+            Integer i = layout.indexes.get(move.node);
+            if (i != null) {
+                layout.x[i] = move.x;
+                layout.y[i] = move.y;
+            }
+        }
+    }
+
+    private void computeForces() {
+        int n = layout.count;
+        if (barnesHut) {
+            quadtree.build(layout.x, layout.y, n);
+        }
+
+        if (n < PARALLEL_THRESHOLD) {
+            computeForces(0, n);
+        } else {
+            int chunks = (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            IntStream.range(0, chunks).parallel()
+                    .forEach(c -> computeForces(c * CHUNK_SIZE, Math.min(n, (c + 1) * CHUNK_SIZE)));
+        }
+    }
+
+    /**
+     * Computes the forces of the vertices in <code>[from, to)</code>: repelling
+     * forces from every other vertex and attractive forces from the adjacent ones,
+     * as in {@link UtilitiesPoint2D}.
+     */
+    private void computeForces(int from, int to) {
+        Layout l = this.layout;
+        int n = l.count;
+        double[] x = l.x, y = l.y;
+        double[] force = new double[2];
+        int[] stack = barnesHut ? BarnesHutQuadtree.newStack() : null;
+
+        for (int i = from; i < to; i++) {
+            double forceX = 0, forceY = 0;
+
+            if (barnesHut) {
+                quadtree.repellingForce(i, repulsionForce, barnesHutTheta, force, stack);
+                forceX = force[0];
+                forceY = force[1];
+            } else {
+                for (int j = 0; j < n; j++) {
+                    double dx = x[i] - x[j], dy = y[i] - y[j];
+                    double distance = Math.sqrt(dx * dx + dy * dy);
+                    //also skips the vertex itself
+                    if (distance == 0) continue;
+
+                    double factor = UtilitiesPoint2D.repellingFunction(distance, repulsionForce) / distance;
+                    forceX += dx * factor;
+                    forceY += dy * factor;
+                }
+            }
+
+            int[] targets = l.targets[i];
+            for (int k = 0; k < l.degrees[i]; k++) {
+                int j = targets[k];
+                double dx = x[j] - x[i], dy = y[j] - y[i];
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                if (distance == 0) continue;
+
+                double factor = UtilitiesPoint2D.attractiveFunction(distance, n,
+                        attractionForce, attractionScale) / distance;
+                forceX += dx * factor;
+                forceY += dy * factor;
+            }
+
+            l.forceX[i] = forceX;
+            l.forceY[i] = forceY;
+        }
+    }
+
+    /**
+     * Moves the vertices along their forces, at most the current temperature,
+     * and updates the temperature with the energy of this iteration.
+     *
+     * @return sum of the displacements of the vertices
+     */
+    private double moveFromForces() {
+        Layout l = this.layout;
+        double maxX = width, maxY = height;
+        double step = temperature;
+        double newEnergy = 0, displacement = 0;
+
+        for (int i = 0; i < l.count; i++) {
+            double forceX = l.forceX[i], forceY = l.forceY[i];
+            double force = Math.sqrt(forceX * forceX + forceY * forceY);
+            newEnergy += force * force;
+
+            if (force > step) {
+                forceX *= step / force;
+                forceY *= step / force;
+            }
+
+            double x = bound(l.x[i] + forceX, l.radius[i], maxX);
+            double y = bound(l.y[i] + forceY, l.radius[i], maxY);
+            displacement += Math.sqrt((x - l.x[i]) * (x - l.x[i]) + (y - l.y[i]) * (y - l.y[i]));
+            l.x[i] = x;
+            l.y[i] = y;
+        }
+
+        updateTemperature(newEnergy);
+        return displacement;
+    }
+
+    private void updateTemperature(double newEnergy) {
+        double maxTemperature = INITIAL_TEMPERATURE * Math.max(width, height);
+
+        if (newEnergy < energy) {
+            if (++progress >= HEATING_PROGRESS) {
+                progress = 0;
+                temperature = Math.min(maxTemperature, temperature / COOLING);
+            }
+        } else {
+            progress = 0;
+            temperature *= COOLING;
+        }
+        energy = newEnergy;
+    }
+
+    /**
+     * Same limits of {@link SmartGraphVertexNode#moveFromForces()}.
+     */
+    private static double bound(double value, double radius, double max) {
+        if (value < radius) {
+            return radius;
+        } else if (value > max - radius) {
+            return max - radius;
+        } else {
+            return value;
+        }
+    }
+
+    private void publish() {
+        Frame frame = back;
+        frame.set(layout);
+
+        synchronized (this) {
+            back = front;
+            front = frame;
+            frontUpdated = true;
+        }
+    }
+
+    /**
+     * Vertices, adjacencies and positions being laid out.
+     * <p>
+     * A removed vertex is replaced by the last one, so the vertices stay in
+     * <code>[0, count)</code> and a change only touches the adjacencies of the
+     * vertices involved.
+     */
+    private static final class Layout {
+        private static final int[] NO_TARGETS = new int[0];
+
+        int count;
+        SmartGraphVertexNode<?>[] nodes;
+        final Map<SmartGraphVertexNode<?>, Integer> indexes;
+        //indexes of the adjacent vertices, in the first 'degrees[i]' positions
+        int[][] targets;
+        int[] degrees;
+        double[] x, y, radius;
+        double[] forceX, forceY;
+
+        Layout(int capacity) {
+            capacity = Math.max(capacity, 16);
+            this.nodes = new SmartGraphVertexNode<?>[capacity];
+            this.indexes = new IdentityHashMap<>(2 * capacity);
+            this.targets = new int[capacity][];
+            this.degrees = new int[capacity];
+            this.x = new double[capacity];
+            this.y = new double[capacity];
+            this.radius = new double[capacity];
+            this.forceX = new double[capacity];
+            this.forceY = new double[capacity];
+        }
+
+        void add(SmartGraphVertexNode<?> node, double nodeX, double nodeY, double nodeRadius) {
+            if (indexes.containsKey(node)) {
+                return;
+            }
+            if (count == nodes.length) {
+                int capacity = 2 * count;
+                nodes = Arrays.copyOf(nodes, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                degrees = Arrays.copyOf(degrees, capacity);
+                x = Arrays.copyOf(x, capacity);
+                y = Arrays.copyOf(y, capacity);
+                radius = Arrays.copyOf(radius, capacity);
+                forceX = Arrays.copyOf(forceX, capacity);
+                forceY = Arrays.copyOf(forceY, capacity);
+            }
+
+            int i = count++;
+            nodes[i] = node;
+            targets[i] = NO_TARGETS;
+            degrees[i] = 0;
+            x[i] = nodeX;
+            y[i] = nodeY;
+            radius[i] = nodeRadius;
+            indexes.put(node, i);
+        }
+
+        void remove(SmartGraphVertexNode<?> node) {
+            Integer index = indexes.remove(node);
+            if (index == null) {
+                return;
+            }
+            int i = index;
+            for (int k = 0; k < degrees[i]; k++) {
+                removeTarget(targets[i][k], i);
+            }
+
+            int last = --count;
+            if (i != last) {
+                nodes[i] = nodes[last];
+                targets[i] = targets[last];
+                degrees[i] = degrees[last];
+                x[i] = x[last];
+                y[i] = y[last];
+                radius[i] = radius[last];
+                indexes.put(nodes[i], i);
+
+                //the adjacent vertices now find it at its new index
+                for (int k = 0; k < degrees[i]; k++) {
+                    int j = targets[i][k];
+                    targets[j][indexOf(j, last)] = i;
+                }
+            }
+            nodes[last] = null;
+            targets[last] = null;
+        }
+
+        void connect(SmartGraphVertexNode<?> u, SmartGraphVertexNode<?> v) {
+            Integer i = indexes.get(u), j = indexes.get(v);
+            //skip self-loops and vertices that were already removed
+            if (i == null || j == null || i.equals(j) || indexOf(i, j) >= 0) {
+                return;
+            }
+            addTarget(i, j);
+            addTarget(j, i);
+        }
+
+        void disconnect(SmartGraphVertexNode<?> u, SmartGraphVertexNode<?> v) {
+            Integer i = indexes.get(u), j = indexes.get(v);
+            if (i == null || j == null) {
+                return;
+            }
+            removeTarget(i, j);
+            removeTarget(j, i);
+        }
+
+        private int indexOf(int i, int j) {
+            for (int k = 0; k < degrees[i]; k++) {
+                if (targets[i][k] == j) return k;
+            }
+            return -1;
+        }
+
+        private void addTarget(int i, int j) {
+            if (degrees[i] == targets[i].length) {
+                targets[i] = Arrays.copyOf(targets[i], Math.max(4, 2 * degrees[i]));
+            }
+            targets[i][degrees[i]++] = j;
+        }
+
+        private void removeTarget(int i, int j) {
+            int k = indexOf(i, j);
+            if (k >= 0) {
+                targets[i][k] = targets[i][--degrees[i]];
+            }
+        }
+    }
+
+    /**
+     * Positions of the vertices after an iteration.
+     */
+    private static final class Frame {
+        int count;
+        SmartGraphVertexNode<?>[] nodes = new SmartGraphVertexNode<?>[0];
+        double[] x = new double[0];
+        double[] y = new double[0];
+
+        void set(Layout layout) {
+            if (x.length < layout.count) {
+                nodes = new SmartGraphVertexNode<?>[layout.nodes.length];
+                x = new double[layout.nodes.length];
+                y = new double[layout.nodes.length];
+            }
+            count = layout.count;
+            //copied, the layout changes its vertices while this frame is applied
+            System.arraycopy(layout.nodes, 0, nodes, 0, count);
+            System.arraycopy(layout.x, 0, x, 0, count);
+            System.arraycopy(layout.y, 0, y, 0, count);
+        }
+    }
+
+    /**
+     * Position of a vertex moved by the user.
+     */
+    private static final class Move {
+        final SmartGraphVertexNode<?> node;
+        final double x, y;
+
+        Move(SmartGraphVertexNode<?> node, double x, double y) {
+            this.node = node;
+            this.x = x;
+            this.y = y;
+        }
+    }
+}
@@ -0,0 +1,616 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019 brunomnsilva@gmail.com.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.brunomnsilva.smartgraph.graphview;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import javafx.animation.AnimationTimer;
+import javafx.beans.InvalidationListener;
+import javafx.scene.Cursor;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+import pt.pa.graph.Edge;
+import pt.pa.graph.Vertex;
+
+/**
+ * Draws the vertices, edges and labels of a {@link SmartGraphPanel} onto a
+ * single {@link Canvas}, instead of adding one node per element to the scene
+ * graph.
+ * <p>
+ * The vertex and edge nodes are still created, so styling and the automatic
+ * layout work as usual, but they are never attached to the scene: the canvas is
+ * redrawn, in batched passes, on the next pulse after any of them moves or is
+ * restyled. Only the inline styles <code>-fx-fill</code>,
+ * <code>-fx-stroke</code>, <code>-fx-stroke-width</code> and
+ * <code>-fx-opacity</code> are drawn; everything else uses the defaults of the
+ * bundled stylesheet. Edges are drawn as straight lines, without arrows.
+ * <p>
+ * Clicks and drags are resolved by a uniform grid of the drawn elements, rebuilt
+ * lazily after they change. Elements (and labels) hidden by the panel, e.g.,
+ * outside its viewport, are neither drawn nor picked.
+ */
+final class SmartGraphCanvasRenderer<V, E> {
+
+    //defaults of smartgraph.css, that is not applied to a canvas
+    private static final Color VERTEX_FILL = Color.web("#B1DFF7");
+    private static final Color VERTEX_STROKE = Color.web("#61B5F1");
+    private static final double VERTEX_STROKE_WIDTH = 1;
+    private static final Color EDGE_STROKE = Color.web("#FF6D66");
+    private static final double EDGE_STROKE_WIDTH = 1;
+    private static final double EDGE_OPACITY = 0.5;
+    private static final double[] EDGE_DASHES = {2, 5, 2, 5};
+    private static final Color LABEL_FILL = Color.BLACK;
+    private static final double POINTS_TO_PIXELS = 96.0 / 72.0;
+    private static final Font VERTEX_LABEL_FONT = Font.font("sans-serif", 8 * POINTS_TO_PIXELS);
+    private static final Font EDGE_LABEL_FONT = Font.font("sans-serif", 5 * POINTS_TO_PIXELS);
+
+    //side of the cells of the hit-testing grid, at least the diameter of a vertex
+    private static final double CELL_SIZE = 24;
+    private static final double EDGE_PICK_TOLERANCE = 3;
+
+    private final Canvas canvas;
+    private final Map<Vertex<V>, SmartGraphVertexNode<V>> vertexNodes;
+    private final Map<Edge<E, V>, SmartGraphEdgeBase<E, V>> edgeNodes;
+    private final boolean allowUserMove;
+    private final Consumer<SmartGraphVertexNode<V>> vertexMoved;
+
+    private final AnimationTimer redrawTimer;
+    private final InvalidationListener invalidationListener = observable -> invalidate();
+    private boolean redraw = true;
+    private boolean indexOutdated = true;
+
+    /*
+    ELEMENTS OF THE LAST DRAWN FRAME
+     */
+    private SmartGraphVertexNode<V>[] vertices;
+    private double[] vertexX, vertexY, vertexRadius;
+    private int vertexCount;
+    private SmartGraphEdgeBase<E, V>[] edges;
+    private double[] edgeX0, edgeY0, edgeX1, edgeY1;
+    private int edgeCount;
+
+    /*
+    HIT-TESTING GRID, IN COMPRESSED ROWS (ONE ROW PER CELL)
+     */
+    private double cellSize;
+    private int columns, rows;
+    private int[] vertexCells, vertexItems;
+    private int[] edgeCells, edgeItems;
+
+    private SmartGraphVertexNode<V> draggedVertex;
+    private double dragDeltaX, dragDeltaY;
+
+    /**
+     * Creates a renderer, whose canvas must be the only child of the panel.
+     *
+     * @param panel         panel where the graph is drawn
+     * @param vertexNodes   vertices of the panel
+     * @param edgeNodes     edges of the panel
+     * @param allowUserMove whether the user can drag vertices
+     * @param vertexMoved   called when the user moves a vertex
+     */
+    SmartGraphCanvasRenderer(Pane panel, Map<Vertex<V>, SmartGraphVertexNode<V>> vertexNodes,
+            Map<Edge<E, V>, SmartGraphEdgeBase<E, V>> edgeNodes, boolean allowUserMove,
+            Consumer<SmartGraphVertexNode<V>> vertexMoved) {
+        this.vertexNodes = vertexNodes;
+        this.edgeNodes = edgeNodes;
+        this.allowUserMove = allowUserMove;
+        this.vertexMoved = vertexMoved;
+
+        this.vertices = newArray(SmartGraphVertexNode.class, 0);
+        this.edges = newArray(SmartGraphEdgeBase.class, 0);
+        this.vertexX = this.vertexY = this.vertexRadius = new double[0];
+        this.edgeX0 = this.edgeY0 = this.edgeX1 = this.edgeY1 = new double[0];
+
+        this.canvas = new Canvas();
+        canvas.widthProperty().bind(panel.widthProperty());
+        canvas.heightProperty().bind(panel.heightProperty());
+        canvas.widthProperty().addListener(invalidationListener);
+        canvas.heightProperty().addListener(invalidationListener);
+
+        this.redrawTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (redraw) {
+                    redraw = false;
+                    draw();
+                } else {
+                    //nothing changed since the last frame
+                    stop();
+                }
+            }
+        };
+
+        enableMouseInteraction();
+    }
+
+    /**
+     * Returns the canvas where the graph is drawn.
+     *
+     * @return canvas
+     */
+    Canvas getCanvas() {
+        return canvas;
+    }
+
+    /**
+     * Redraws the canvas when a vertex moves or is restyled.
+     *
+     * @param vertex vertex to follow
+     */
+    void track(SmartGraphVertexNode<V> vertex) {
+        vertex.centerXProperty().addListener(invalidationListener);
+        vertex.centerYProperty().addListener(invalidationListener);
+        vertex.styleProperty().addListener(invalidationListener);
+    }
+
+    /**
+     * Redraws the canvas when an edge is restyled.
+     *
+     * @param edge edge to follow
+     */
+    void track(SmartGraphEdgeBase<E, V> edge) {
+        ((Node) edge).styleProperty().addListener(invalidationListener);
+    }
+
+    /**
+     * Schedules a redraw on the next pulse, e.g., after elements are added or
+     * removed.
+     */
+    void invalidate() {
+        redraw = true;
+        indexOutdated = true;
+        redrawTimer.start();
+    }
+
+    /**
+     * Returns the topmost vertex or edge at a point of the canvas.
+     *
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return vertex or edge node; null if there is none
+     */
+    Node pick(double x, double y) {
+        SmartGraphVertexNode<V> vertex = pickVertex(x, y);
+        if (vertex != null) {
+            return vertex;
+        }
+        return (Node) pickEdge(x, y);
+    }
+
+    /*
+    DRAWING
+     */
+    private void draw() {
+        collectElements();
+
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setGlobalAlpha(1);
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+        drawEdges(gc);
+        drawVertices(gc);
+        drawLabels(gc);
+    }
+
+    private void collectElements() {
+        vertexCount = vertexNodes.size();
+        if (vertices.length < vertexCount) {
+            vertices = newArray(SmartGraphVertexNode.class, vertexCount);
+            vertexX = new double[vertexCount];
+            vertexY = new double[vertexCount];
+            vertexRadius = new double[vertexCount];
+        }
+
+        int i = 0;
+        for (SmartGraphVertexNode<V> vertex : vertexNodes.values()) {
+            //culled by the panel
+            if (!vertex.isVisible()) continue;
+
+            vertices[i] = vertex;
+            vertexX[i] = vertex.getCenterX();
+            vertexY[i] = vertex.getCenterY();
+            vertexRadius[i] = vertex.getRadius();
+            i++;
+        }
+        vertexCount = i;
+        Arrays.fill(vertices, vertexCount, vertices.length, null);
+
+        int capacity = edgeNodes.size();
+        if (edges.length < capacity) {
+            edges = newArray(SmartGraphEdgeBase.class, capacity);
+            edgeX0 = new double[capacity];
+            edgeY0 = new double[capacity];
+            edgeX1 = new double[capacity];
+            edgeY1 = new double[capacity];
+        }
+
+        edgeCount = 0;
+        for (Map.Entry<Edge<E, V>, SmartGraphEdgeBase<E, V>> entry : edgeNodes.entrySet()) {
+            Vertex<V>[] ends = entry.getKey().vertices();
+            SmartGraphVertexNode<V> from = vertexNodes.get(ends[0]);
+            SmartGraphVertexNode<V> to = vertexNodes.get(ends[1]);
+            if (from == null || to == null || !((Node) entry.getValue()).isVisible()) continue;
+
+            edges[edgeCount] = entry.getValue();
+            edgeX0[edgeCount] = from.getCenterX();
+            edgeY0[edgeCount] = from.getCenterY();
+            edgeX1[edgeCount] = to.getCenterX();
+            edgeY1[edgeCount] = to.getCenterY();
+            edgeCount++;
+        }
+        Arrays.fill(edges, edgeCount, edges.length, null);
+    }
+
+    private void drawEdges(GraphicsContext gc) {
+        //all edges with the default style in a single path
+        gc.setStroke(EDGE_STROKE);
+        gc.setLineWidth(EDGE_STROKE_WIDTH);
+        gc.setLineDashes(EDGE_DASHES);
+        gc.setGlobalAlpha(EDGE_OPACITY);
+        gc.beginPath();
+        for (int i = 0; i < edgeCount; i++) {
+            if (!hasStyle((Node) edges[i])) {
+                gc.moveTo(edgeX0[i], edgeY0[i]);
+                gc.lineTo(edgeX1[i], edgeY1[i]);
+            }
+        }
+        gc.stroke();
+
+        for (int i = 0; i < edgeCount; i++) {
+            Node edge = (Node) edges[i];
+            if (hasStyle(edge)) {
+                Map<String, String> style = parseStyle(edge.getStyle());
+                gc.setStroke(color(style.get("-fx-stroke"), EDGE_STROKE));
+                gc.setLineWidth(number(style.get("-fx-stroke-width"), EDGE_STROKE_WIDTH));
+                gc.setGlobalAlpha(number(style.get("-fx-opacity"), EDGE_OPACITY));
+                gc.strokeLine(edgeX0[i], edgeY0[i], edgeX1[i], edgeY1[i]);
+            }
+        }
+        gc.setLineDashes(null);
+        gc.setGlobalAlpha(1);
+    }
+
+    private void drawVertices(GraphicsContext gc) {
+        //all vertices with the default style in a single path
+        gc.setFill(VERTEX_FILL);
+        gc.setStroke(VERTEX_STROKE);
+        gc.setLineWidth(VERTEX_STROKE_WIDTH);
+        gc.beginPath();
+        for (int i = 0; i < vertexCount; i++) {
+            if (!hasStyle(vertices[i])) {
+                circle(gc, i, VERTEX_STROKE_WIDTH);
+            }
+        }
+        gc.fill();
+        gc.stroke();
+
+        for (int i = 0; i < vertexCount; i++) {
+            if (hasStyle(vertices[i])) {
+                Map<String, String> style = parseStyle(vertices[i].getStyle());
+                double strokeWidth = number(style.get("-fx-stroke-width"), VERTEX_STROKE_WIDTH);
+
+                gc.setGlobalAlpha(number(style.get("-fx-opacity"), 1));
+                gc.setFill(color(style.get("-fx-fill"), VERTEX_FILL));
+                gc.setStroke(color(style.get("-fx-stroke"), VERTEX_STROKE));
+                gc.setLineWidth(strokeWidth);
+                gc.beginPath();
+                circle(gc, i, strokeWidth);
+                gc.fill();
+                gc.stroke();
+            }
+        }
+        gc.setGlobalAlpha(1);
+    }
+
+    /**
+     * Adds a vertex to the current path, with the stroke inside the circle.
+     */
+    private void circle(GraphicsContext gc, int i, double strokeWidth) {
+        double r = Math.max(vertexRadius[i] - strokeWidth / 2, 0);
+        gc.moveTo(vertexX[i] + r, vertexY[i]);
+        gc.arc(vertexX[i], vertexY[i], r, r, 0, 360);
+        gc.closePath();
+    }
+
+    private void drawLabels(GraphicsContext gc) {
+        gc.setFill(LABEL_FILL);
+        gc.setTextAlign(TextAlignment.CENTER);
+
+        gc.setFont(EDGE_LABEL_FONT);
+        for (int i = 0; i < edgeCount; i++) {
+            SmartLabel label = edges[i].getAttachedLabel();
+            if (label != null && label.isVisible()) {
+                gc.fillText(label.getText(), (edgeX0[i] + edgeX1[i]) / 2,
+                        (edgeY0[i] + edgeY1[i]) / 2 + EDGE_LABEL_FONT.getSize());
+            }
+        }
+
+        gc.setFont(VERTEX_LABEL_FONT);
+        for (int i = 0; i < vertexCount; i++) {
+            SmartLabel label = vertices[i].getAttachedLabel();
+            if (label != null && label.isVisible()) {
+                gc.fillText(label.getText(), vertexX[i], vertexY[i] + vertexRadius[i] + VERTEX_LABEL_FONT.getSize());
+            }
+        }
+    }
+
+    /**
+     * Creates an array of a generic element type (e.g., the vertex nodes of this panel).
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T[] newArray(Class<?> componentType, int length) {
+        return (T[]) Array.newInstance(componentType, length);
+    }
+
+    private static boolean hasStyle(Node node) {
+        String style = node.getStyle();
+        return style != null && !style.isEmpty();
+    }
+
+    /**
+     * Parses the declarations of an inline style, e.g.,
+     * <code>"-fx-stroke: green; -fx-stroke-width: 3;"</code>.
+     */
+    private static Map<String, String> parseStyle(String css) {
+        Map<String, String> declarations = new HashMap<>();
+        for (String declaration : css.split(";")) {
+            int colon = declaration.indexOf(':');
+            if (colon > 0) {
+                declarations.put(declaration.substring(0, colon).trim(), declaration.substring(colon + 1).trim());
+            }
+        }
+        return declarations;
+    }
+
+    private static Color color(String value, Color defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Color.web(value);
+        } catch (IllegalArgumentException e) {
+            return defaultValue;
+        }
+    }
+
+    private static double number(String value, double defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.replace("px", "").trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /*
+    HIT-TESTING
+     */
+    private SmartGraphVertexNode<V> pickVertex(double x, double y) {
+        updateIndex();
+
+        int column = column(x), row = row(y);
+        SmartGraphVertexNode<V> picked = null;
+        int pickedIndex = -1;
+
+        for (int r = Math.max(row - 1, 0); r <= Math.min(row + 1, rows - 1); r++) {
+            for (int c = Math.max(column - 1, 0); c <= Math.min(column + 1, columns - 1); c++) {
+                int cell = r * columns + c;
+                for (int k = vertexCells[cell]; k < vertexCells[cell + 1]; k++) {
+                    int i = vertexItems[k];
+                    double dx = x - vertexX[i], dy = y - vertexY[i];
+                    //the last drawn is on top
+                    if (i > pickedIndex && dx * dx + dy * dy <= vertexRadius[i] * vertexRadius[i]) {
+                        picked = vertices[i];
+                        pickedIndex = i;
+                    }
+                }
+            }
+        }
+        return picked;
+    }
+
+    private SmartGraphEdgeBase<E, V> pickEdge(double x, double y) {
+        updateIndex();
+
+        int column = column(x), row = row(y);
+        SmartGraphEdgeBase<E, V> picked = null;
+        double pickedDistance = EDGE_PICK_TOLERANCE;
+
+        for (int r = Math.max(row - 1, 0); r <= Math.min(row + 1, rows - 1); r++) {
+            for (int c = Math.max(column - 1, 0); c <= Math.min(column + 1, columns - 1); c++) {
+                int cell = r * columns + c;
+                for (int k = edgeCells[cell]; k < edgeCells[cell + 1]; k++) {
+                    int i = edgeItems[k];
+                    double distance = distanceToSegment(x, y, i);
+                    if (distance <= pickedDistance) {
+                        picked = edges[i];
+                        pickedDistance = distance;
+                    }
+                }
+            }
+        }
+        return picked;
+    }
+
+    private double distanceToSegment(double x, double y, int i) {
+        double dx = edgeX1[i] - edgeX0[i], dy = edgeY1[i] - edgeY0[i];
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0
+                : Math.max(0, Math.min(1, ((x - edgeX0[i]) * dx + (y - edgeY0[i]) * dy) / lengthSquared));
+        double px = edgeX0[i] + t * dx - x, py = edgeY0[i] + t * dy - y;
+        return Math.sqrt(px * px + py * py);
+    }
+
+    /**
+     * Rebuilds the grid, if the elements changed since it was built. Vertices
+     * are indexed by the cell of their center; edges by every cell they cross,
+     * sampled every half cell (queries look at the neighbouring cells too).
+     */
+    private void updateIndex() {
+        if (!indexOutdated) {
+            return;
+        }
+        if (redraw) {
+            //the elements of the last frame are outdated too
+            collectElements();
+        }
+        indexOutdated = false;
+
+        double maxRadius = 0;
+        for (int i = 0; i < vertexCount; i++) {
+            maxRadius = Math.max(maxRadius, vertexRadius[i]);
+        }
+        cellSize = Math.max(CELL_SIZE, 2 * maxRadius);
+        columns = Math.max(1, (int) Math.ceil(canvas.getWidth() / cellSize));
+        rows = Math.max(1, (int) Math.ceil(canvas.getHeight() / cellSize));
+
+        vertexCells = new int[columns * rows + 1];
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < vertexCount; i++) {
+                int cell = row(vertexY[i]) * columns + column(vertexX[i]);
+                if (pass == 0) {
+                    vertexCells[cell + 1]++;
+                } else {
+                    vertexItems[vertexCells[cell]++] = i;
+                }
+            }
+            if (pass == 0) {
+                prefixSum(vertexCells);
+                vertexItems = new int[vertexCount];
+            } else {
+                shiftBack(vertexCells);
+            }
+        }
+
+        edgeCells = new int[columns * rows + 1];
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < edgeCount; i++) {
+                double length = Math.hypot(edgeX1[i] - edgeX0[i], edgeY1[i] - edgeY0[i]);
+                int samples = (int) Math.ceil(length / (cellSize / 2)) + 1;
+                int previous = -1;
+
+                for (int s = 0; s < samples; s++) {
+                    double t = samples == 1 ? 0 : (double) s / (samples - 1);
+                    int cell = row(edgeY0[i] + t * (edgeY1[i] - edgeY0[i])) * columns
+                            + column(edgeX0[i] + t * (edgeX1[i] - edgeX0[i]));
+                    if (cell == previous) continue;
+                    previous = cell;
+
+                    if (pass == 0) {
+                        edgeCells[cell + 1]++;
+                    } else {
+                        edgeItems[edgeCells[cell]++] = i;
+                    }
+                }
+            }
+            if (pass == 0) {
+                prefixSum(edgeCells);
+                edgeItems = new int[edgeCells[edgeCells.length - 1]];
+            } else {
+                shiftBack(edgeCells);
+            }
+        }
+    }
+
+    private static void prefixSum(int[] cells) {
+        for (int c = 1; c < cells.length; c++) {
+            cells[c] += cells[c - 1];
+        }
+    }
+
+    /**
+     * After filling, each start was advanced to the start of the next cell.
+     */
+    private static void shiftBack(int[] cells) {
+        System.arraycopy(cells, 0, cells, 1, cells.length - 1);
+        cells[0] = 0;
+    }
+
+    private int column(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) (x / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) (y / cellSize)));
+    }
+
+    /*
+    INTERACTION
+     */
+    private void enableMouseInteraction() {
+        canvas.setOnMousePressed((MouseEvent mouseEvent) -> {
+            if (allowUserMove && mouseEvent.isPrimaryButtonDown()) {
+                draggedVertex = pickVertex(mouseEvent.getX(), mouseEvent.getY());
+                if (draggedVertex != null) {
+                    dragDeltaX = draggedVertex.getCenterX() - mouseEvent.getX();
+                    dragDeltaY = draggedVertex.getCenterY() - mouseEvent.getY();
+                    draggedVertex.setDragging(true);
+                    canvas.setCursor(Cursor.MOVE);
+                    mouseEvent.consume();
+                }
+            }
+        });
+
+        canvas.setOnMouseDragged((MouseEvent mouseEvent) -> {
+            if (draggedVertex != null && mouseEvent.isPrimaryButtonDown()) {
+                double radius = draggedVertex.getRadius();
+                draggedVertex.setCenterX(bound(mouseEvent.getX() + dragDeltaX, radius, canvas.getWidth()));
+                draggedVertex.setCenterY(bound(mouseEvent.getY() + dragDeltaY, radius, canvas.getHeight()));
+                vertexMoved.accept(draggedVertex);
+                mouseEvent.consume();
+            }
+        });
+
+        canvas.setOnMouseReleased((MouseEvent mouseEvent) -> {
+            if (draggedVertex != null) {
+                draggedVertex.setDragging(false);
+                vertexMoved.accept(draggedVertex);
+                draggedVertex = null;
+                canvas.setCursor(Cursor.HAND);
+                mouseEvent.consume();
+            }
+        });
+
+        canvas.setOnMouseMoved((MouseEvent mouseEvent) -> {
+            boolean overVertex = pickVertex(mouseEvent.getX(), mouseEvent.getY()) != null;
+            canvas.setCursor(overVertex ? Cursor.HAND : Cursor.DEFAULT);
+        });
+    }
+
+    private static double bound(double value, double radius, double max) {
+        return Math.max(radius, Math.min(max - radius, value));
+    }
+}
@@ -62,6 +62,7 @@ public class SmartGraphEdgeCurve<E, V> extends CubicCurve implements SmartGraphE
     private SmartArrow attachedArrow = null;
 
     private double randomAngleFactor = 0;
+    private boolean straight = false;
     
     /* Styling proxy */
     private final SmartStyleProxy styleProxy;
@@ -107,8 +108,29 @@ public class SmartGraphEdgeCurve<E, V> extends CubicCurve implements SmartGraphE
         return styleProxy.removeStyleClass(cssClass);
     }
     
+    /**
+     * Draws the edge as a straight line (a lower level of detail) or as a curve.
+     *
+     * @param straight true to draw a straight line; false otherwise
+     */
+    void setStraight(boolean straight) {
+        if (this.straight != straight) {
+            this.straight = straight;
+            update();
+        }
+    }
+
     private void update() {                
-        if (inbound == outbound) {
+        if (straight && inbound != outbound) {
+            /* control points over the midpoint of the line */
+            double midpointX = (outbound.getCenterX() + inbound.getCenterX()) / 2;
+            double midpointY = (outbound.getCenterY() + inbound.getCenterY()) / 2;
+
+            setControlX1(midpointX);
+            setControlY1(midpointY);
+            setControlX2(midpointX);
+            setControlY2(midpointY);
+        } else if (inbound == outbound) {
             /* Make a loop using the control points proportional to the vertex radius */
             
             //TODO: take into account several "self-loops" with randomAngleFactor
@@ -41,6 +41,8 @@ import javafx.scene.text.Text;
 import pt.pa.graph.Digraph;
 import pt.pa.graph.Edge;
 import pt.pa.graph.Graph;
+import pt.pa.graph.GraphChange;
+import pt.pa.graph.InvalidVertexException;
 import pt.pa.graph.Vertex;
 
 import java.io.File;
@@ -55,8 +57,6 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static com.brunomnsilva.smartgraph.graphview.UtilitiesJavaFX.pick;
-import static com.brunomnsilva.smartgraph.graphview.UtilitiesPoint2D.attractiveForce;
-import static com.brunomnsilva.smartgraph.graphview.UtilitiesPoint2D.repellingForce;
 
 /**
  * JavaFX {@link Pane} that is capable of plotting a {@link Graph} or {@link Digraph}.
@@ -88,9 +88,10 @@ public class SmartGraphPanel<V, E> extends Pane {
     private final Graph<V, E> theGraph;
     private final SmartPlacementStrategy placementStrategy;
     private final Map<Vertex<V>, SmartGraphVertexNode<V>> vertexNodes;
-    private final Map<Edge<E, V>, SmartGraphEdgeBase> edgeNodes;
+    private final Map<Edge<E, V>, SmartGraphEdgeBase<E, V>> edgeNodes;
     private Map<Edge<E,V>, Tuple<Vertex<V>>> connections;
     private final Map<Tuple<SmartGraphVertexNode>, Integer> placedEdges = new HashMap<>();
+    private final Set<Node> removedNodes = new HashSet<>();
     private boolean initialized = false;
     private final boolean edgesWithArrows;
 
@@ -105,12 +106,36 @@ public class SmartGraphPanel<V, E> extends Pane {
      */
     public final BooleanProperty automaticLayoutProperty;
     private AnimationTimer timer;
-    private final double repulsionForce;
-    private final double attractionForce;
-    private final double attractionScale;
+    private final ForceLayoutWorker layoutWorker;
 
-    //This value was obtained experimentally
-    private static final int AUTOMATIC_LAYOUT_ITERATIONS = 20;
+    /*
+    CANVAS RENDERING, NULL IF EACH ELEMENT IS A NODE OF THE PANEL
+     */
+    private final SmartGraphCanvasRenderer<V, E> canvasRenderer;
+
+    /*
+    VIEWPORT CULLING AND LEVEL OF DETAIL
+     */
+    private Bounds viewport = null;
+    private double viewportScale = 1;
+    private boolean culled = false;
+
+    //region and level of detail of the last culling, for the elements added after it
+    private double cullMinX, cullMaxX, cullMinY, cullMaxY;
+    private boolean lodLabels, lodStraightEdges;
+    private double cellSize;
+    //null if not aggregating; the first vertex of each cell represents the others
+    private Map<Long, SmartGraphVertexNode<V>> representatives = null;
+    private Set<SmartGraphVertexNode<V>> aggregated = null;
+    private boolean representativeRemoved = false;
+
+    //average on-screen distance between the visible vertices, in pixels, below which
+    //labels are hidden, curved edges are drawn straight and close vertices are aggregated
+    private static final double LOD_LABELS_SPACING = 40;
+    private static final double LOD_STRAIGHT_EDGES_SPACING = 20;
+    private static final double LOD_AGGREGATE_SPACING = 10;
+    //on-screen margin around the viewport, for labels and partially visible elements
+    private static final double VIEWPORT_MARGIN = 50;
 
     /**
      * Constructs a visualization of the graph referenced by
@@ -186,50 +211,48 @@ public class SmartGraphPanel<V, E> extends Pane {
 
         this.edgesWithArrows = this.graphProperties.getUseEdgeArrow();
 
-        this.repulsionForce = this.graphProperties.getRepulsionForce();
-        this.attractionForce = this.graphProperties.getAttractionForce();
-        this.attractionScale = this.graphProperties.getAttractionScale();
+        this.layoutWorker = new ForceLayoutWorker(this.graphProperties);
 
         vertexNodes = new HashMap<>();
         edgeNodes = new HashMap<>();
         connections = new HashMap<>();
 
+        if (this.graphProperties.getUseCanvasRendering()) {
+            this.canvasRenderer = new SmartGraphCanvasRenderer<>(this, vertexNodes, edgeNodes,
+                    this.graphProperties.getVertexAllowUserMove(), this::vertexMoved);
+            getChildren().add(canvasRenderer.getCanvas());
+        } else {
+            this.canvasRenderer = null;
+        }
+
         //set stylesheet and class
         loadStylesheet(cssFile);
 
         initNodes();
 
         enableDoubleClickListener();
+        enableLayoutWakeUp();
 
         //automatic layout initializations
         timer = new AnimationTimer() {
 
             @Override
             public void handle(long now) {
-                runLayoutIteration();
+                applyLayoutFrame();
             }
         };
 
         this.automaticLayoutProperty = new SimpleBooleanProperty(false);
         this.automaticLayoutProperty.addListener((observable, oldValue, newValue) -> {
             if (newValue) {
-                timer.start();
+                startLayout();
             } else {
-                timer.stop();
+                stopLayout();
             }
         });
 
     }
 
-    private synchronized void runLayoutIteration() {
-        for (int i = 0; i < AUTOMATIC_LAYOUT_ITERATIONS; i++) {
-            resetForces();
-            computeForces();
-            updateForces();
-        }
-        applyForces();
-    }
-
     /**
      * Runs the initial current vertex placement strategy.
      * <p>
@@ -266,7 +289,7 @@ public class SmartGraphPanel<V, E> extends Pane {
                     this.vertexNodes.values());
 
             //start automatic layout
-            timer.start();
+            startLayout();
         }
 
         this.initialized = true;
@@ -331,6 +354,24 @@ public class SmartGraphPanel<V, E> extends Pane {
      * isolated vertices.
      */
     public void updateAndWait() {
+        runAndWait(this::updateNodes);
+    }
+
+    /**
+     * Applies the given changes of the underlying graph to the visualization and
+     * waits for completion of the update.
+     * <p>
+     * Unlike {@link #updateAndWait()}, the graph is not compared with the
+     * plotted elements, so the cost only depends on the number of changes. The
+     * changes must be given in the order they were made to the graph.
+     *
+     * @param changes changes made to the underlying graph since the last update
+     */
+    public void updateAndWait(Collection<GraphChange<V, E>> changes) {
+        runAndWait(() -> applyChanges(changes));
+    }
+
+    private void runAndWait(Runnable action) {
         if (this.getScene() == null) {
             throw new IllegalStateException("You must call this method after the instance was added to a scene.");
         }
@@ -342,7 +383,7 @@ public class SmartGraphPanel<V, E> extends Pane {
         final FutureTask update = new FutureTask(new Callable<Boolean>() {
             @Override
             public Boolean call() throws Exception {
-                updateNodes();
+                action.run();
                 return true;
             }
         });
@@ -359,7 +400,7 @@ public class SmartGraphPanel<V, E> extends Pane {
                 Logger.getLogger(SmartGraphPanel.class.getName()).log(Level.SEVERE, null, ex);
             }
         } else {
-            updateNodes();
+            action.run();
         }
 
     }
@@ -368,6 +409,81 @@ public class SmartGraphPanel<V, E> extends Pane {
         removeNodes();
         insertNodes();
         updateLabels();
+        flushRemovedNodes();
+
+        updatedNodes();
+        updateVisibility();
+    }
+
+    /**
+     * Applies the changes of the underlying graph one by one, without
+     * looking at the rest of the graph.
+     *
+     * @param changes changes made to the underlying graph
+     */
+    private synchronized void applyChanges(Collection<GraphChange<V, E>> changes) {
+        List<SmartGraphVertexNode<V>> newVertices = new ArrayList<>();
+        List<Edge<E, V>> newEdges = new ArrayList<>();
+        Point2D center = null;
+
+        for (GraphChange<V, E> change : changes) {
+            switch (change.getType()) {
+                case VERTEX_INSERTED:
+                    if (vertexNodes.containsKey(change.getVertex())) break;
+
+                    Point2D p = placeNearAdjacent(change.getVertex());
+                    if (p == null) {
+                        if (center == null) {
+                            Bounds bounds = getPlotBounds();
+                            center = new Point2D(bounds.getMinX() + bounds.getWidth() / 2.0,
+                                    bounds.getMinY() + bounds.getHeight() / 2.0);
+                        }
+                        p = center;
+                    }
+                    newVertices.add(createVertexNode(change.getVertex(), p.getX(), p.getY()));
+                    break;
+                case VERTEX_REMOVED:
+                    SmartGraphVertexNode<V> removed = vertexNodes.remove(change.getVertex());
+                    if (removed != null) {
+                        removeVertex(removed);
+                    }
+                    break;
+                case EDGE_INSERTED:
+                    if (!edgeNodes.containsKey(change.getEdge())) {
+                        plotEdge(change.getEdge());
+                        newEdges.add(change.getEdge());
+                    }
+                    break;
+                case EDGE_REMOVED:
+                    if (edgeNodes.containsKey(change.getEdge())) {
+                        unplotEdge(change.getEdge());
+                    }
+                    break;
+            }
+        }
+
+        //place vertices above lines; skip the ones that were removed in the meantime
+        newVertices.removeIf(v -> vertexNodes.get(v.getUnderlyingVertex()) != v);
+        for (SmartGraphVertexNode<V> v : newVertices) {
+            addVertex(v);
+        }
+        flushRemovedNodes();
+
+        updatedNodes();
+        updateVisibility(newVertices, newEdges);
+    }
+
+    /**
+     * Refreshes the layout and the renderer after the plotted elements changed.
+     * The layout worker already received each added and removed element.
+     */
+    private void updatedNodes() {
+        if (automaticLayoutProperty.get()) {
+            timer.start();
+        }
+        if (canvasRenderer != null) {
+            canvasRenderer.invalidate();
+        }
     }
 
     /*
@@ -406,7 +522,7 @@ public class SmartGraphPanel<V, E> extends Pane {
 
         /* create edges graphical representations between existing vertices */
         //this is used to guarantee that no duplicate edges are ever inserted
-        List<Edge<E, V>> edgesToPlace = listOfEdges();
+        Set<Edge<E, V>> edgesToPlace = new HashSet<>(theGraph.edges());
 
         for (Vertex<V> vertex : vertexNodes.keySet()) {
 
@@ -427,7 +543,7 @@ public class SmartGraphPanel<V, E> extends Pane {
                 graphVertexIn.addAdjacentVertex(graphVertexOppositeOut);
                 graphVertexOppositeOut.addAdjacentVertex(graphVertexIn);
 
-                SmartGraphEdgeBase graphEdge = createEdge(edge, graphVertexIn, graphVertexOppositeOut);
+                SmartGraphEdgeBase<E, V> graphEdge = createEdge(edge, graphVertexIn, graphVertexOppositeOut);
 
                 /* Track Edges already placed */
                 connections.put(edge, new Tuple<>(vertex, oppositeVertex));
@@ -436,7 +552,7 @@ public class SmartGraphPanel<V, E> extends Pane {
                 if (this.edgesWithArrows) {
                     SmartArrow arrow = new SmartArrow(this.graphProperties.getEdgeArrowSize());
                     graphEdge.attachArrow(arrow);
-                    this.getChildren().add(arrow);
+                    addNode(arrow);
                 }
 
                 edgesToPlace.remove(edge);
@@ -452,7 +568,7 @@ public class SmartGraphPanel<V, E> extends Pane {
         }
     }
 
-    private SmartGraphEdgeBase createEdge(Edge<E, V> edge, SmartGraphVertexNode<V> graphVertexInbound, SmartGraphVertexNode<V> graphVertexOutbound) {
+    private SmartGraphEdgeBase<E, V> createEdge(Edge<E, V> edge, SmartGraphVertexNode<V> graphVertexInbound, SmartGraphVertexNode<V> graphVertexOutbound) {
         /*
         Even if edges are later removed, the corresponding index remains the same. Otherwise, we would have to
         regenerate the appropriate edges.
@@ -463,11 +579,11 @@ public class SmartGraphPanel<V, E> extends Pane {
             edgeIndex = counter;
         }
 
-        SmartGraphEdgeBase graphEdge;
+        SmartGraphEdgeBase<E, V> graphEdge;
 
         if (getTotalEdgesBetween(graphVertexInbound.getUnderlyingVertex(), graphVertexOutbound.getUnderlyingVertex()) > 1
                 || graphVertexInbound == graphVertexOutbound) {
-            graphEdge = new SmartGraphEdgeCurve(edge, graphVertexInbound, graphVertexOutbound, edgeIndex);
+            graphEdge = new SmartGraphEdgeCurve<>(edge, graphVertexInbound, graphVertexOutbound, edgeIndex);
         } else {
             graphEdge = new SmartGraphEdgeLine<>(edge, graphVertexInbound, graphVertexOutbound);
         }
@@ -478,11 +594,14 @@ public class SmartGraphPanel<V, E> extends Pane {
     }
 
     private void addVertex(SmartGraphVertexNode<V> v) {
-        this.getChildren().add(v);
+        addNode(v);
+        if (canvasRenderer != null) {
+            canvasRenderer.track(v);
+        }
 
         String labelText = generateVertexLabel(v.getUnderlyingVertex().element());
 
-        if (graphProperties.getUseVertexTooltip()) {
+        if (graphProperties.getUseVertexTooltip() && canvasRenderer == null) {
             Tooltip t = new Tooltip(labelText);
             Tooltip.install(v, t);
         }
@@ -491,19 +610,23 @@ public class SmartGraphPanel<V, E> extends Pane {
             SmartLabel label = new SmartLabel(labelText);
 
             label.addStyleClass("vertex-label");
-            this.getChildren().add(label);
+            addNode(label);
             v.attachLabel(label);
         }
     }
 
-    private void addEdge(SmartGraphEdgeBase e, Edge<E, V> edge) {
+    private void addEdge(SmartGraphEdgeBase<E, V> e, Edge<E, V> edge) {
         //edges to the back
-        this.getChildren().add(0, (Node) e);
+        if (canvasRenderer == null) {
+            this.getChildren().add(0, (Node) e);
+        } else {
+            canvasRenderer.track(e);
+        }
         edgeNodes.put(edge, e);
 
         String labelText = generateEdgeLabel(edge.element());
 
-        if (graphProperties.getUseEdgeTooltip()) {
+        if (graphProperties.getUseEdgeTooltip() && canvasRenderer == null) {
             Tooltip t = new Tooltip(labelText);
             Tooltip.install((Node) e, t);
         }
@@ -512,7 +635,7 @@ public class SmartGraphPanel<V, E> extends Pane {
             SmartLabel label = new SmartLabel(labelText);
 
             label.addStyleClass("edge-label");
-            this.getChildren().add(label);
+            addNode(label);
             e.attachLabel(label);
         }
     }
@@ -531,117 +654,132 @@ public class SmartGraphPanel<V, E> extends Pane {
             newVertices = new LinkedList<>();
 
             for (Vertex<V> vertex : unplottedVertices) {
-                //create node
                 //Place new nodes in the vicinity of existing adjacent ones;
                 //Place them in the middle of the plot, otherwise.
-                double x, y;
-                Collection<Edge<E, V>> incidentEdges = theGraph.incidentEdges(vertex);
-                if (incidentEdges.isEmpty()) {
-                    /* not (yet) connected, put in the middle of the plot */
-                    x = mx;
-                    y = my;
-                } else {
-                    Edge<E, V> firstEdge = incidentEdges.iterator().next();
-                    Vertex<V> opposite = theGraph.opposite(vertex, firstEdge);
-                    SmartGraphVertexNode<V> existing = vertexNodes.get(opposite);
-
-                    if(existing == null) {
-                        /*
-                        Updates may be coming too fast and we can get out of sync.
-                        The opposite vertex exists in the (di)graph, but we have not yet
-                        created it for the panel. Therefore, its position is unknown,
-                        so place the vertex representation in the middle.
-                        */
-                        x = mx;
-                        y = my;
-                    } else {
-                        /* TODO: fix -- the placing point can be set out of bounds*/
-                        Point2D p = UtilitiesPoint2D.rotate(existing.getPosition().add(50.0, 50.0),
-                                existing.getPosition(), Math.random() * 360);
-
-                        x = p.getX();
-                        y = p.getY();
-                    }
-                }
-
-                SmartGraphVertexNode newVertex = new SmartGraphVertexNode<>(vertex,
-                        x, y, graphProperties.getVertexRadius(), graphProperties.getVertexAllowUserMove());
+                Point2D p = placeNearAdjacent(vertex);
 
                 //track new nodes
-                newVertices.add(newVertex);
-                //add to global mapping
-                vertexNodes.put(vertex, newVertex);
+                newVertices.add(p != null ? createVertexNode(vertex, p.getX(), p.getY())
+                        : createVertexNode(vertex, mx, my));
             }
 
         }
 
         Collection<Edge<E, V>> unplottedEdges = unplottedEdges();
-        if (!unplottedEdges.isEmpty()) {
-            for (Edge<E, V> edge : unplottedEdges) {
-
-                Vertex<V>[] vertices = edge.vertices();
-                Vertex<V> u = vertices[0]; //oubound if digraph, by javadoc requirement
-                Vertex<V> v = vertices[1]; //inbound if digraph, by javadoc requirement
-
-                SmartGraphVertexNode<V> graphVertexOut = vertexNodes.get(u);
-                SmartGraphVertexNode<V> graphVertexIn = vertexNodes.get(v);
-
-                /*
-                Updates may be coming too fast and we can get out of sync.
-                Skip and wait for another update call, since they will surely
-                be coming at this pace.
-                */
-                if(graphVertexIn == null || graphVertexOut == null) {
-                    continue;
-                }
+        for (Edge<E, V> edge : unplottedEdges) {
+            plotEdge(edge);
+        }
 
-                graphVertexOut.addAdjacentVertex(graphVertexIn);
-                graphVertexIn.addAdjacentVertex(graphVertexOut);
+        if (newVertices != null) {
+            for (SmartGraphVertexNode<V> v : newVertices) {
+                addVertex(v);
+            }
+        }
 
-                SmartGraphEdgeBase graphEdge = createEdge(edge, graphVertexIn, graphVertexOut);
+    }
 
-                if (this.edgesWithArrows) {
-                    SmartArrow arrow = new SmartArrow(this.graphProperties.getEdgeArrowSize());
-                    graphEdge.attachArrow(arrow);
-                    this.getChildren().add(arrow);
-                }
+    /**
+     * Computes a position close to an adjacent vertex that is already plotted.
+     *
+     * @param vertex vertex to place
+     * @return position, or null if the vertex has no plotted adjacent vertex, or
+     * it is no longer in the graph
+     */
+    private Point2D placeNearAdjacent(Vertex<V> vertex) {
+        Vertex<V> opposite;
+        try {
+            Collection<Edge<E, V>> incidentEdges = theGraph.incidentEdges(vertex);
+            if (incidentEdges.isEmpty()) {
+                /* not (yet) connected, put in the middle of the plot */
+                return null;
+            }
 
-                /* Track edges */
-                connections.put(edge, new Tuple<>(u, v));
-                addEdge(graphEdge, edge);
+            Edge<E, V> firstEdge = incidentEdges.iterator().next();
+            opposite = theGraph.opposite(vertex, firstEdge);
+        } catch (InvalidVertexException e) {
+            //the vertex was removed in the meantime, e.g., later in the same batch
+            return null;
+        }
+        SmartGraphVertexNode<V> existing = vertexNodes.get(opposite);
+
+        if(existing == null) {
+            /*
+            Updates may be coming too fast and we can get out of sync.
+            The opposite vertex exists in the (di)graph, but we have not yet
+            created it for the panel. Therefore, its position is unknown,
+            so place the vertex representation in the middle.
+            */
+            return null;
+        }
 
-            }
+        /* TODO: fix -- the placing point can be set out of bounds*/
+        return UtilitiesPoint2D.rotate(existing.getPosition().add(50.0, 50.0),
+                existing.getPosition(), Math.random() * 360);
+    }
+
+    /**
+     * Creates the graphical representation of a vertex and adds it to the
+     * global mapping. It is only shown after {@link #addVertex}.
+     *
+     * @param vertex underlying vertex
+     * @param x      x-coordinate on panel
+     * @param y      y-coordinate on panel
+     * @return new vertex node
+     */
+    private SmartGraphVertexNode<V> createVertexNode(Vertex<V> vertex, double x, double y) {
+        SmartGraphVertexNode<V> newVertex = new SmartGraphVertexNode<>(vertex,
+                x, y, graphProperties.getVertexRadius(), graphProperties.getVertexAllowUserMove());
+
+        vertexNodes.put(vertex, newVertex);
+        layoutWorker.addNode(newVertex);
+        return newVertex;
+    }
+
+    /**
+     * Creates and adds the graphical representation of an edge, if both of its
+     * vertices are plotted.
+     *
+     * @param edge underlying edge
+     */
+    private void plotEdge(Edge<E, V> edge) {
+        Vertex<V>[] vertices = edge.vertices();
+        Vertex<V> u = vertices[0]; //oubound if digraph, by javadoc requirement
+        Vertex<V> v = vertices[1]; //inbound if digraph, by javadoc requirement
+
+        SmartGraphVertexNode<V> graphVertexOut = vertexNodes.get(u);
+        SmartGraphVertexNode<V> graphVertexIn = vertexNodes.get(v);
+
+        /*
+        Updates may be coming too fast and we can get out of sync.
+        Skip and wait for another update call, since they will surely
+        be coming at this pace.
+        */
+        if(graphVertexIn == null || graphVertexOut == null) {
+            return;
         }
 
-        if (newVertices != null) {
-            for (SmartGraphVertexNode<V> v : newVertices) {
-                addVertex(v);
-            }
+        graphVertexOut.addAdjacentVertex(graphVertexIn);
+        graphVertexIn.addAdjacentVertex(graphVertexOut);
+        layoutWorker.connect(graphVertexOut, graphVertexIn);
+
+        SmartGraphEdgeBase<E, V> graphEdge = createEdge(edge, graphVertexIn, graphVertexOut);
+
+        if (this.edgesWithArrows) {
+            SmartArrow arrow = new SmartArrow(this.graphProperties.getEdgeArrowSize());
+            graphEdge.attachArrow(arrow);
+            addNode(arrow);
         }
 
+        /* Track edges */
+        connections.put(edge, new Tuple<>(u, v));
+        addEdge(graphEdge, edge);
     }
 
     private void removeNodes() {
         //remove edges (graphical elements) that were removed from the underlying graph
         Collection<Edge<E, V>> removedEdges = removedEdges();
         for (Edge<E, V> e : removedEdges) {
-            SmartGraphEdgeBase edgeToRemove = edgeNodes.get(e);
-            edgeNodes.remove(e);
-            removeEdge(edgeToRemove);   //remove from panel
-
-            //when edges are removed, the adjacency between vertices changes
-            //the adjacency is kept in parallel in an internal data structure
-            Tuple<Vertex<V>> vertexTuple = connections.get(e);
-
-            if( getTotalEdgesBetween(vertexTuple.first, vertexTuple.second) == 0 ) {
-                SmartGraphVertexNode<V> v0 = vertexNodes.get(vertexTuple.first);
-                SmartGraphVertexNode<V> v1 = vertexNodes.get(vertexTuple.second);
-
-                v0.removeAdjacentVertex(v1);
-                v1.removeAdjacentVertex(v0);
-            }
-
-            connections.remove(e);
+            unplotEdge(e);
         }
 
         //remove vertices (graphical elements) that were removed from the underlying graph
@@ -653,26 +791,90 @@ public class SmartGraphPanel<V, E> extends Pane {
 
     }
 
-    private void removeEdge(SmartGraphEdgeBase e) {
-        getChildren().remove((Node) e);
+    /**
+     * Removes the graphical representation of an edge that was removed from the
+     * underlying graph.
+     *
+     * @param e underlying edge
+     */
+    private void unplotEdge(Edge<E, V> e) {
+        SmartGraphEdgeBase<E, V> edgeToRemove = edgeNodes.remove(e);
+        removeEdge(edgeToRemove);   //remove from panel
+
+        //when edges are removed, the adjacency between vertices changes
+        //the adjacency is kept in parallel in an internal data structure
+        Tuple<Vertex<V>> vertexTuple = connections.remove(e);
+
+        if( getTotalEdgesBetween(vertexTuple.first, vertexTuple.second) == 0 ) {
+            SmartGraphVertexNode<V> v0 = vertexNodes.get(vertexTuple.first);
+            SmartGraphVertexNode<V> v1 = vertexNodes.get(vertexTuple.second);
+
+            if (v0 != null && v1 != null) {
+                v0.removeAdjacentVertex(v1);
+                v1.removeAdjacentVertex(v0);
+                layoutWorker.disconnect(v0, v1);
+            }
+        }
+    }
+
+    private void removeEdge(SmartGraphEdgeBase<E, V> e) {
+        removeNode((Node) e);
 
         SmartArrow attachedArrow = e.getAttachedArrow();
         if (attachedArrow != null) {
-            getChildren().remove(attachedArrow);
+            removeNode(attachedArrow);
         }
 
         Text attachedLabel = e.getAttachedLabel();
         if (attachedLabel != null) {
-            getChildren().remove(attachedLabel);
+            removeNode(attachedLabel);
         }
     }
 
-    private void removeVertex(SmartGraphVertexNode v) {
-        getChildren().remove(v);
+    private void removeVertex(SmartGraphVertexNode<V> v) {
+        removeNode(v);
+        layoutWorker.removeNode(v);
+
+        //the other vertices of its cell are shown again by the next culling
+        if (representatives != null && representatives.remove(cell(v.getCenterX(), v.getCenterY(), cellSize), v)) {
+            representativeRemoved = true;
+        }
 
         Text attachedLabel = v.getAttachedLabel();
         if (attachedLabel != null) {
-            getChildren().remove(attachedLabel);
+            removeNode(attachedLabel);
+        }
+    }
+
+    /**
+     * Adds a graphical element to the panel; with canvas rendering, elements
+     * are drawn by the renderer instead.
+     *
+     * @param node element to add
+     */
+    private void addNode(Node node) {
+        if (canvasRenderer == null) {
+            getChildren().add(node);
+        }
+    }
+
+    /**
+     * Removes a graphical element from the panel. The removals are collected and
+     * made at once by {@link #flushRemovedNodes()}, since each removal from the
+     * children list would go through the whole list.
+     *
+     * @param node element to remove
+     */
+    private void removeNode(Node node) {
+        if (canvasRenderer == null) {
+            removedNodes.add(node);
+        }
+    }
+
+    private void flushRemovedNodes() {
+        if (!removedNodes.isEmpty()) {
+            getChildren().removeAll(removedNodes);
+            removedNodes.clear();
         }
     }
 
@@ -693,7 +895,7 @@ public class SmartGraphPanel<V, E> extends Pane {
         });
 
         theGraph.edges().forEach((e) -> {
-            SmartGraphEdgeBase edgeNode = edgeNodes.get(e);
+            SmartGraphEdgeBase<E, V> edgeNode = edgeNodes.get(e);
             if (edgeNode != null) {
                 SmartLabel label = edgeNode.getAttachedLabel();
                 if (label != null) {
@@ -765,80 +967,113 @@ public class SmartGraphPanel<V, E> extends Pane {
     /*
      * AUTOMATIC LAYOUT
      */
-    private void computeForces() {
-        for (SmartGraphVertexNode<V> v : vertexNodes.values()) {
-            for (SmartGraphVertexNode<V> other : vertexNodes.values()) {
-                if (v == other) {
-                    continue; //NOP
-                }
-
-                //double k = Math.sqrt(getWidth() * getHeight() / graphVertexMap.size());
-                Point2D repellingForce = repellingForce(v.getUpdatedPosition(), other.getUpdatedPosition(), this.repulsionForce);
-
-                double deltaForceX = 0, deltaForceY = 0;
-
-                //compute attractive and reppeling forces
-                //opt to use internal areAdjacent check, because a vertex can be removed from
-                //the underlying graph before we have the chance to remove it from our
-                //internal data structure
-                if (areAdjacent(v, other)) {
+    /**
+     * Starts the automatic layout from the current positions. The forces are
+     * computed by the layout worker, in the background, and the timer only copies
+     * its frames to the vertices.
+     */
+    private void startLayout() {
+        layoutWorker.setBounds(getWidth(), getHeight());
+        layoutWorker.setNodes(vertexNodes.values());
+        layoutWorker.start();
+        timer.start();
+    }
 
-                    Point2D attractiveForce = attractiveForce(v.getUpdatedPosition(), other.getUpdatedPosition(),
-                            vertexNodes.size(), this.attractionForce, this.attractionScale);
+    private void stopLayout() {
+        layoutWorker.stop();
+        timer.stop();
+    }
 
-                    deltaForceX = attractiveForce.getX() + repellingForce.getX();
-                    deltaForceY = attractiveForce.getY() + repellingForce.getY();
-                } else {
-                    deltaForceX = repellingForce.getX();
-                    deltaForceY = repellingForce.getY();
-                }
+    /**
+     * Restarts the automatic layout, if enabled, after it has converged.
+     */
+    private void wakeLayout() {
+        if (automaticLayoutProperty.get()) {
+            layoutWorker.setBounds(getWidth(), getHeight());
+            layoutWorker.wake();
+            timer.start();
+        }
+    }
 
-                v.addForceVector(deltaForceX, deltaForceY);
+    private void applyLayoutFrame() {
+        for (SmartGraphVertexNode<V> v : vertexNodes.values()) {
+            if (v.isDragging()) {
+                layoutWorker.moveNode(v);
             }
         }
-    }
 
-    private boolean areAdjacent(SmartGraphVertexNode<V> v, SmartGraphVertexNode<V> u) {
-        return v.isAdjacentTo(u);
+        //checked before applying, so the last frame of a converged layout is not lost
+        boolean running = layoutWorker.isRunning();
+        if (layoutWorker.applyFrame()) {
+            updateVisibility();
+        } else if (!running) {
+            //converged; stop the pulses until the layout is woken up
+            timer.stop();
+        }
     }
 
-    private void updateForces() {
-        vertexNodes.values().forEach((v) -> {
-            v.updateDelta();
-        });
+    /**
+     * Forwards a vertex moved by the user on the canvas to the automatic layout.
+     *
+     * @param v vertex that moved
+     */
+    private void vertexMoved(SmartGraphVertexNode<V> v) {
+        if (automaticLayoutProperty.get()) {
+            layoutWorker.moveNode(v);
+            timer.start();
+        }
     }
 
-    private void applyForces() {
-        vertexNodes.values().forEach((v) -> {
-            v.moveFromForces();
+    /**
+     * Wakes the automatic layout when a vertex is dragged or the panel is resized.
+     */
+    private void enableLayoutWakeUp() {
+        addEventFilter(MouseEvent.MOUSE_DRAGGED, (MouseEvent mouseEvent) -> {
+            if (mouseEvent.getTarget() instanceof SmartGraphVertexNode) {
+                wakeLayout();
+            }
         });
-    }
 
-    private void resetForces() {
-        vertexNodes.values().forEach((v) -> {
-            v.resetForces();
+        //the final position of a drag, that may not have been seen by a pulse
+        addEventFilter(MouseEvent.MOUSE_RELEASED, (MouseEvent mouseEvent) -> {
+            if (mouseEvent.getTarget() instanceof SmartGraphVertexNode && automaticLayoutProperty.get()) {
+                layoutWorker.moveNode((SmartGraphVertexNode<?>) mouseEvent.getTarget());
+                timer.start();
+            }
         });
+
+        widthProperty().addListener((observable, oldValue, newValue) -> wakeLayout());
+        heightProperty().addListener((observable, oldValue, newValue) -> wakeLayout());
     }
 
     private int getTotalEdgesBetween(Vertex<V> v, Vertex<V> u) {
-        //TODO: It may be necessary to adjust this method if you use another Graph
-        //variant, e.g., Digraph (directed graph)
-        int count = 0;
-        for (Edge<E, V> edge : theGraph.edges()) {
-            if (edge.vertices()[0] == v && edge.vertices()[1] == u
-                    || edge.vertices()[0] == u && edge.vertices()[1] == v) {
-                count++;
-            }
+        //the incident edges of a digraph are only the inbound ones
+        int count = countIncidentEdges(v, u);
+        if (theGraph instanceof Digraph && v != u) {
+            count += countIncidentEdges(u, v);
         }
         return count;
     }
 
-    private List<Edge<E, V>> listOfEdges() {
-        List<Edge<E, V>> list = new LinkedList<>();
-        for (Edge<E, V> edge : theGraph.edges()) {
-            list.add(edge);
+    /**
+     * Counts the incident edges of a vertex that connect it to another one.
+     *
+     * @param v vertex whose incident edges are checked
+     * @param u opposite vertex
+     * @return number of edges, 0 if the vertex was removed from the graph
+     */
+    private int countIncidentEdges(Vertex<V> v, Vertex<V> u) {
+        int count = 0;
+        try {
+            for (Edge<E, V> edge : theGraph.incidentEdges(v)) {
+                if (theGraph.opposite(v, edge) == u) {
+                    count++;
+                }
+            }
+        } catch (InvalidVertexException e) {
+            //the vertex and its edges were removed
         }
-        return list;
+        return count;
     }
 
     private List<Vertex<V>> listOfVertices() {
@@ -876,7 +1111,7 @@ public class SmartGraphPanel<V, E> extends Pane {
     private Collection<Vertex<V>> removedVertices() {
         List<Vertex<V>> removed = new LinkedList<>();
 
-        Collection<Vertex<V>> graphVertices = theGraph.vertices();
+        Set<Vertex<V>> graphVertices = new HashSet<>(theGraph.vertices());
         Collection<SmartGraphVertexNode<V>> plotted = vertexNodes.values();
 
         for (SmartGraphVertexNode<V> v : plotted) {
@@ -897,10 +1132,10 @@ public class SmartGraphPanel<V, E> extends Pane {
     private Collection<Edge<E, V>> removedEdges() {
         List<Edge<E, V>> removed = new LinkedList<>();
 
-        Collection<Edge<E, V>> graphEdges = theGraph.edges();
-        Collection<SmartGraphEdgeBase> plotted = edgeNodes.values();
+        Set<Edge<E, V>> graphEdges = new HashSet<>(theGraph.edges());
+        Collection<SmartGraphEdgeBase<E, V>> plotted = edgeNodes.values();
 
-        for (SmartGraphEdgeBase e : plotted) {
+        for (SmartGraphEdgeBase<E, V> e : plotted) {
             if (!graphEdges.contains(e.getUnderlyingEdge())) {
                 removed.add(e.getUnderlyingEdge());
             }
@@ -941,6 +1176,202 @@ public class SmartGraphPanel<V, E> extends Pane {
         SmartGraphVertexNode<V> node = vertexNodes.get(v);
         if(node != null) {
             node.setPosition(x, y);
+
+            if (automaticLayoutProperty.get()) {
+                layoutWorker.moveNode(node);
+                timer.start();
+            }
+        }
+    }
+
+    /**
+     * Places all the vertices again, with the given placement strategy, e.g.,
+     * after the underlying graph was replaced.
+     * <p>
+     * Must be called in the graphical thread, after {@link #init()}.
+     *
+     * @param strategy placement strategy to use
+     */
+    public void placeVertices(SmartPlacementStrategy strategy) {
+        strategy.place(this.widthProperty().doubleValue(),
+                this.heightProperty().doubleValue(),
+                this.theGraph,
+                this.vertexNodes.values());
+
+        if (automaticLayoutProperty.get()) {
+            layoutWorker.setNodes(vertexNodes.values());
+            timer.start();
+        }
+        updateVisibility();
+    }
+
+    /**
+     * Sets the region of the panel that is visible, e.g., inside a zoomable
+     * container, and the scale at which it is shown.
+     * <p>
+     * Vertices and edges outside the region are not rendered. The level of
+     * detail follows the on-screen density of the visible vertices: as it
+     * grows, labels are hidden, curved edges are drawn straight and, at last,
+     * vertices that are too close to be told apart are aggregated into one.
+     *
+     * @param visible visible region, in the coordinates of the panel; null to
+     *                render every element with full detail
+     * @param scale   scale of the panel on screen
+     */
+    public void setViewport(Bounds visible, double scale) {
+        this.viewport = visible;
+        this.viewportScale = scale;
+        updateVisibility();
+    }
+
+    private void updateVisibility() {
+        if (viewport == null) {
+            if (culled) {
+                showAll();
+            }
+            return;
+        }
+        culled = true;
+        representativeRemoved = false;
+
+        double margin = VIEWPORT_MARGIN / viewportScale;
+        cullMinX = viewport.getMinX() - margin;
+        cullMaxX = viewport.getMaxX() + margin;
+        cullMinY = viewport.getMinY() - margin;
+        cullMaxY = viewport.getMaxY() + margin;
+
+        int inside = 0;
+        for (SmartGraphVertexNode<V> v : vertexNodes.values()) {
+            if (isInside(v)) {
+                inside++;
+            }
+        }
+
+        double screenArea = viewport.getWidth() * viewport.getHeight() * viewportScale * viewportScale;
+        double spacing = inside == 0 ? Double.MAX_VALUE : Math.sqrt(screenArea / inside);
+        lodLabels = spacing >= LOD_LABELS_SPACING;
+        lodStraightEdges = spacing < LOD_STRAIGHT_EDGES_SPACING;
+
+        cellSize = LOD_AGGREGATE_SPACING / viewportScale;
+        boolean aggregate = spacing < LOD_AGGREGATE_SPACING;
+        representatives = aggregate ? new HashMap<>() : null;
+        aggregated = aggregate ? new HashSet<>() : null;
+
+        for (SmartGraphVertexNode<V> v : vertexNodes.values()) {
+            cullVertex(v);
+        }
+        for (Map.Entry<Edge<E, V>, Tuple<Vertex<V>>> entry : connections.entrySet()) {
+            cullEdge(entry.getKey(), entry.getValue());
+        }
+
+        if (canvasRenderer != null) {
+            canvasRenderer.invalidate();
+        }
+    }
+
+    /**
+     * Culls only the elements added since the last culling, with its region and
+     * level of detail. The density of the vertices is recomputed by the next full
+     * culling, i.e., when the viewport changes or the layout moves the vertices.
+     *
+     * @param vertices added vertices
+     * @param edges    added edges
+     */
+    private void updateVisibility(Collection<SmartGraphVertexNode<V>> vertices, Collection<Edge<E, V>> edges) {
+        if (viewport == null || !culled || representativeRemoved) {
+            updateVisibility();
+            return;
+        }
+
+        for (SmartGraphVertexNode<V> v : vertices) {
+            cullVertex(v);
+        }
+        for (Edge<E, V> edge : edges) {
+            Tuple<Vertex<V>> ends = connections.get(edge);
+            if (ends != null) cullEdge(edge, ends);
+        }
+
+        if (canvasRenderer != null) {
+            canvasRenderer.invalidate();
+        }
+    }
+
+    private boolean isInside(SmartGraphVertexNode<V> v) {
+        double x = v.getCenterX(), y = v.getCenterY(), r = v.getRadius();
+        return x + r >= cullMinX && x - r <= cullMaxX && y + r >= cullMinY && y - r <= cullMaxY;
+    }
+
+    private void cullVertex(SmartGraphVertexNode<V> v) {
+        boolean visible = isInside(v);
+
+        if (visible && representatives != null) {
+            SmartGraphVertexNode<V> representative = representatives.putIfAbsent(cell(v.getCenterX(), v.getCenterY(), cellSize), v);
+            visible = representative == null || representative == v;
+            if (!visible) aggregated.add(v);
+        }
+
+        v.setVisible(visible);
+        if (v.getAttachedLabel() != null) {
+            v.getAttachedLabel().setVisible(visible && lodLabels);
+        }
+    }
+
+    private void cullEdge(Edge<E, V> edge, Tuple<Vertex<V>> ends) {
+        SmartGraphEdgeBase<E, V> e = edgeNodes.get(edge);
+        SmartGraphVertexNode<V> u = vertexNodes.get(ends.first);
+        SmartGraphVertexNode<V> w = vertexNodes.get(ends.second);
+        if (e == null || u == null || w == null) return;
+
+        double x0 = u.getCenterX(), y0 = u.getCenterY(), x1 = w.getCenterX(), y1 = w.getCenterY();
+        boolean visible = Math.max(x0, x1) >= cullMinX && Math.min(x0, x1) <= cullMaxX
+                && Math.max(y0, y1) >= cullMinY && Math.min(y0, y1) <= cullMaxY;
+
+        //edges inside an aggregated cell, or of a vertex represented by another, are not drawn
+        if (visible && representatives != null) {
+            visible = cell(x0, y0, cellSize) != cell(x1, y1, cellSize)
+                    && !aggregated.contains(u) && !aggregated.contains(w);
+        }
+
+        setEdgeVisibility(e, visible, lodLabels, lodStraightEdges);
+    }
+
+    private static long cell(double x, double y, double cellSize) {
+        return ((long) Math.floor(x / cellSize) << 32) ^ ((long) Math.floor(y / cellSize) & 0xFFFFFFFFL);
+    }
+
+    private void setEdgeVisibility(SmartGraphEdgeBase<E, V> e, boolean visible, boolean labels, boolean straight) {
+        ((Node) e).setVisible(visible);
+        if (e.getAttachedLabel() != null) {
+            e.getAttachedLabel().setVisible(visible && labels);
+        }
+        if (e.getAttachedArrow() != null) {
+            e.getAttachedArrow().setVisible(visible);
+        }
+        if (e instanceof SmartGraphEdgeCurve) {
+            ((SmartGraphEdgeCurve) e).setStraight(straight);
+        }
+    }
+
+    /**
+     * Renders every element again, with full detail, after the viewport is unset.
+     */
+    private void showAll() {
+        culled = false;
+        representatives = null;
+        aggregated = null;
+
+        for (SmartGraphVertexNode<V> v : vertexNodes.values()) {
+            v.setVisible(true);
+            if (v.getAttachedLabel() != null) {
+                v.getAttachedLabel().setVisible(true);
+            }
+        }
+        for (SmartGraphEdgeBase<E, V> e : edgeNodes.values()) {
+            setEdgeVisibility(e, true, true, false);
+        }
+
+        if (canvasRenderer != null) {
+            canvasRenderer.invalidate();
         }
     }
 
@@ -1041,7 +1472,7 @@ public class SmartGraphPanel<V, E> extends Pane {
      * @return stylable element (label)
      */
     public SmartStylableNode getStylableLabel(Edge<E,V> e) {
-        SmartGraphEdgeBase edge = edgeNodes.get(e);
+        SmartGraphEdgeBase<E, V> edge = edgeNodes.get(e);
 
         return edge != null ? edge.getStylableLabel() : null;
     }
@@ -1082,7 +1513,9 @@ public class SmartGraphPanel<V, E> extends Pane {
                         return;
                     }
 
-                    Node node = pick(SmartGraphPanel.this, mouseEvent.getSceneX(), mouseEvent.getSceneY());
+                    Node node = canvasRenderer != null
+                            ? canvasRenderer.pick(mouseEvent.getX(), mouseEvent.getY())
+                            : pick(SmartGraphPanel.this, mouseEvent.getSceneX(), mouseEvent.getSceneY());
                     if (node == null) {
                         return;
                     }
@@ -76,6 +76,18 @@ public class SmartGraphProperties {
     private static final double DEFAULT_ATTRACTION_SCALE = 10;
     private static final String PROPERTY_ATTRACTION_SCALE = "layout.attraction-scale";
 
+    private static final boolean DEFAULT_LAYOUT_BARNES_HUT = false;
+    private static final String PROPERTY_LAYOUT_BARNES_HUT = "layout.barnes-hut";
+
+    private static final double DEFAULT_LAYOUT_BARNES_HUT_THETA = 0.9;
+    private static final String PROPERTY_LAYOUT_BARNES_HUT_THETA = "layout.barnes-hut-theta";
+
+    private static final boolean DEFAULT_RENDER_CANVAS = false;
+    private static final String PROPERTY_RENDER_CANVAS = "render.canvas";
+
+    private static final double DEFAULT_LAYOUT_CONVERGENCE_THRESHOLD = 0.5;
+    private static final String PROPERTY_LAYOUT_CONVERGENCE_THRESHOLD = "layout.convergence-threshold";
+
     private static final String DEFAULT_FILE = "smartgraph.properties";
     private Properties properties;
     
@@ -168,6 +180,50 @@ public class SmartGraphProperties {
         return getDoubleProperty(PROPERTY_ATTRACTION_SCALE, DEFAULT_ATTRACTION_SCALE);
     }
     
+    /**
+     * Returns a property that indicates whether the automatic layout approximates
+     * the repelling forces with a Barnes-Hut quadtree, in O(n log n) per iteration.
+     * 
+     * @return corresponding property value
+     */
+    public boolean getUseBarnesHutLayout() {
+        return getBooleanProperty(PROPERTY_LAYOUT_BARNES_HUT, DEFAULT_LAYOUT_BARNES_HUT);
+    }
+    
+    /**
+     * Returns a property that indicates the accuracy of the Barnes-Hut layout:
+     * cells smaller than <code>theta</code> times their distance to a vertex are
+     * approximated (0 is exact, higher values are faster).
+     * 
+     * @return corresponding property value
+     */
+    public double getBarnesHutTheta() {
+        return getDoubleProperty(PROPERTY_LAYOUT_BARNES_HUT_THETA, DEFAULT_LAYOUT_BARNES_HUT_THETA);
+    }
+    
+    /**
+     * Returns a property that indicates when the automatic layout has converged
+     * and stops: the average displacement of the vertices in one iteration, in
+     * pixels. The layout restarts when the graph changes or a vertex is dragged.
+     * A value of 0 never stops the layout.
+     * 
+     * @return corresponding property value
+     */
+    public double getConvergenceThreshold() {
+        return getDoubleProperty(PROPERTY_LAYOUT_CONVERGENCE_THRESHOLD, DEFAULT_LAYOUT_CONVERGENCE_THRESHOLD);
+    }
+    
+    /**
+     * Returns a property that indicates whether the graph is drawn onto a single
+     * canvas, instead of a node per element, for large graphs. Only inline styles
+     * are drawn and there are no tooltips or arrows.
+     * 
+     * @return corresponding property value
+     */
+    public boolean getUseCanvasRendering() {
+        return getBooleanProperty(PROPERTY_RENDER_CANVAS, DEFAULT_RENDER_CANVAS);
+    }
+    
     /**
      * Returns a property that indicates whether a vertex has a tooltip installed.
      * 
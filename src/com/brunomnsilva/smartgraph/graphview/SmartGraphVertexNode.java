@@ -219,11 +219,38 @@ public class SmartGraphVertexNode<T> extends Circle implements SmartGraphVertex<
         return new Point2D(updatedPosition.x, updatedPosition.y);
     }
 
+    /**
+     * Checks whether the user is dragging this instance.
+     *
+     * @return true if being dragged; false otherwise
+     */
+    boolean isDragging() {
+        return isDragging;
+    }
+
+    /**
+     * Sets whether the user is dragging this instance, when the drag is handled
+     * outside the node (e.g., by a canvas).
+     *
+     * @param dragging true if being dragged; false otherwise
+     */
+    void setDragging(boolean dragging) {
+        this.isDragging = dragging;
+    }
+
+    /**
+     * Returns the vertices adjacent to this instance. The set must not be
+     * modified; use the add/remove methods instead.
+     *
+     * @return adjacent vertices
+     */
+    Set<SmartGraphVertexNode<T>> getAdjacentVertices() {
+        return adjacentVertices;
+    }
+
     /**
      * Updates the future position according to the current internal force
      * vector.
-     *
-     * @see SmartGraphPanel#updateForces()
      */
     public void updateDelta() {
         updatedPosition.x = updatedPosition.x /* + speed*/ + forceVector.x;
@@ -234,8 +261,6 @@ public class SmartGraphVertexNode<T> extends Circle implements SmartGraphVertex<
      * Moves the vertex position to the computed future position.
      * <p>
      * Moves are constrained within the parent pane dimensions.
-     *
-     * @see SmartGraphPanel#applyForces()
      */
     public void moveFromForces() {
 
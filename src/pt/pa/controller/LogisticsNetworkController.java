@@ -1,5 +1,6 @@
 package pt.pa.controller;
 
+import javafx.application.Platform;
 import pt.pa.graph.Edge;
 import pt.pa.graph.InvalidEdgeException;
 import pt.pa.graph.Vertex;
@@ -25,7 +26,7 @@ public class LogisticsNetworkController {
 
     private final ArrayList<Hub> hubs;
 
-    private final Caretaker caretaker;
+    private final ChangeHistory history;
 
     /**
      * Constructor. Initializes the controller.
@@ -41,7 +42,7 @@ public class LogisticsNetworkController {
         this.model.addObserver(this.view);
 
         this.hubs = new ArrayList<>();
-        this.caretaker = new Caretaker(this.model);
+        this.history = new ChangeHistory(this.model);
 
     }
 
@@ -55,17 +56,25 @@ public class LogisticsNetworkController {
             this.view.disableGlobalButton();
 
         } catch (LogisticsNetworkException e) {
-            e.getMessage();
+            this.view.displayError(e.getMessage());
         }
 
     }
 
     /**
-     * Exports the graph's data into a new folder.
+     * Exports the graph's data into a new folder, in a background thread
+     * that reports its progress to the view.
      */
     public void doExportGlobal() {
         try {
-            this.model.globalDataExport(this.model.getGraph());
+            this.view.setExportProgress(0);
+            this.model.globalDataExportAsync(this.model.getGraph(), this.view::setExportProgress)
+                    .whenComplete((result, e) -> {
+                        if (e != null) {
+                            this.view.setExportProgress(1);
+                            Platform.runLater(() -> this.view.displayError("Export failed: " + e.getCause().getMessage()));
+                        }
+                    });
         } catch (LogisticsNetworkException e) {
             e.getMessage();
         }
@@ -111,8 +120,6 @@ public class LogisticsNetworkController {
      */
     public void doAddRoute() {
         try {
-            caretaker.saveState();
-
             String description = view.getRouteDistance();
             String id1 = view.getFirstHubId();
             String id2 = view.getSecondHubId();
@@ -146,8 +153,6 @@ public class LogisticsNetworkController {
      */
     public void doRemoveRoute() {
         try {
-            caretaker.saveState();
-
             String id1 = view.getFirstHubId();
             String id2 = view.getSecondHubId();
 
@@ -183,13 +188,28 @@ public class LogisticsNetworkController {
     }
 
     /**
-     * Makes an undo in the application.
-     *
-     * @throws NoMementoException If undo fails
+     * Undoes the last change of the network.
      */
-    public void undo() throws NoMementoException {
-        caretaker.restoreState();
-        view.clearError();
-        view.clearControls();
+    public void undo() {
+        try {
+            history.undo();
+            view.clearError();
+            view.clearControls();
+        } catch (NoMementoException | LogisticsNetworkException e) {
+            view.displayError(e.getMessage());
+        }
+    }
+
+    /**
+     * Redoes the last undone change of the network.
+     */
+    public void redo() {
+        try {
+            history.redo();
+            view.clearError();
+            view.clearControls();
+        } catch (NoMementoException | LogisticsNetworkException e) {
+            view.displayError(e.getMessage());
+        }
     }
 }
@@ -6,7 +6,11 @@ import java.util.*;
  * ADT Graph implementation based on an Adjacency List.
  * <p>
  * It stores a collection of vertices and where
- * each vertex contains the references for the incident edges.
+ * each vertex contains the references for the incident edges,
+ * indexed by the vertex at the other end of each edge.
+ * Each edge also stores its two endpoints, so 'opposite', 'areAdjacent',
+ * the duplicate check of 'insertEdge' and 'removeEdge' don't need to
+ * scan the whole graph.
  * <p>
  * Docente Orientador: Luís Damas
  * <p>
@@ -49,12 +53,7 @@ public class GraphAdjacencyList<V, E> implements Graph<V, E> {
         MyVertex myU = checkVertex(u);
         MyVertex myV = checkVertex(v);
 
-        //is there a common edge between myU.incidentEdges and myV.incidentEdges ?
-
-        Set<Edge<E, V>> intersection = new HashSet<>(myU.incidentEdges);
-        intersection.retainAll(myV.incidentEdges);
-
-        return !intersection.isEmpty();
+        return myU.adjacency.containsKey(myV);
     }
 
     /**
@@ -74,7 +73,17 @@ public class GraphAdjacencyList<V, E> implements Graph<V, E> {
      */
     @Override
     public int numEdges() {
-        return edges().size();
+        int count = 0;
+
+        for (Vertex<V> v : this.vertices.values()) {
+            MyVertex myV = checkVertex(v);
+            for (MyEdge edge : myV.adjacency.values()) {
+                if (edge.first == myV) {
+                    count++;
+                }
+            }
+        }
+        return count;
     }
 
     /**
@@ -86,12 +95,7 @@ public class GraphAdjacencyList<V, E> implements Graph<V, E> {
      */
     @Override
     public Collection<Vertex<V>> vertices() {
-        List<Vertex<V>> vertexList = new ArrayList<>();
-
-        for (Vertex<V> v : vertices.values()) {
-            vertexList.add(v);
-        }
-        return vertexList;
+        return new ArrayList<>(vertices.values());
     }
 
     public Map<V, Vertex<V>> getVertices() {
@@ -110,9 +114,11 @@ public class GraphAdjacencyList<V, E> implements Graph<V, E> {
         List<Edge<E, V>> edgeList = new ArrayList<>();
 
         for (Vertex<V> v : this.vertices.values()) {
-            for (Edge<E, V> e : checkVertex(v).incidentEdges) {
-                if (!edgeList.contains(e)) {
-                    edgeList.add(e);
+            MyVertex myV = checkVertex(v);
+            for (MyEdge edge : myV.adjacency.values()) {
+                //each edge is only reported by its first endpoint
+                if (edge.first == myV) {
+                    edgeList.add(edge);
                 }
             }
         }
@@ -131,7 +137,7 @@ public class GraphAdjacencyList<V, E> implements Graph<V, E> {
      */
     @Override
     public Collection<Edge<E, V>> incidentEdges(Vertex<V> v) throws InvalidVertexException {
-        return checkVertex(v).incidentEdges;
+        return new ArrayList<>(checkVertex(v).adjacency.values());
     }
 
     /**
@@ -148,29 +154,14 @@ public class GraphAdjacencyList<V, E> implements Graph<V, E> {
     @Override
     public Vertex<V> opposite(Vertex<V> v, Edge<E, V> e) throws InvalidVertexException, InvalidEdgeException {
         MyVertex myVertex = checkVertex(v);
-        Vertex<V> tempVertex = null;
-
-        List<Vertex<V>> tempVertexList = new ArrayList<>();
+        MyEdge myEdge = checkEdge(e);
 
-        if (myVertex.incidentEdges.contains(e)) {
-            for (Vertex<V> vertex : this.vertices.values()) {
-                MyVertex currMyVertex = checkVertex(vertex);
-                if (currMyVertex.incidentEdges.contains(e)) {
-                    tempVertexList.add(vertex);
-                }
-            }
+        if (myEdge.first == myVertex) {
+            return myEdge.second;
+        } else if (myEdge.second == myVertex) {
+            return myEdge.first;
         }
-        if (tempVertexList.size() > 1) {
-            for (Vertex<V> vertex : tempVertexList) {
-                if (!vertex.equals(myVertex)) {
-                    tempVertex = vertex;
-                }
-            }
-        } else if (tempVertexList.size() == 1) {
-            tempVertex = tempVertexList.get(0);
-        }
-
-        return tempVertex;
+        return null;
     }
 
     /**
@@ -204,7 +195,7 @@ public class GraphAdjacencyList<V, E> implements Graph<V, E> {
      */
     @Override
     public Edge<E, V> insertEdge(Vertex<V> u, Vertex<V> v, E edgeElement) throws InvalidVertexException, InvalidEdgeException {
-        return insertEdge(u.element(), v.element(), edgeElement);
+        return insertEdge(checkVertex(u).element(), checkVertex(v).element(), edgeElement);
     }
 
     /**
@@ -219,33 +210,21 @@ public class GraphAdjacencyList<V, E> implements Graph<V, E> {
      */
     @Override
     public Edge<E, V> insertEdge(V vElement1, V vElement2, E edgeElement) throws InvalidVertexException, InvalidEdgeException {
-        if (!(vertices.containsKey(vElement1) || vertices.containsKey(vElement2)) || vElement1 == null || vElement2 == null) {
+        if (vElement1 == null || vElement2 == null || !vertices.containsKey(vElement1) || !vertices.containsKey(vElement2)) {
             throw new InvalidVertexException("One of the vertex does not exist!");
         }
 
         MyVertex myU = vertexOf(vElement1);
         MyVertex myV = vertexOf(vElement2);
 
-        for (Edge<E, V> edge : incidentEdges(myV)) {
-
-            if (edge.vertices()[0].equals(myU) || edge.vertices()[1].equals(myU)) {
-                throw new InvalidEdgeException("This edge already exists");
-            }
-
+        if (myU.adjacency.containsKey(myV)) {
+            throw new InvalidEdgeException("This edge already exists");
         }
 
-        for (Edge<E, V> edge : incidentEdges(myU)) {
+        MyEdge edge = new MyEdge(edgeElement, myU, myV);
 
-            if (edge.vertices()[0].equals(myV) || edge.vertices()[1].equals(myV)) {
-                throw new InvalidEdgeException("This edge already exists");
-            }
-
-        }
-
-        MyEdge edge = new MyEdge(edgeElement);
-
-        myU.incidentEdges.add(edge);
-        myV.incidentEdges.add(edge);
+        myU.adjacency.put(myV, edge);
+        myV.adjacency.put(myU, edge);
 
         return edge;
     }
@@ -264,13 +243,13 @@ public class GraphAdjacencyList<V, E> implements Graph<V, E> {
 
         V element = myVertex.element();
 
-        List<Edge<E, V>> edgeList = new ArrayList<>(myVertex.incidentEdges);
+        List<MyEdge> edgeList = new ArrayList<>(myVertex.adjacency.values());
 
-        for (Edge<E, V> edge : edgeList) {
+        for (MyEdge edge : edgeList) {
             removeEdge(edge);
         }
 
-        vertices.remove(v.element());
+        vertices.remove(element);
 
         return element;
     }
@@ -284,25 +263,12 @@ public class GraphAdjacencyList<V, E> implements Graph<V, E> {
      */
     @Override
     public E removeEdge(Edge<E, V> e) throws InvalidEdgeException {
-        List<Vertex<V>> newVertices = new ArrayList<>();
-
-        if (!existsEdgeWith(e.element())) {
-            throw new InvalidEdgeException("This edge doesn't exist.");
-        }
-
-        for (Vertex<V> v1 : vertices()) {
-            if (checkVertex(v1).incidentEdges.contains(e)) {
-                newVertices.add(v1);
-            }
-        }
-
-        for (Vertex<V> v2 : newVertices) {
-            checkVertex(v2).incidentEdges.remove(e);
-        }
+        MyEdge edge = checkEdge(e);
 
-        E oldElement = e.element();
+        edge.first.adjacency.remove(edge.second);
+        edge.second.adjacency.remove(edge.first);
 
-        return oldElement;
+        return edge.element();
     }
 
     /**
@@ -320,17 +286,16 @@ public class GraphAdjacencyList<V, E> implements Graph<V, E> {
             throw new InvalidVertexException("There is already a vertex with this element.");
         }
 
-        List<Edge<E, V>> edges = new ArrayList<>(checkVertex(v).incidentEdges);
-
-        removeVertex(v);
-
-        MyVertex v1 = new MyVertex(newElement);
+        MyVertex myVertex = checkVertex(v);
 
-        v1.incidentEdges = new ArrayList<>(edges);
+        V oldElement = myVertex.element;
 
-        vertices.put(newElement, v1);
+        //the vertex keeps its edges, only the key of the map changes
+        vertices.remove(oldElement);
+        myVertex.element = newElement;
+        vertices.put(newElement, myVertex);
 
-        return v.element();
+        return oldElement;
     }
 
     /**
@@ -351,13 +316,7 @@ public class GraphAdjacencyList<V, E> implements Graph<V, E> {
         MyEdge edge = checkEdge(e);
 
         E oldElement = edge.element;
-
-        for (Vertex<V> v1 : this.vertices.values()) {
-            if (checkVertex(v1).incidentEdges.contains(e)) {
-                edge.element = newElement;
-            }
-
-        }
+        edge.element = newElement;
 
         return oldElement;
     }
@@ -369,26 +328,25 @@ public class GraphAdjacencyList<V, E> implements Graph<V, E> {
      * @return true if it exists, otherwise false
      */
     private boolean existsEdgeWith(E edgeElement) {
-        for (Vertex<V> v1 : this.vertices.values()) {
-            for (Edge<E, V> edge : incidentEdges(v1)) {
-                if (edge.element().equals(edgeElement)) {
-                    return true;
-                }
+        for (Edge<E, V> edge : edges()) {
+            if (edge.element().equals(edgeElement)) {
+                return true;
             }
         }
         return false;
     }
 
     /**
-     * Inner class that stores an element of a vertex and its incident edges.
+     * Inner class that stores an element of a vertex and its incident edges,
+     * indexed by the opposite vertex of each edge.
      */
     private class MyVertex implements Vertex<V> {
         private V element;
-        private List<Edge<E, V>> incidentEdges;
+        private Map<MyVertex, MyEdge> adjacency;
 
         public MyVertex(V element) {
             this.element = element;
-            this.incidentEdges = new ArrayList<>();
+            this.adjacency = new LinkedHashMap<>();
         }
 
         @Override
@@ -398,18 +356,22 @@ public class GraphAdjacencyList<V, E> implements Graph<V, E> {
 
         @Override
         public String toString() {
-            return "Vertex{" + element + '}' + " --> " + incidentEdges.toString();
+            return "Vertex{" + element + '}' + " --> " + adjacency.values().toString();
         }
     }
 
     /**
-     * Inner class that stores an element of an edge.
+     * Inner class that stores an element of an edge and its two endpoints.
      */
     private class MyEdge implements Edge<E, V> {
         private E element;
+        private final MyVertex first;
+        private final MyVertex second;
 
-        public MyEdge(E element) {
+        public MyEdge(E element, MyVertex first, MyVertex second) {
             this.element = element;
+            this.first = first;
+            this.second = second;
         }
 
         @Override
@@ -419,23 +381,7 @@ public class GraphAdjacencyList<V, E> implements Graph<V, E> {
 
         @Override
         public Vertex<V>[] vertices() {
-            //if the edge exists, then two existing vertices have the edge
-            //in their incidentEdges lists
-            List<Vertex<V>> adjacentVertices = new ArrayList<>();
-
-            for (Vertex<V> v : GraphAdjacencyList.this.vertices.values()) {
-                MyVertex myV = (MyVertex) v;
-
-                if (myV.incidentEdges.contains(this)) {
-                    adjacentVertices.add(v);
-                }
-            }
-
-            if (adjacentVertices.isEmpty()) {
-                return new Vertex[]{null, null}; //edge was removed meanwhile
-            } else {
-                return new Vertex[]{adjacentVertices.get(0), adjacentVertices.get(1)};
-            }
+            return new Vertex[]{first, second};
         }
 
         @Override
@@ -451,12 +397,7 @@ public class GraphAdjacencyList<V, E> implements Graph<V, E> {
      * @return element of type MyVertex if it works or null otherwise
      */
     private MyVertex vertexOf(V vElement) {
-        for (Vertex<V> v : vertices.values()) {
-            if (v.element().equals(vElement)) {
-                return checkVertex(v);
-            }
-        }
-        return null;
+        return (MyVertex) vertices.get(vElement);
     }
 
     /**
@@ -476,7 +417,7 @@ public class GraphAdjacencyList<V, E> implements Graph<V, E> {
             throw new InvalidVertexException("Not a vertex.");
         }
 
-        if (!vertices.containsValue(v)) {
+        if (vertices.get(vertex.element) != vertex) {
             throw new InvalidVertexException("Vertex does not belong to this graph.");
         }
 
@@ -500,7 +441,7 @@ public class GraphAdjacencyList<V, E> implements Graph<V, E> {
             throw new InvalidEdgeException("Not an edge.");
         }
 
-        if (!edges().contains(edge)) {
+        if (vertices.get(edge.first.element) != edge.first || edge.first.adjacency.get(edge.second) != edge) {
             throw new InvalidEdgeException("Edge does not belong to this graph.");
         }
 
@@ -0,0 +1,87 @@
+package pt.pa.graph;
+
+/**
+ * Describes a single change made to a graph (a vertex or an edge that was
+ * inserted or removed), so the observers can apply only that change instead of
+ * comparing the whole graph with their own state.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ *
+ * @param <V> Type of element stored at a vertex
+ * @param <E> Type of element stored at an edge
+ */
+public final class GraphChange<V, E> {
+
+    public enum Type {
+        VERTEX_INSERTED, VERTEX_REMOVED, EDGE_INSERTED, EDGE_REMOVED
+    }
+
+    private final Type type;
+    private final Vertex<V> vertex;
+    private final Edge<E, V> edge;
+
+    private GraphChange(Type type, Vertex<V> vertex, Edge<E, V> edge) {
+        this.type = type;
+        this.vertex = vertex;
+        this.edge = edge;
+    }
+
+    public static <V, E> GraphChange<V, E> vertexInserted(Vertex<V> vertex) {
+        return new GraphChange<>(Type.VERTEX_INSERTED, vertex, null);
+    }
+
+    /**
+     * Change of a removed vertex. The edges that were removed with it must be
+     * reported before, as edge removals.
+     *
+     * @param vertex removed vertex
+     * @return change
+     */
+    public static <V, E> GraphChange<V, E> vertexRemoved(Vertex<V> vertex) {
+        return new GraphChange<>(Type.VERTEX_REMOVED, vertex, null);
+    }
+
+    public static <V, E> GraphChange<V, E> edgeInserted(Edge<E, V> edge) {
+        return new GraphChange<>(Type.EDGE_INSERTED, null, edge);
+    }
+
+    public static <V, E> GraphChange<V, E> edgeRemoved(Edge<E, V> edge) {
+        return new GraphChange<>(Type.EDGE_REMOVED, null, edge);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Get the changed vertex.
+     *
+     * @return vertex, or null if an edge changed
+     */
+    public Vertex<V> getVertex() {
+        return vertex;
+    }
+
+    /**
+     * Get the changed edge.
+     *
+     * @return edge, or null if a vertex changed
+     */
+    public Edge<E, V> getEdge() {
+        return edge;
+    }
+
+    public boolean isEdgeChange() {
+        return edge != null;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + (edge != null ? edge : vertex);
+    }
+}
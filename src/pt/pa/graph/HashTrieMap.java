@@ -0,0 +1,331 @@
+package pt.pa.graph;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable map backed by a hash array mapped trie.
+ * <p>
+ * Every change returns a new map that shares all the nodes of the trie with the
+ * previous one, except the O(log32 n) nodes in the path to the changed key, so
+ * the previous versions remain valid and keeping one costs nothing. Keys can't be null.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ *
+ * @param <K> Type of the keys
+ * @param <V> Type of the values
+ */
+final class HashTrieMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final Object NOT_FOUND = new Object();
+    private static final HashTrieMap<?, ?> EMPTY = new HashTrieMap<>(null, 0);
+
+    private final Trie root;
+    private final int size;
+
+    private HashTrieMap(Trie root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> HashTrieMap<K, V> empty() {
+        return (HashTrieMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param key key to find
+     * @return value, or null if the key isn't in the map
+     */
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        if (root == null || key == null) return null;
+
+        Object value = root.get(0, hash(key), key);
+        return value == NOT_FOUND ? null : (V) value;
+    }
+
+    boolean containsKey(Object key) {
+        return root != null && key != null && root.get(0, hash(key), key) != NOT_FOUND;
+    }
+
+    /**
+     * Returns a map with the key associated to the value.
+     *
+     * @param key   key, not null
+     * @param value value
+     * @return new map, or this one if the key already had the value
+     */
+    HashTrieMap<K, V> put(K key, V value) {
+        Objects.requireNonNull(key);
+
+        boolean[] added = new boolean[1];
+        Trie node = root == null ? BitmapTrie.EMPTY : root;
+        Trie newRoot = node.put(0, hash(key), key, value, added);
+
+        if (newRoot == root) return this;
+        return new HashTrieMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without the key.
+     *
+     * @param key key to remove
+     * @return new map, or this one if the key isn't in the map
+     */
+    HashTrieMap<K, V> remove(Object key) {
+        if (root == null || key == null) return this;
+
+        Trie newRoot = root.remove(0, hash(key), key);
+        if (newRoot == root) return this;
+        return newRoot == null ? empty() : new HashTrieMap<>(newRoot, size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        if (root != null) {
+            root.forEach((BiConsumer<Object, Object>) action);
+        }
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Node of the trie.
+     */
+    private abstract static class Trie {
+        /**
+         * @return value of the key, or NOT_FOUND
+         */
+        abstract Object get(int shift, int hash, Object key);
+
+        /**
+         * @return new node, or this one if nothing changed
+         */
+        abstract Trie put(int shift, int hash, Object key, Object value, boolean[] added);
+
+        /**
+         * @return new node, this one if nothing changed, or null if the node became empty
+         */
+        abstract Trie remove(int shift, int hash, Object key);
+
+        abstract void forEach(BiConsumer<Object, Object> action);
+    }
+
+    /**
+     * Node with up to 32 slots, one for each group of 5 bits of the hash at its
+     * level. Only the used slots are stored, as pairs of (key, value) or
+     * (null, child node).
+     */
+    private static final class BitmapTrie extends Trie {
+        static final BitmapTrie EMPTY = new BitmapTrie(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] array;
+
+        BitmapTrie(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private int index(int bit) {
+            return 2 * Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object get(int shift, int hash, Object key) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) return NOT_FOUND;
+
+            int i = index(bit);
+            Object k = array[i];
+            if (k == null) {
+                return ((Trie) array[i + 1]).get(shift + BITS, hash, key);
+            }
+            return key.equals(k) ? array[i + 1] : NOT_FOUND;
+        }
+
+        @Override
+        Trie put(int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int i = index(bit);
+
+            if ((bitmap & bit) == 0) {
+                Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, i);
+                newArray[i] = key;
+                newArray[i + 1] = value;
+                System.arraycopy(array, i, newArray, i + 2, array.length - i);
+                added[0] = true;
+                return new BitmapTrie(bitmap | bit, newArray);
+            }
+
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                Trie child = ((Trie) v).put(shift + BITS, hash, key, value, added);
+                return child == v ? this : with(i + 1, null, child);
+            }
+            if (key.equals(k)) {
+                return v == value ? this : with(i + 1, k, value);
+            }
+
+            //two keys in the same slot: push both down a level
+            added[0] = true;
+            return with(i + 1, null, merge(shift + BITS, k, v, hash, key, value));
+        }
+
+        @Override
+        Trie remove(int shift, int hash, Object key) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) return this;
+
+            int i = index(bit);
+            Object k = array[i];
+            if (k == null) {
+                Trie child = ((Trie) array[i + 1]).remove(shift + BITS, hash, key);
+                if (child == array[i + 1]) return this;
+                if (child != null) return with(i + 1, null, child);
+            } else if (!key.equals(k)) {
+                return this;
+            }
+
+            if (bitmap == bit) return null;
+
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            return new BitmapTrie(bitmap ^ bit, newArray);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Trie) array[i + 1]).forEach(action);
+                } else {
+                    action.accept(array[i], array[i + 1]);
+                }
+            }
+        }
+
+        /**
+         * Copy of this node with the pair that ends at index 'i' changed.
+         */
+        private BitmapTrie with(int i, Object key, Object value) {
+            Object[] newArray = array.clone();
+            newArray[i - 1] = key;
+            newArray[i] = value;
+            return new BitmapTrie(bitmap, newArray);
+        }
+    }
+
+    /**
+     * Node with the keys that have the same hash.
+     */
+    private static final class CollisionTrie extends Trie {
+        private final int hash;
+        private final Object[] array;
+
+        CollisionTrie(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) return i;
+            }
+            return -1;
+        }
+
+        @Override
+        Object get(int shift, int hash, Object key) {
+            int i = indexOf(key);
+            return i < 0 ? NOT_FOUND : array[i + 1];
+        }
+
+        @Override
+        Trie put(int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                //a different hash that is equal up to this level: this node becomes a slot
+                Trie node = new BitmapTrie(1 << ((this.hash >>> shift) & MASK), new Object[]{null, this});
+                return node.put(shift, hash, key, value, added);
+            }
+
+            int i = indexOf(key);
+            if (i >= 0) {
+                if (array[i + 1] == value) return this;
+                Object[] newArray = array.clone();
+                newArray[i + 1] = value;
+                return new CollisionTrie(hash, newArray);
+            }
+
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionTrie(hash, newArray);
+        }
+
+        @Override
+        Trie remove(int shift, int hash, Object key) {
+            int i = indexOf(key);
+            if (i < 0) return this;
+            if (array.length == 2) return null;
+
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            return new CollisionTrie(hash, newArray);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept(array[i], array[i + 1]);
+            }
+        }
+    }
+
+    /**
+     * Creates the node, at the given level, with two keys that were in the same slot.
+     */
+    private static Trie merge(int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+        int hash1 = hash(key1);
+        if (hash1 == hash2) {
+            return new CollisionTrie(hash1, new Object[]{key1, value1, key2, value2});
+        }
+
+        int i1 = (hash1 >>> shift) & MASK;
+        int i2 = (hash2 >>> shift) & MASK;
+        if (i1 == i2) {
+            return new BitmapTrie(1 << i1, new Object[]{null, merge(shift + BITS, key1, value1, hash2, key2, value2)});
+        }
+
+        Object[] array = i1 < i2
+                ? new Object[]{key1, value1, key2, value2}
+                : new Object[]{key2, value2, key1, value1};
+        return new BitmapTrie((1 << i1) | (1 << i2), array);
+    }
+}
@@ -0,0 +1,477 @@
+package pt.pa.graph;
+
+import java.util.*;
+
+/**
+ * ADT Graph implementation where every version of the graph is immutable.
+ * <p>
+ * The vertices, and the incident edges of each vertex (indexed by the vertex at
+ * the other end), are kept in hash array mapped tries. Each change creates a new
+ * {@link Version} that shares almost everything with the previous one, so a copy
+ * of the graph is just a reference to its version ({@link #version()}), taken in
+ * O(1), and {@link #restore(Version)} brings back exactly that graph, also in O(1).
+ * <p>
+ * Vertices and edges are immutable too: replacing an element creates a new
+ * vertex (or edge) and the old one no longer belongs to the graph.
+ * {@link #getVertices()} is a read-only view.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ *
+ * @param <V> Type of element stored at a vertex
+ * @param <E> Type of element stored at an edge
+ */
+public class PersistentGraph<V, E> implements Graph<V, E> {
+
+    /* inner classes are defined at the end of the class, so are the auxiliary methods
+     */
+    private Version<V, E> current;
+
+    /**
+     * Creates an empty graph.
+     */
+    public PersistentGraph() {
+        this.current = new Version<>(HashTrieMap.empty(), 0);
+    }
+
+    /**
+     * Returns the current version of the graph, that is never changed.
+     *
+     * @return current version
+     */
+    public Version<V, E> version() {
+        return current;
+    }
+
+    /**
+     * Makes a previous version the current version of the graph.
+     *
+     * @param version version returned by {@link #version()}
+     */
+    public void restore(Version<V, E> version) {
+        this.current = Objects.requireNonNull(version);
+    }
+
+    @Override
+    public boolean areAdjacent(Vertex<V> u, Vertex<V> v) throws InvalidVertexException {
+        checkVertex(v);
+        return adjacencyOf(checkVertex(u)).containsKey(v);
+    }
+
+    @Override
+    public int numVertices() {
+        return current.vertices.size();
+    }
+
+    /**
+     * Returns the total number of edges in the graph, kept by each version.
+     *
+     * @return total number of edges.
+     */
+    @Override
+    public int numEdges() {
+        return current.numEdges;
+    }
+
+    @Override
+    public Collection<Vertex<V>> vertices() {
+        List<Vertex<V>> list = new ArrayList<>(numVertices());
+        current.vertices.forEach((element, adjacency) -> list.add(adjacency.vertex));
+        return list;
+    }
+
+    /**
+     * Returns a read-only view of the vertices of the current version, indexed by their element.
+     *
+     * @return map of the vertices
+     */
+    @Override
+    public Map<V, Vertex<V>> getVertices() {
+        return new VerticesView<>(current);
+    }
+
+    @Override
+    public Collection<Edge<E, V>> edges() {
+        List<Edge<E, V>> list = new ArrayList<>(numEdges());
+        current.vertices.forEach((element, adjacency) -> adjacency.edges.forEach((opposite, edge) -> {
+            //each edge is only reported by its first endpoint
+            if (edge.first == adjacency.vertex) {
+                list.add(edge);
+            }
+        }));
+        return list;
+    }
+
+    @Override
+    public Collection<Edge<E, V>> incidentEdges(Vertex<V> v) throws InvalidVertexException {
+        HashTrieMap<MyVertex<V>, MyEdge<E, V>> edges = adjacencyOf(checkVertex(v));
+        List<Edge<E, V>> list = new ArrayList<>(edges.size());
+        edges.forEach((opposite, edge) -> list.add(edge));
+        return list;
+    }
+
+    /**
+     * Given a vertex 'v', returns the opposite vertex at the other end of an edge 'e'.
+     * <p>
+     * If both 'v' and 'e' are valid, but 'e' is not connected to 'v', returns null.
+     *
+     * @param v vertex at one end of 'e'
+     * @param e edge connected to 'v'
+     * @return opposite vertex at the other end of 'e'.
+     * @throws InvalidVertexException if the vertex is invalid.
+     * @throws InvalidEdgeException   if the edge is invalid.
+     */
+    @Override
+    public Vertex<V> opposite(Vertex<V> v, Edge<E, V> e) throws InvalidVertexException, InvalidEdgeException {
+        MyVertex<V> myVertex = checkVertex(v);
+        MyEdge<E, V> myEdge = checkEdge(e);
+
+        if (myEdge.first == myVertex) {
+            return myEdge.second;
+        } else if (myEdge.second == myVertex) {
+            return myEdge.first;
+        }
+        return null;
+    }
+
+    @Override
+    public Vertex<V> insertVertex(V vElement) throws InvalidVertexException {
+        if (vElement == null) throw new InvalidVertexException("Null element.");
+        if (current.vertices.containsKey(vElement))
+            throw new InvalidVertexException("Element " + vElement + "already exists in the graph.");
+
+        MyVertex<V> v = new MyVertex<>(vElement);
+        current = new Version<>(current.vertices.put(vElement, new Adjacency<>(v, HashTrieMap.empty())),
+                current.numEdges);
+        return v;
+    }
+
+    @Override
+    public Edge<E, V> insertEdge(Vertex<V> u, Vertex<V> v, E edgeElement) throws InvalidVertexException, InvalidEdgeException {
+        return insertEdge(checkVertex(u).element, checkVertex(v).element, edgeElement);
+    }
+
+    @Override
+    public Edge<E, V> insertEdge(V vElement1, V vElement2, E edgeElement) throws InvalidVertexException, InvalidEdgeException {
+        Adjacency<V, E> u = vElement1 == null ? null : current.vertices.get(vElement1);
+        Adjacency<V, E> v = vElement2 == null ? null : current.vertices.get(vElement2);
+        if (u == null || v == null) {
+            throw new InvalidVertexException("One of the vertex does not exist!");
+        }
+
+        if (u.edges.containsKey(v.vertex)) {
+            throw new InvalidEdgeException("This edge already exists");
+        }
+
+        MyEdge<E, V> edge = new MyEdge<>(edgeElement, u.vertex, v.vertex);
+
+        HashTrieMap<V, Adjacency<V, E>> vertices = current.vertices;
+        vertices = vertices.put(vElement1, u.with(v.vertex, edge));
+        //read again, in case it is a loop
+        Adjacency<V, E> second = vertices.get(vElement2);
+        vertices = vertices.put(vElement2, second.with(u.vertex, edge));
+
+        current = new Version<>(vertices, current.numEdges + 1);
+        return edge;
+    }
+
+    @Override
+    public V removeVertex(Vertex<V> v) throws InvalidVertexException {
+        MyVertex<V> myVertex = checkVertex(v);
+
+        for (Edge<E, V> edge : incidentEdges(myVertex)) {
+            removeEdge(edge);
+        }
+        current = new Version<>(current.vertices.remove(myVertex.element), current.numEdges);
+
+        return myVertex.element;
+    }
+
+    @Override
+    public E removeEdge(Edge<E, V> e) throws InvalidEdgeException {
+        MyEdge<E, V> edge = checkEdge(e);
+
+        HashTrieMap<V, Adjacency<V, E>> vertices = current.vertices;
+        vertices = vertices.put(edge.first.element, vertices.get(edge.first.element).without(edge.second));
+        vertices = vertices.put(edge.second.element, vertices.get(edge.second.element).without(edge.first));
+
+        current = new Version<>(vertices, current.numEdges - 1);
+        return edge.element;
+    }
+
+    /**
+     * Replaces the element of a given vertex with a new element. The vertex is
+     * replaced by a new one, with the same edges (that are also replaced).
+     *
+     * @param v          vertex to replace its element
+     * @param newElement new element to store in <code>v</code>
+     * @return the previous element stored at v
+     * @throws InvalidVertexException if there's already exists a vertex containing the element.
+     */
+    @Override
+    public V replace(Vertex<V> v, V newElement) throws InvalidVertexException {
+        if (newElement == null) throw new InvalidVertexException("Null element.");
+        if (current.vertices.containsKey(newElement)) {
+            throw new InvalidVertexException("There is already a vertex with this element.");
+        }
+
+        MyVertex<V> myVertex = checkVertex(v);
+        MyVertex<V> newVertex = new MyVertex<>(newElement);
+
+        HashTrieMap<V, Adjacency<V, E>> vertices = current.vertices.remove(myVertex.element);
+        Adjacency<V, E> replaced = new Adjacency<>(newVertex, HashTrieMap.empty());
+
+        for (Edge<E, V> e : incidentEdges(myVertex)) {
+            MyEdge<E, V> edge = (MyEdge<E, V>) e;
+            MyVertex<V> opposite = edge.first == myVertex ? edge.second : edge.first;
+
+            if (opposite == myVertex) {
+                replaced = replaced.with(newVertex, new MyEdge<>(edge.element, newVertex, newVertex));
+                continue;
+            }
+
+            MyEdge<E, V> newEdge = edge.first == myVertex
+                    ? new MyEdge<>(edge.element, newVertex, opposite)
+                    : new MyEdge<>(edge.element, opposite, newVertex);
+
+            replaced = replaced.with(opposite, newEdge);
+            vertices = vertices.put(opposite.element,
+                    vertices.get(opposite.element).without(myVertex).with(newVertex, newEdge));
+        }
+
+        current = new Version<>(vertices.put(newElement, replaced), current.numEdges);
+        return myVertex.element;
+    }
+
+    /**
+     * Replaces the element of a given edge with a new element. The edge is
+     * replaced by a new one, between the same vertices.
+     *
+     * @param e          edge to replace its element
+     * @param newElement new element to store in <code>e</code>
+     * @return the previous element stored at e
+     * @throws InvalidEdgeException if there's already exists an edge containing the element.
+     */
+    @Override
+    public E replace(Edge<E, V> e, E newElement) throws InvalidEdgeException {
+        if (existsEdgeWith(newElement)) {
+            throw new InvalidEdgeException("There's already an edge with this element.");
+        }
+
+        MyEdge<E, V> edge = checkEdge(e);
+        MyEdge<E, V> newEdge = new MyEdge<>(newElement, edge.first, edge.second);
+
+        HashTrieMap<V, Adjacency<V, E>> vertices = current.vertices;
+        vertices = vertices.put(edge.first.element, vertices.get(edge.first.element).with(edge.second, newEdge));
+        vertices = vertices.put(edge.second.element, vertices.get(edge.second.element).with(edge.first, newEdge));
+
+        current = new Version<>(vertices, current.numEdges);
+        return edge.element;
+    }
+
+    private boolean existsEdgeWith(E edgeElement) {
+        for (Edge<E, V> edge : edges()) {
+            if (Objects.equals(edge.element(), edgeElement)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Immutable version of the graph.
+     *
+     * @param <V> Type of element stored at a vertex
+     * @param <E> Type of element stored at an edge
+     */
+    public static final class Version<V, E> {
+        private final HashTrieMap<V, Adjacency<V, E>> vertices;
+        private final int numEdges;
+
+        private Version(HashTrieMap<V, Adjacency<V, E>> vertices, int numEdges) {
+            this.vertices = vertices;
+            this.numEdges = numEdges;
+        }
+
+        public int numVertices() {
+            return vertices.size();
+        }
+
+        public int numEdges() {
+            return numEdges;
+        }
+    }
+
+    /**
+     * Immutable vertex and its incident edges, indexed by the opposite vertex of each edge.
+     */
+    private static final class Adjacency<V, E> {
+        private final MyVertex<V> vertex;
+        private final HashTrieMap<MyVertex<V>, MyEdge<E, V>> edges;
+
+        Adjacency(MyVertex<V> vertex, HashTrieMap<MyVertex<V>, MyEdge<E, V>> edges) {
+            this.vertex = vertex;
+            this.edges = edges;
+        }
+
+        Adjacency<V, E> with(MyVertex<V> opposite, MyEdge<E, V> edge) {
+            return new Adjacency<>(vertex, edges.put(opposite, edge));
+        }
+
+        Adjacency<V, E> without(MyVertex<V> opposite) {
+            return new Adjacency<>(vertex, edges.remove(opposite));
+        }
+    }
+
+    private static final class MyVertex<V> implements Vertex<V> {
+        private final V element;
+
+        MyVertex(V element) {
+            this.element = element;
+        }
+
+        @Override
+        public V element() {
+            return element;
+        }
+
+        @Override
+        public String toString() {
+            return "Vertex{" + element + '}';
+        }
+    }
+
+    private static final class MyEdge<E, V> implements Edge<E, V> {
+        private final E element;
+        private final MyVertex<V> first;
+        private final MyVertex<V> second;
+
+        MyEdge(E element, MyVertex<V> first, MyVertex<V> second) {
+            this.element = element;
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public E element() {
+            return element;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Vertex<V>[] vertices() {
+            return (Vertex<V>[]) new Vertex<?>[]{first, second};
+        }
+
+        @Override
+        public String toString() {
+            return "Edge{" + element + "}";
+        }
+    }
+
+    /**
+     * Read-only map of the vertices of a version.
+     */
+    private static final class VerticesView<V, E> extends AbstractMap<V, Vertex<V>> {
+        private final Version<V, E> version;
+
+        VerticesView(Version<V, E> version) {
+            this.version = version;
+        }
+
+        @Override
+        public Vertex<V> get(Object key) {
+            Adjacency<V, E> adjacency = version.vertices.get(key);
+            return adjacency == null ? null : adjacency.vertex;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return version.vertices.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return version.vertices.size();
+        }
+
+        @Override
+        public Set<Entry<V, Vertex<V>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<V, Vertex<V>>> iterator() {
+                    List<Entry<V, Vertex<V>>> entries = new ArrayList<>(size());
+                    version.vertices.forEach((element, adjacency) ->
+                            entries.add(new SimpleImmutableEntry<>(element, adjacency.vertex)));
+                    return Collections.unmodifiableList(entries).iterator();
+                }
+
+                @Override
+                public int size() {
+                    return version.vertices.size();
+                }
+            };
+        }
+    }
+
+    private HashTrieMap<MyVertex<V>, MyEdge<E, V>> adjacencyOf(MyVertex<V> vertex) {
+        return current.vertices.get(vertex.element).edges;
+    }
+
+    /**
+     * Checks whether a given vertex is valid and belongs to the current version.
+     *
+     * @param v vertex to be checked
+     * @return MyVertex
+     * @throws InvalidVertexException if the vertex is invalid or doesn't exist
+     */
+    private MyVertex<V> checkVertex(Vertex<V> v) throws InvalidVertexException {
+        if (v == null) throw new InvalidVertexException("Null vertex.");
+        if (!(v instanceof MyVertex)) throw new InvalidVertexException("Not a vertex.");
+
+        MyVertex<V> vertex = (MyVertex<V>) v;
+        Adjacency<V, E> adjacency = current.vertices.get(vertex.element);
+        if (adjacency == null || adjacency.vertex != vertex) {
+            throw new InvalidVertexException("Vertex does not belong to this graph.");
+        }
+
+        return vertex;
+    }
+
+    /**
+     * Checks whether a given edge is valid and belongs to the current version.
+     *
+     * @param e edge to be checked
+     * @return MyEdge
+     * @throws InvalidEdgeException if the edge is invalid or doesn't exist
+     */
+    private MyEdge<E, V> checkEdge(Edge<E, V> e) throws InvalidEdgeException {
+        if (e == null) throw new InvalidEdgeException("Null edge.");
+        if (!(e instanceof MyEdge)) throw new InvalidEdgeException("Not an edge.");
+
+        MyEdge<E, V> edge = (MyEdge<E, V>) e;
+        Adjacency<V, E> adjacency = current.vertices.get(edge.first.element);
+        if (adjacency == null || adjacency.vertex != edge.first || adjacency.edges.get(edge.second) != edge) {
+            throw new InvalidEdgeException("Edge does not belong to this graph.");
+        }
+
+        return edge;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Graph | Persistent : \n");
+        sb.append("Vertices: " + numVertices() + " Edges: " + numEdges() + "\n");
+
+        for (Vertex<V> v : vertices()) {
+            sb.append(String.format("%s --> %s", v, incidentEdges(v)));
+            sb.append("\n");
+        }
+
+        return sb.toString();
+    }
+}
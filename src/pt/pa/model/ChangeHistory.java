@@ -0,0 +1,334 @@
+package pt.pa.model;
+
+import pt.pa.graph.Edge;
+import pt.pa.graph.GraphChange;
+import pt.pa.graph.Vertex;
+import pt.pa.observerpattern.Observable;
+import pt.pa.observerpattern.Observer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Undo/redo history of the changes made to a network.
+ * <p>
+ * The history observes the network and records each added or removed route,
+ * with its distance, so undoing it only applies the inverse change to the
+ * network. The routes of a batch ({@link LogisticsNetwork#applyBatch}) are a
+ * single step, undone with the inverse batch. Changes that aren't described (e.g., loading a dataset) are recorded
+ * as checkpoints: the mementos of the network before and after the change.
+ * <p>
+ * The size of the history is bounded: each step weighs the number of routes it
+ * keeps (a checkpoint weighs 1). When the steps weigh too much, the oldest ones are
+ * compacted into a single checkpoint, so they are undone all at once. To allow it,
+ * the state of the network is saved every few routes (a memento of the network is
+ * O(1), see {@link LogisticsNetwork#createMemento()}).
+ * <p>
+ * The steps are recorded in the order the network notifies them, so the network
+ * should be changed by a single thread.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+public class ChangeHistory implements Observer {
+    public static final int DEFAULT_CAPACITY = 1000;
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 100;
+
+    private final LogisticsNetwork network;
+    private final int capacity;
+    private final int checkpointInterval;
+
+    private final Deque<Step> undoSteps = new ArrayDeque<>();
+    private final Deque<Step> redoSteps = new ArrayDeque<>();
+    private Memento lastState;
+    private int routesSinceCheckpoint;
+    //weight of the steps that can be undone or redone
+    private int weight;
+    private boolean replaying;
+
+    public ChangeHistory(LogisticsNetwork network) {
+        this(network, DEFAULT_CAPACITY, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Creates the history of a network and starts observing it.
+     *
+     * @param network            network
+     * @param capacity           maximum number of routes kept by the steps (at least 2)
+     * @param checkpointInterval number of routes between saved states of the network
+     */
+    public ChangeHistory(LogisticsNetwork network, int capacity, int checkpointInterval) {
+        if (capacity < 2 || checkpointInterval < 1) {
+            throw new IllegalArgumentException("Invalid capacity or checkpoint interval.");
+        }
+
+        this.network = network;
+        this.capacity = capacity;
+        this.checkpointInterval = checkpointInterval;
+        this.lastState = network.createMemento();
+
+        network.addObserver(this);
+    }
+
+    public synchronized boolean canUndo() {
+        return !undoSteps.isEmpty();
+    }
+
+    public synchronized boolean canRedo() {
+        return !redoSteps.isEmpty();
+    }
+
+    /**
+     * Undoes the last step.
+     *
+     * @throws NoMementoException if there is nothing to undo
+     */
+    public synchronized void undo() throws NoMementoException {
+        if (undoSteps.isEmpty()) {
+            throw new NoMementoException("There is nothing to undo.");
+        }
+
+        Step step = undoSteps.peekLast();
+        replay(step::undo);
+        redoSteps.addLast(undoSteps.removeLast());
+    }
+
+    /**
+     * Redoes the last undone step.
+     *
+     * @throws NoMementoException if there is nothing to redo
+     */
+    public synchronized void redo() throws NoMementoException {
+        if (redoSteps.isEmpty()) {
+            throw new NoMementoException("There is nothing to redo.");
+        }
+
+        Step step = redoSteps.peekLast();
+        replay(step::redo);
+        undoSteps.addLast(redoSteps.removeLast());
+    }
+
+    /**
+     * Applies a step to the network without recording the changes it notifies.
+     */
+    private void replay(Runnable change) {
+        replaying = true;
+        try {
+            change.run();
+        } finally {
+            replaying = false;
+            lastState = network.createMemento();
+        }
+    }
+
+    /**
+     * Records the change notified by the network.
+     *
+     * @param subject Observable
+     * @param arg     GraphChange of a route, a list of them for a batch, or any other argument for other changes
+     */
+    @Override
+    public synchronized void update(Observable subject, Object arg) {
+        if (subject != network || replaying) return;
+
+        Memento state = network.createMemento();
+        if (state.equals(lastState)) return;
+
+        Step step = routeStep(arg);
+        if (step == null) {
+            step = new Checkpoint(lastState, state);
+            routesSinceCheckpoint = 0;
+        } else if (undoSteps.isEmpty() || routesSinceCheckpoint >= checkpointInterval
+                || step.weight() >= checkpointInterval) {
+            //a step with many routes knows its state, so it can become a checkpoint on its own
+            step.before = lastState;
+            routesSinceCheckpoint = 0;
+        }
+        routesSinceCheckpoint += step.weight();
+
+        for (Step redone : redoSteps) {
+            weight -= redone.weight();
+        }
+        redoSteps.clear();
+        undoSteps.addLast(step);
+        weight += step.weight();
+        lastState = state;
+
+        compact();
+    }
+
+    /**
+     * Creates the step of a change notified by the network.
+     *
+     * @param arg argument of the notification
+     * @return step, or null if the change isn't a list of added or removed routes
+     */
+    @SuppressWarnings("unchecked")
+    private Step routeStep(Object arg) {
+        Collection<?> changes = arg instanceof GraphChange ? Collections.singletonList(arg)
+                : arg instanceof Collection ? (Collection<?>) arg : Collections.emptyList();
+        if (changes.isEmpty()) return null;
+
+        for (Object change : changes) {
+            if (!(change instanceof GraphChange) || !((GraphChange<?, ?>) change).isEdgeChange()) {
+                return null;
+            }
+        }
+
+        List<GraphChange<Hub, Route>> routes = new ArrayList<>((Collection<GraphChange<Hub, Route>>) changes);
+        RouteBatch redo = new RouteBatch();
+        RouteBatch undo = new RouteBatch();
+
+        for (GraphChange<Hub, Route> change : routes) {
+            addTo(redo, change, change.getType() == GraphChange.Type.EDGE_INSERTED);
+        }
+        for (int i = routes.size() - 1; i >= 0; i--) {
+            GraphChange<Hub, Route> change = routes.get(i);
+            addTo(undo, change, change.getType() != GraphChange.Type.EDGE_INSERTED);
+        }
+
+        return new RouteStep(redo, undo);
+    }
+
+    /**
+     * Adds the route of a change to a batch.
+     *
+     * @param batch batch
+     * @param change added or removed route
+     * @param add true to add the route, false to remove it
+     */
+    private static void addTo(RouteBatch batch, GraphChange<Hub, Route> change, boolean add) {
+        Edge<Route, Hub> edge = change.getEdge();
+        Vertex<Hub>[] hubs = edge.vertices();
+        int idHub1 = hubs[0].element().getIdentifier();
+        int idHub2 = hubs[1].element().getIdentifier();
+
+        if (add) {
+            batch.addRoute(String.valueOf(edge.element().getDistance()), idHub1, idHub2);
+        } else {
+            batch.removeRoute(idHub1, idHub2);
+        }
+    }
+
+    /**
+     * Compacts the steps until the history is within its capacity. First, the steps
+     * with many routes are replaced by checkpoints (the states before and after them
+     * are always saved). Then the oldest steps are merged into a checkpoint: the
+     * oldest step always knows the state before it, so it is merged with the following
+     * steps up to the next one that knows its state.
+     */
+    private void compact() {
+        if (weight <= capacity) return;
+
+        List<Step> steps = new ArrayList<>(undoSteps);
+
+        for (int i = 0; i < steps.size() && weight > capacity; i++) {
+            Step step = steps.get(i);
+            Memento after = i + 1 < steps.size() ? steps.get(i + 1).before : lastState;
+            if (step.weight() > 1 && step.before != null && after != null) {
+                steps.set(i, new Checkpoint(step.before, after));
+                weight -= step.weight() - 1;
+            }
+        }
+
+        while (weight > capacity && steps.size() > 1) {
+            int end = 2;
+            while (end < steps.size() && steps.get(end).before == null) {
+                end++;
+            }
+            Memento after = end < steps.size() ? steps.get(end).before : lastState;
+            Step checkpoint = new Checkpoint(steps.get(0).before, after);
+
+            List<Step> merged = steps.subList(0, end);
+            for (Step step : merged) {
+                weight -= step.weight();
+            }
+            merged.clear();
+            steps.add(0, checkpoint);
+            weight += checkpoint.weight();
+        }
+
+        undoSteps.clear();
+        undoSteps.addAll(steps);
+    }
+
+    /**
+     * Step of the history.
+     */
+    private abstract static class Step {
+        //state of the network before the step, only saved for some steps
+        Memento before;
+
+        abstract void undo();
+
+        abstract void redo();
+
+        /**
+         * @return number of routes kept by the step
+         */
+        abstract int weight();
+    }
+
+    /**
+     * Routes added or removed, undone with the inverse changes in reverse order.
+     */
+    private class RouteStep extends Step {
+        private final RouteBatch redo;
+        private final RouteBatch undo;
+
+        private RouteStep(RouteBatch redo, RouteBatch undo) {
+            this.redo = redo;
+            this.undo = undo;
+        }
+
+        @Override
+        void undo() {
+            network.applyBatch(undo);
+        }
+
+        @Override
+        int weight() {
+            return redo.size();
+        }
+
+        @Override
+        void redo() {
+            network.applyBatch(redo);
+        }
+    }
+
+    /**
+     * Step undone by restoring the state of the network.
+     */
+    private class Checkpoint extends Step {
+        private final Memento after;
+
+        private Checkpoint(Memento before, Memento after) {
+            this.before = before;
+            this.after = after;
+        }
+
+        @Override
+        void undo() {
+            network.setMemento(before);
+        }
+
+        @Override
+        int weight() {
+            return 1;
+        }
+
+        @Override
+        void redo() {
+            network.setMemento(after);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package pt.pa.model;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Contraction hierarchies over the routes of a snapshot.
+ * <p>
+ * Hubs are contracted one by one, least important first, adding shortcut routes
+ * between their neighbours whenever the contracted hub is on the only shortest path.
+ * Each hub keeps the routes to the hubs contracted after it ('upward' routes), and a
+ * query is a bidirectional dijkstra that only goes upward from both ends.
+ * Shortcuts remember the hub they skip, so the path can be unpacked into real routes.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+final class ContractionHierarchy {
+    private static final int NULL_VALUES = -1; // Magic Number Fix
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int WITNESS_SETTLE_LIMIT = 60;
+
+    private final Hub[] hubs;
+    private final int[] ranks;
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final int[] upWeights;
+    private final int[] upMiddles;
+    private final Queue<Search> searches = new ConcurrentLinkedQueue<>();
+
+    /* working state, only used while contracting */
+    private List<Map<Integer, int[]>> remaining;
+    private int[] witnessCosts;
+    private IndexedMinHeap witnessHeap;
+    private List<Integer> witnessTouched;
+
+    /**
+     * Builds the hierarchy.
+     *
+     * @param hubs    hub of each dense index
+     * @param offsets CSR offsets of the routes
+     * @param targets CSR targets of the routes
+     * @param weights CSR distances of the routes
+     */
+    ContractionHierarchy(Hub[] hubs, int[] offsets, int[] targets, int[] weights) {
+        int n = hubs.length;
+        this.hubs = hubs;
+        this.ranks = new int[n];
+
+        // neighbour -> {distance, middle hub or -1}, keeping only the shortest route of each pair
+        remaining = new ArrayList<>(n);
+        for (int v = 0; v < n; v++) {
+            remaining.add(new HashMap<>());
+        }
+        for (int v = 0; v < n; v++) {
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                if (targets[k] != v) {
+                    addRoute(v, targets[k], weights[k], NULL_VALUES);
+                }
+            }
+        }
+
+        witnessCosts = new int[n];
+        Arrays.fill(witnessCosts, INFINITY);
+        witnessHeap = new IndexedMinHeap(n);
+        witnessTouched = new ArrayList<>();
+
+        List<List<int[]>> upward = contract();
+
+        upOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            upOffsets[v + 1] = upOffsets[v] + upward.get(v).size();
+        }
+        upTargets = new int[upOffsets[n]];
+        upWeights = new int[upOffsets[n]];
+        upMiddles = new int[upOffsets[n]];
+        for (int v = 0; v < n; v++) {
+            int pos = upOffsets[v];
+            for (int[] route : upward.get(v)) {
+                upTargets[pos] = route[0];
+                upWeights[pos] = route[1];
+                upMiddles[pos] = route[2];
+                pos++;
+            }
+        }
+
+        remaining = null;
+        witnessCosts = null;
+        witnessHeap = null;
+        witnessTouched = null;
+    }
+
+    /**
+     * Calculate the minimum-cost path between two hubs.
+     *
+     * @param origin      index of the origin hub
+     * @param destination index of the destination hub
+     * @param path        List of hubs
+     * @return the minimum cost between two hubs, or -1 if there isn't a path
+     */
+    int minimumCostPath(int origin, int destination, List<Hub> path) {
+        Search search = searches.poll();
+        if (search == null) search = new Search(hubs.length);
+        List<Integer> up = new ArrayList<>();
+        int best;
+        try {
+            best = search(search, origin, destination, up);
+        } finally {
+            search.reset();
+            searches.offer(search);
+        }
+
+        path.clear();
+        if (up.isEmpty()) return NULL_VALUES;
+
+        path.add(hubs[up.get(0)]);
+        for (int i = 0; i < up.size() - 1; i++) {
+            unpack(up.get(i), up.get(i + 1), path);
+        }
+
+        return best;
+    }
+
+    /**
+     * Bidirectional upward dijkstra between two hubs.
+     *
+     * @param search      arrays of the query
+     * @param origin      index of the origin hub
+     * @param destination index of the destination hub
+     * @param up          filled with the hubs of the upward path, empty if there isn't a path
+     * @return the minimum cost between two hubs
+     */
+    private int search(Search search, int origin, int destination, List<Integer> up) {
+        int[][] costs = search.costs;
+        int[][] predecessors = search.predecessors;
+        IndexedMinHeap[] heaps = search.heaps;
+        int[] lastKey = {0, 0};
+
+        search.reach(0, origin, 0, NULL_VALUES);
+        search.reach(1, destination, 0, NULL_VALUES);
+
+        int best = INFINITY;
+        int meeting = NULL_VALUES;
+        int side = 0;
+
+        while (!heaps[0].isEmpty() || !heaps[1].isEmpty()) {
+            if (heaps[side].isEmpty()) side = 1 - side;
+
+            int v = heaps[side].poll();
+            lastKey[side] = costs[side][v];
+
+            if (costs[1 - side][v] != INFINITY && costs[side][v] + costs[1 - side][v] < best) {
+                best = costs[side][v] + costs[1 - side][v];
+                meeting = v;
+            }
+
+            for (int k = upOffsets[v]; k < upOffsets[v + 1]; k++) {
+                int w = upTargets[k];
+                int pathCost = costs[side][v] + upWeights[k];
+                if (pathCost < costs[side][w]) {
+                    search.reach(side, w, pathCost, v);
+                }
+            }
+
+            // a direction is done once nothing left in it can beat the best path
+            for (int s = 0; s < 2; s++) {
+                if (!heaps[s].isEmpty() && lastKey[s] >= best) heaps[s].clear();
+            }
+            side = 1 - side;
+        }
+
+        if (meeting != NULL_VALUES) {
+            for (int v = meeting; v != NULL_VALUES; v = predecessors[0][v]) {
+                up.add(v);
+            }
+            Collections.reverse(up);
+            for (int v = predecessors[1][meeting]; v != NULL_VALUES; v = predecessors[1][v]) {
+                up.add(v);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Appends the hubs of a (possibly shortcut) route to the path, except its first hub.
+     *
+     * @param from first hub of the route
+     * @param to   last hub of the route
+     * @param path List of hubs
+     */
+    private void unpack(int from, int to, List<Hub> path) {
+        Deque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[]{from, to});
+
+        while (!stack.isEmpty()) {
+            int[] route = stack.pop();
+            int middle = middleOf(route[0], route[1]);
+            if (middle == NULL_VALUES) {
+                path.add(hubs[route[1]]);
+            } else {
+                stack.push(new int[]{middle, route[1]});
+                stack.push(new int[]{route[0], middle});
+            }
+        }
+    }
+
+    /**
+     * Finds the hub skipped by the upward route between two hubs.
+     *
+     * @param u a hub
+     * @param v another hub
+     * @return skipped hub, or -1 if it is a real route
+     */
+    private int middleOf(int u, int v) {
+        int lower = ranks[u] < ranks[v] ? u : v;
+        int higher = lower == u ? v : u;
+
+        for (int k = upOffsets[lower]; k < upOffsets[lower + 1]; k++) {
+            if (upTargets[k] == higher) return upMiddles[k];
+        }
+        return NULL_VALUES;
+    }
+
+    /**
+     * Contracts every hub, by increasing importance.
+     *
+     * @return upward routes of each hub, as {target, distance, middle}
+     */
+    private List<List<int[]>> contract() {
+        int n = hubs.length;
+        List<List<int[]>> upward = new ArrayList<>(n);
+        int[] contractedNeighbours = new int[n];
+        IndexedMinHeap order = new IndexedMinHeap(n);
+
+        for (int v = 0; v < n; v++) {
+            upward.add(new ArrayList<>());
+            order.insertOrDecrease(v, importance(v, shortcuts(v), contractedNeighbours));
+        }
+
+        int rank = 0;
+        while (!order.isEmpty()) {
+            int v = order.poll();
+
+            // lazy update: contract it only if it is still the least important hub
+            List<int[]> shortcuts = shortcuts(v);
+            int priority = importance(v, shortcuts, contractedNeighbours);
+            if (!order.isEmpty() && priority > order.peekPriority()) {
+                order.insertOrDecrease(v, priority);
+                continue;
+            }
+
+            ranks[v] = rank++;
+            for (Map.Entry<Integer, int[]> entry : remaining.get(v).entrySet()) {
+                upward.get(v).add(new int[]{entry.getKey(), entry.getValue()[0], entry.getValue()[1]});
+            }
+
+            for (int[] shortcut : shortcuts) {
+                addRoute(shortcut[0], shortcut[1], shortcut[2], v);
+            }
+            for (int u : remaining.get(v).keySet()) {
+                remaining.get(u).remove(v);
+                contractedNeighbours[u]++;
+            }
+            remaining.get(v).clear();
+        }
+        return upward;
+    }
+
+    /**
+     * Importance of a hub: shortcuts it would add, minus the routes it removes,
+     * plus the number of its neighbours already contracted.
+     *
+     * @param v                    hub
+     * @param shortcuts            shortcuts needed to contract the hub
+     * @param contractedNeighbours contracted neighbours of each hub
+     * @return importance of the hub
+     */
+    private int importance(int v, List<int[]> shortcuts, int[] contractedNeighbours) {
+        return shortcuts.size() - remaining.get(v).size() + contractedNeighbours[v];
+    }
+
+    /**
+     * Finds the shortcuts needed to contract a hub.
+     *
+     * @param v hub to contract
+     * @return shortcuts, as {from, to, distance}
+     */
+    private List<int[]> shortcuts(int v) {
+        List<int[]> shortcuts = new ArrayList<>();
+        Map<Integer, int[]> neighbours = remaining.get(v);
+
+        int maxOut = 0;
+        for (int[] route : neighbours.values()) {
+            maxOut = Math.max(maxOut, route[0]);
+        }
+
+        for (Map.Entry<Integer, int[]> in : neighbours.entrySet()) {
+            int u = in.getKey();
+            int inCost = in.getValue()[0];
+
+            witnessSearch(u, v, inCost + maxOut);
+
+            for (Map.Entry<Integer, int[]> out : neighbours.entrySet()) {
+                int w = out.getKey();
+                // each pair only once, the graph is undirected
+                if (w <= u) continue;
+
+                int viaCost = inCost + out.getValue()[0];
+                if (witnessCosts[w] > viaCost) {
+                    shortcuts.add(new int[]{u, w, viaCost});
+                }
+            }
+        }
+        resetWitness();
+        return shortcuts;
+    }
+
+    /**
+     * Bounded dijkstra from a hub that ignores the hub being contracted.
+     *
+     * @param source   hub where the search starts
+     * @param ignored  hub being contracted
+     * @param maxCost  cost where the search stops
+     */
+    private void witnessSearch(int source, int ignored, int maxCost) {
+        resetWitness();
+        witnessCosts[source] = 0;
+        witnessTouched.add(source);
+        witnessHeap.insertOrDecrease(source, 0);
+
+        int settled = 0;
+        while (!witnessHeap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+            int u = witnessHeap.poll();
+            settled++;
+            if (witnessCosts[u] > maxCost) break;
+
+            for (Map.Entry<Integer, int[]> entry : remaining.get(u).entrySet()) {
+                int w = entry.getKey();
+                if (w == ignored) continue;
+
+                int pathCost = witnessCosts[u] + entry.getValue()[0];
+                if (pathCost < witnessCosts[w]) {
+                    if (witnessCosts[w] == INFINITY) witnessTouched.add(w);
+                    witnessCosts[w] = pathCost;
+                    witnessHeap.insertOrDecrease(w, pathCost);
+                }
+            }
+        }
+        witnessHeap.clear();
+    }
+
+    private void resetWitness() {
+        for (int v : witnessTouched) {
+            witnessCosts[v] = INFINITY;
+        }
+        witnessTouched.clear();
+    }
+
+    /**
+     * Adds a route between two uncontracted hubs, unless a shorter one already exists.
+     *
+     * @param u        a hub
+     * @param v        another hub
+     * @param distance distance of the route
+     * @param middle   hub skipped by the route, or -1 if it is a real route
+     */
+    private void addRoute(int u, int v, int distance, int middle) {
+        int[] current = remaining.get(u).get(v);
+        if (current == null || distance < current[0]) {
+            remaining.get(u).put(v, new int[]{distance, middle});
+            remaining.get(v).put(u, new int[]{distance, middle});
+        }
+    }
+
+    /**
+     * Inner class with the arrays of a query (forward and backward), pooled by the
+     * hierarchy so concurrent queries don't share them. Only the hubs reached are
+     * reset after each query.
+     */
+    private static final class Search {
+        private final int[][] costs;
+        private final int[][] predecessors;
+        private final IndexedMinHeap[] heaps;
+        private final int[] touched;
+        private int touchedSize;
+
+        private Search(int n) {
+            costs = new int[][]{new int[n], new int[n]};
+            predecessors = new int[][]{new int[n], new int[n]};
+            heaps = new IndexedMinHeap[]{new IndexedMinHeap(n), new IndexedMinHeap(n)};
+            touched = new int[2 * n];
+            for (int side = 0; side < 2; side++) {
+                Arrays.fill(costs[side], INFINITY);
+                Arrays.fill(predecessors[side], NULL_VALUES);
+            }
+        }
+
+        private void reach(int side, int v, int cost, int predecessor) {
+            if (costs[side][v] == INFINITY) touched[touchedSize++] = v;
+            costs[side][v] = cost;
+            predecessors[side][v] = predecessor;
+            heaps[side].insertOrDecrease(v, cost);
+        }
+
+        private void reset() {
+            for (int i = 0; i < touchedSize; i++) {
+                for (int side = 0; side < 2; side++) {
+                    costs[side][touched[i]] = INFINITY;
+                    predecessors[side][touched[i]] = NULL_VALUES;
+                }
+            }
+            touchedSize = 0;
+            heaps[0].clear();
+            heaps[1].clear();
+        }
+    }
+}
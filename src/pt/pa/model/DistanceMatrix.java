@@ -0,0 +1,152 @@
+package pt.pa.model;
+
+import java.util.List;
+
+/**
+ * Minimum costs and next hops between every pair of hubs of a snapshot, stored in flat arrays.
+ * <p>
+ * 'costs[i * n + j]' is the minimum cost between hubs 'i' and 'j' and 'nextHops[j * n + i]'
+ * is the hub after 'i' on a minimum-cost path to 'j' (each row of 'nextHops' is the
+ * shortest-path tree of one destination). Once computed, paths are table lookups.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+public final class DistanceMatrix {
+    /**
+     * Largest number of hubs of a matrix (two n x n int arrays).
+     */
+    public static final int MAX_HUBS = 4096;
+
+    private static final int NULL_VALUES = -1; // Magic Number Fix
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final LogisticsNetworkSnapshot snapshot;
+    private final int n;
+    private final int[] costs;
+    private final int[] nextHops;
+
+    /**
+     * Creates a matrix, filled by the snapshot.
+     *
+     * @param snapshot snapshot with the hubs of the matrix
+     * @param costs    minimum cost of each pair
+     * @param nextHops next hop of each pair
+     */
+    DistanceMatrix(LogisticsNetworkSnapshot snapshot, int[] costs, int[] nextHops) {
+        this.snapshot = snapshot;
+        this.n = snapshot.getNumberOfHubs();
+        this.costs = costs;
+        this.nextHops = nextHops;
+    }
+
+    /**
+     * Calculate the minimum-cost path between two hubs using their IDs.
+     *
+     * @param firstId  id of the first hub (origin)
+     * @param secondId id of the second hub (destination)
+     * @param path     List of hubs
+     * @return the minimum cost between two hubs, or -1 if there isn't a path
+     */
+    public int minimumCostPath(int firstId, int secondId, List<Hub> path) {
+        int origin = snapshot.indexOf(firstId);
+        int destination = snapshot.indexOf(secondId);
+
+        if (origin == NULL_VALUES || destination == NULL_VALUES || path == null) return NULL_VALUES;
+
+        return buildPath(origin, destination, path);
+    }
+
+    /**
+     * Calculates the longest minimum cost path between any two connected hubs.
+     *
+     * @param path Path to calculate
+     * @return longest minimum cost path, or -1 if there isn't one
+     */
+    public int longestMinCostPath(List<Hub> path) {
+        if (path == null) return NULL_VALUES;
+
+        int longest = 0;
+        int pair = NULL_VALUES;
+
+        for (int i = 0; i < costs.length; i++) {
+            if (costs[i] != INFINITY && costs[i] > longest) {
+                longest = costs[i];
+                pair = i;
+            }
+        }
+
+        if (pair == NULL_VALUES) return NULL_VALUES;
+
+        return buildPath(pair / n, pair % n, path);
+    }
+
+    /**
+     * Updates the matrix after a route is added between two hubs, in O(n²).
+     * A new minimum-cost path uses the new route at most once, so every pair only
+     * has to be compared with the paths through the route in both directions.
+     *
+     * @param firstId  id of a hub of the route
+     * @param secondId id of the other hub of the route
+     * @param distance distance of the route
+     * @throws LogisticsNetworkException if one of the hubs doesn't exist
+     */
+    void addRoute(int firstId, int secondId, int distance) throws LogisticsNetworkException {
+        int u = snapshot.indexOf(firstId);
+        int v = snapshot.indexOf(secondId);
+
+        if (u == NULL_VALUES || v == NULL_VALUES) {
+            throw new LogisticsNetworkException("The hubs of the route are not in the matrix");
+        }
+        if (u == v) return;
+
+        for (int i = 0; i < n; i++) {
+            int toU = costs[i * n + u];
+            int toV = costs[i * n + v];
+            if (toU == INFINITY && toV == INFINITY) continue;
+
+            for (int j = 0; j < n; j++) {
+                relax(i, j, toU, u, v, distance);
+                relax(i, j, toV, v, u, distance);
+            }
+        }
+    }
+
+    /**
+     * Replaces the path between 'i' and 'j' by the one through the route 'from' - 'to', if shorter.
+     */
+    private void relax(int i, int j, int toFrom, int from, int to, int distance) {
+        int fromTo = costs[to * n + j];
+        if (toFrom == INFINITY || fromTo == INFINITY) return;
+
+        long cost = (long) toFrom + distance + fromTo;
+        if (cost < costs[i * n + j]) {
+            costs[i * n + j] = (int) cost;
+            nextHops[j * n + i] = i == from ? to : nextHops[from * n + i];
+        }
+    }
+
+    /**
+     * Fills the path from origin to destination, following the next hops.
+     *
+     * @param origin      index of the origin hub
+     * @param destination index of the destination hub
+     * @param path        list of hubs to fill
+     * @return cost of the path, or -1 if the destination can't be reached
+     */
+    private int buildPath(int origin, int destination, List<Hub> path) {
+        path.clear();
+        if (costs[origin * n + destination] == INFINITY) return NULL_VALUES;
+
+        for (int v = origin; v != destination; v = nextHops[destination * n + v]) {
+            path.add(snapshot.getHub(v));
+        }
+        path.add(snapshot.getHub(destination));
+
+        return costs[origin * n + destination];
+    }
+}
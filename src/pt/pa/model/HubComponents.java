@@ -0,0 +1,140 @@
+package pt.pa.model;
+
+import pt.pa.graph.Edge;
+import pt.pa.graph.Graph;
+import pt.pa.graph.Vertex;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Connected components of a logistics network, kept in a disjoint-set forest
+ * (union by size and path compression), so counting the components and checking
+ * if two hubs are connected take almost constant time.
+ * <p>
+ * Routes can only be added: a removed route may split a component, and the
+ * forest has to be built again from the graph.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+final class HubComponents {
+    private static final int NULL_VALUES = -1; // Magic Number Fix
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<Integer, Integer> indexes;
+    private int[] parents;
+    private int[] sizes;
+    private int numberOfHubs;
+    private int count;
+
+    /**
+     * Creates the components of a network without hubs.
+     */
+    HubComponents() {
+        this.indexes = new HashMap<>();
+        this.parents = new int[INITIAL_CAPACITY];
+        this.sizes = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Builds the components of a graph, with one union per route.
+     *
+     * @param graph graph of the network
+     * @return components of the graph
+     */
+    static HubComponents of(Graph<Hub, Route> graph) {
+        HubComponents components = new HubComponents();
+
+        for (Vertex<Hub> vertex : graph.vertices()) {
+            components.addHub(vertex.element().getIdentifier());
+        }
+        for (Edge<Route, Hub> edge : graph.edges()) {
+            Vertex<Hub>[] hubs = edge.vertices();
+            components.addRoute(hubs[0].element().getIdentifier(), hubs[1].element().getIdentifier());
+        }
+        return components;
+    }
+
+    /**
+     * Adds a hub as a new component, if it isn't there yet.
+     *
+     * @param hubId id of the hub
+     */
+    void addHub(int hubId) {
+        if (indexes.containsKey(hubId)) return;
+
+        if (numberOfHubs == parents.length) {
+            parents = Arrays.copyOf(parents, 2 * numberOfHubs);
+            sizes = Arrays.copyOf(sizes, 2 * numberOfHubs);
+        }
+
+        parents[numberOfHubs] = numberOfHubs;
+        sizes[numberOfHubs] = 1;
+        indexes.put(hubId, numberOfHubs++);
+        count++;
+    }
+
+    /**
+     * Joins the components of the two hubs of a new route.
+     *
+     * @param firstId  id of a hub of the route
+     * @param secondId id of the other hub of the route
+     */
+    void addRoute(int firstId, int secondId) {
+        addHub(firstId);
+        addHub(secondId);
+
+        int first = find(indexes.get(firstId));
+        int second = find(indexes.get(secondId));
+        if (first == second) return;
+
+        if (sizes[first] < sizes[second]) {
+            int temp = first;
+            first = second;
+            second = temp;
+        }
+        parents[second] = first;
+        sizes[first] += sizes[second];
+        count--;
+    }
+
+    /**
+     * Get the number of components.
+     *
+     * @return number of components
+     */
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * Get the component of a hub, the same for every hub connected to it.
+     *
+     * @param hubId id of the hub
+     * @return component of the hub, or -1 if the hub doesn't exist
+     */
+    int componentOf(int hubId) {
+        Integer index = indexes.get(hubId);
+        return index == null ? NULL_VALUES : find(index);
+    }
+
+    /**
+     * Finds the root of the tree of a hub, halving the path on the way up.
+     *
+     * @param index index of the hub
+     * @return index of the root
+     */
+    private int find(int index) {
+        while (parents[index] != index) {
+            parents[index] = parents[parents[index]];
+            index = parents[index];
+        }
+        return index;
+    }
+}
@@ -0,0 +1,111 @@
+package pt.pa.model;
+
+import pt.pa.graph.Graph;
+import pt.pa.graph.Vertex;
+
+/**
+ * Index of the vertices of a logistics network by hub id, in an open-addressing
+ * hash table with linear probing over primitive int keys (no boxing per lookup).
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+final class HubIndex {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] keys;
+    private Vertex<Hub>[] values;
+    private int size;
+
+    /**
+     * Creates an empty index.
+     */
+    HubIndex() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Builds the index of every vertex of a graph.
+     *
+     * @param graph graph of the network
+     * @return index of the graph
+     */
+    static HubIndex of(Graph<Hub, Route> graph) {
+        HubIndex index = new HubIndex();
+        for (Vertex<Hub> vertex : graph.vertices()) {
+            index.put(vertex);
+        }
+        return index;
+    }
+
+    /**
+     * Get number of indexed vertices.
+     *
+     * @return number of vertices
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the vertex of a hub.
+     *
+     * @param hubId id of the hub
+     * @return vertex if exists, null otherwise
+     */
+    Vertex<Hub> get(int hubId) {
+        int mask = keys.length - 1;
+        for (int slot = hash(hubId) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == hubId) return values[slot];
+        }
+        return null;
+    }
+
+    /**
+     * Adds a vertex, replacing the one with the same hub id.
+     *
+     * @param vertex vertex to add
+     */
+    void put(Vertex<Hub> vertex) {
+        if (2 * (size + 1) > keys.length) {
+            resize();
+        }
+
+        int hubId = vertex.element().getIdentifier();
+        int mask = keys.length - 1;
+        int slot = hash(hubId) & mask;
+
+        while (values[slot] != null && keys[slot] != hubId) {
+            slot = (slot + 1) & mask;
+        }
+        if (values[slot] == null) size++;
+
+        keys[slot] = hubId;
+        values[slot] = vertex;
+    }
+
+    private void resize() {
+        Vertex<Hub>[] old = values;
+        allocate(2 * keys.length);
+        size = 0;
+
+        for (Vertex<Hub> vertex : old) {
+            if (vertex != null) put(vertex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = (Vertex<Hub>[]) new Vertex<?>[capacity];
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
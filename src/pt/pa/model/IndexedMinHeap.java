@@ -0,0 +1,127 @@
+package pt.pa.model;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary min-heap of dense int keys (0..capacity-1) ordered by an int priority.
+ * Supports decreasing the priority of a key that is already in the heap.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+final class IndexedMinHeap {
+    private static final int ABSENT = -1;
+
+    private final int[] heap;
+    private final int[] positions;
+    private final int[] priorities;
+    private int size;
+
+    /**
+     * Creates an empty heap.
+     *
+     * @param capacity number of possible keys
+     */
+    IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.priorities = new int[capacity];
+        Arrays.fill(positions, ABSENT);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int key) {
+        return positions[key] != ABSENT;
+    }
+
+    /**
+     * Inserts a key, or lowers its priority if it is already in the heap.
+     * A higher priority for a key in the heap is ignored.
+     *
+     * @param key      key to insert
+     * @param priority priority of the key
+     */
+    void insertOrDecrease(int key, int priority) {
+        if (positions[key] == ABSENT) {
+            heap[size] = key;
+            positions[key] = size;
+            priorities[key] = priority;
+            siftUp(size++);
+        } else if (priority < priorities[key]) {
+            priorities[key] = priority;
+            siftUp(positions[key]);
+        }
+    }
+
+    /**
+     * Get the lowest priority in the heap.
+     *
+     * @return lowest priority
+     */
+    int peekPriority() {
+        return priorities[heap[0]];
+    }
+
+    /**
+     * Removes the key with the lowest priority.
+     *
+     * @return key with the lowest priority
+     */
+    int poll() {
+        int min = heap[0];
+        positions[min] = ABSENT;
+        size--;
+
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Removes every key from the heap.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = ABSENT;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int pos) {
+        int key = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (priorities[heap[parent]] <= priorities[key]) break;
+            heap[pos] = heap[parent];
+            positions[heap[pos]] = pos;
+            pos = parent;
+        }
+        heap[pos] = key;
+        positions[key] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int key = heap[pos];
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            if (child + 1 < size && priorities[heap[child + 1]] < priorities[heap[child]]) child++;
+            if (priorities[key] <= priorities[heap[child]]) break;
+            heap[pos] = heap[child];
+            positions[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = key;
+        positions[key] = pos;
+    }
+}
@@ -3,17 +3,41 @@ package pt.pa.model;
 import pt.pa.graph.*;
 import pt.pa.observerpattern.Subject;
 import pt.pa.utils.DataSetManipulation;
+import pt.pa.utils.GraphBinaryManipulation;
 import pt.pa.utils.GraphExportManipulation;
+import pt.pa.utils.WriteAheadLog;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.DoubleConsumer;
 
 /**
  * This class represents the 'Model' component in the MVC pattern.
  * It is essentially the back-end of the application.
  * <p>
+ * The network can be shared by several threads. The queries run in parallel
+ * over an immutable snapshot, that is read optimistically (without locking) when
+ * it is up to date, while the mutations ({@link #addRoute}, {@link #removeRoute},
+ * {@link #applyBatch} and the loads) take an exclusive write lock. The observers
+ * are notified after the lock is released. Changes made directly to {@link #getGraph()} are not
+ * synchronized.
+ * <p>
+ * Once {@link #openLog} recovers the network, every added or removed route is
+ * appended to a write-ahead log and made durable before the observers are notified.
+ * The other changes (loads and restores) save a new snapshot, as does a log that
+ * reaches {@link #LOG_CHECKPOINT_RECORDS} records, so a recovery never replays more than those.
+ * <p>
  * Docente Orientador: Luís Damas
  * <p>
  * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
@@ -22,11 +46,36 @@ import java.util.*;
  * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
  */
 public class LogisticsNetwork extends Subject implements Serializable, Originator {
-    private Graph<Hub, Route> graph;
     private static final int NULL_VALUES = -1; // Magic Number Fix
+    public static final int LOG_CHECKPOINT_RECORDS = 10000;
+    //largest network whose distance matrix is computed after it is loaded (two 4 MB tables)
+    public static final int LOADED_MATRIX_MAX_HUBS = 1024;
+    private static final Executor EXPORT_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "logistics-network-export");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private PersistentGraph<Hub, Route> graph;
+    private transient StampedLock lock = new StampedLock();
+    //the caches are built lazily by the readers, under the read lock
+    private transient volatile LogisticsNetworkSnapshot snapshot;
+    private transient DistanceMatrix distances;
+    private transient int distancesVersion;
+    private transient int version;
+    private transient volatile HubComponents components;
+    private transient volatile HubIndex hubIndex;
+    private volatile PathAlgorithm pathAlgorithm;
+    //write-ahead log of the routes, and the snapshot it applies to
+    private transient volatile WriteAheadLog log;
+    private transient String snapshotFileName;
+    //size of the log at which a snapshot is saved, and the last failure to save it
+    private transient int checkpointAt = LOG_CHECKPOINT_RECORDS;
+    private transient volatile IOException checkpointFailure;
 
     public LogisticsNetwork() {
-        this.graph = new GraphAdjacencyList();
+        this.graph = new PersistentGraph<>();
+        this.pathAlgorithm = PathAlgorithm.A_STAR;
     }
 
     /**
@@ -39,223 +88,231 @@ public class LogisticsNetwork extends Subject implements Serializable, Originato
     }
 
     /**
-     * Calculate the minimum-cost path between two vertices using their IDs.
+     * Get the algorithm used by the minimum-cost path.
      *
-     * @param firstId  id of the first vertex (origin)
-     * @param secondId id of the second vertex (destination)
-     * @param path     List of hubs
-     * @return the minimum cost between two vertices
+     * @return algorithm of the minimum-cost path
      */
-    public int minimumCostPath(int firstId, int secondId, List<Hub> path) {
-        try {
-            Vertex<Hub> vertexOrig = findLocal(firstId);
-            Vertex<Hub> vertexDestination = findLocal(secondId);
-
-            if (vertexOrig == null || vertexDestination == null || path == null) return NULL_VALUES;
-
-            Map<Vertex<Hub>, Integer> costs = new HashMap<>();
-            Map<Vertex<Hub>, Vertex<Hub>> predecessors = new HashMap<>();
-
-            dijkstra(vertexOrig, costs, predecessors);
-            path.clear();
-            boolean complete = true;
-            Vertex<Hub> actual = vertexDestination;
-
-            while (actual != vertexOrig) {
-                path.add(0, actual.element());
-                actual = predecessors.get(actual);
-                if (actual == null) {
-                    complete = false;
-                    break;
-                }
-            }
-            path.add(0, vertexOrig.element());
-            if (!complete) {
-                path.clear();
-                return -1;
-            }
+    public PathAlgorithm getPathAlgorithm() {
+        return pathAlgorithm;
+    }
 
-            return costs.get(vertexDestination).intValue();
+    /**
+     * Set the algorithm used by the minimum-cost path.
+     *
+     * @param pathAlgorithm algorithm of the minimum-cost path
+     */
+    public void setPathAlgorithm(PathAlgorithm pathAlgorithm) {
+        this.pathAlgorithm = pathAlgorithm;
+    }
 
-        } catch (LogisticsNetworkException e) {
-            throw new LogisticsNetworkException();
+    /**
+     * Creates an immutable snapshot of the network, where the read-only
+     * algorithms (paths, sub-graphs and centrality) run over flat arrays.
+     *
+     * @return snapshot of the network
+     */
+    public LogisticsNetworkSnapshot freeze() {
+        long stamp = lock.readLock();
+        try {
+            return LogisticsNetworkSnapshot.freeze(graph);
+        } finally {
+            lock.unlockRead(stamp);
         }
     }
 
     /**
-     * Calculates the longest minimum cost path between hubs.
+     * Returns the snapshot used by the path queries, freezing the graph again
+     * if it was changed since the last query. Must be called with the lock held.
      *
-     * @param path Path to calculate
-     * @return longest minimum cost path
+     * @return current snapshot of the network
      */
-    public int longestMinCostPath(List<Hub> path) {
-        Vertex<Hub> vertexOrigin = null;
-        Vertex<Hub> vertexDestiny = null;
-
-        Map<Vertex<Hub>, Integer> costs = new HashMap<>();
-        Map<Vertex<Hub>, Vertex<Hub>> predecessors = new HashMap<>();
-
-        int maxDistCost = 0;
-
-        for (Vertex<Hub> vHub : graph.vertices()) {
-            Vertex<Hub> vD = null;
-            vD = dfs(vHub);
-            dijkstra(vHub, costs, predecessors);
-
-            int distCost = 0;
+    private LogisticsNetworkSnapshot snapshot() {
+        LogisticsNetworkSnapshot current = snapshot;
+        if (current == null) {
+            //readers may freeze it at the same time, the snapshots are the same
+            current = LogisticsNetworkSnapshot.freeze(graph);
+            snapshot = current;
+        }
+        return current;
+    }
 
-            distCost += costs.get(vD).intValue();
-            if (distCost > maxDistCost) {
-                vertexDestiny = vD;
-                vertexOrigin = vHub;
-                maxDistCost = distCost;
-            }
+    /**
+     * Returns the current snapshot without locking if it is already built,
+     * otherwise builds it under the read lock.
+     *
+     * @return current snapshot of the network
+     */
+    private LogisticsNetworkSnapshot querySnapshot() {
+        long stamp = lock.tryOptimisticRead();
+        LogisticsNetworkSnapshot current = snapshot;
+        if (current != null && lock.validate(stamp)) {
+            return current;
         }
 
+        stamp = lock.readLock();
+        try {
+            return snapshot();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
 
-        if (vertexOrigin == null || vertexDestiny == null || path == null) return NULL_VALUES;
+    /**
+     * Computes the minimum cost between every pair of hubs, so the path queries
+     * become table lookups until a route is removed or the network is reloaded.
+     * Added routes update the matrix instead of discarding it.
+     *
+     * @throws LogisticsNetworkException if the network has more than {@link DistanceMatrix#MAX_HUBS} hubs
+     */
+    public void computeDistanceMatrix() throws LogisticsNetworkException {
+        LogisticsNetworkSnapshot current;
+        int computedVersion;
+        long stamp = lock.readLock();
+        try {
+            current = snapshot();
+            computedVersion = version;
+        } finally {
+            lock.unlockRead(stamp);
+        }
 
-        dijkstra(vertexOrigin, costs, predecessors);
-        path.clear();
-        boolean complete = true;
-        Vertex<Hub> actual = vertexDestiny;
+        //computed without the lock; discarded if the graph changed in the meantime
+        DistanceMatrix matrix = current.computeDistanceMatrix();
 
-        while (actual != vertexOrigin) {
-            path.add(0, actual.element());
-            actual = predecessors.get(actual);
-            if (actual == null) {
-                complete = false;
-                break;
+        stamp = lock.writeLock();
+        try {
+            if (version == computedVersion) {
+                distances = matrix;
+                distancesVersion = computedVersion;
             }
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        path.add(0, vertexOrigin.element());
-        if (!complete) {
-            path.clear();
-            return NULL_VALUES;
-        }
-
-        return costs.get(vertexDestiny).intValue();
     }
 
     /**
-     * Find a local vertex.
-     *
-     * @param localId localId to find
-     * @return Vertex if exists, null otherwise
+     * Computes the distance matrix in a background thread (the one of the exports) after
+     * the network is loaded, if it has at most {@link #LOADED_MATRIX_MAX_HUBS} hubs. Until
+     * it is ready, or after a route is removed, the queries search the snapshot instead.
+     * Must be called without the lock.
      */
-    public Vertex<Hub> findLocal(int localId) {
-        if (localId < 0) return null;
-        for (Vertex<Hub> v : graph.vertices()) {
-            if (v.element().getIdentifier() == localId) { //equals was overriden in Hub!!
-                return v;
+    private void computeDistanceMatrixLater() {
+        int hubs = getNumberOfHubs();
+        if (hubs < 2 || hubs > LOADED_MATRIX_MAX_HUBS) return;
+
+        EXPORT_EXECUTOR.execute(() -> {
+            try {
+                computeDistanceMatrix();
+            } catch (LogisticsNetworkException e) {
+                //hubs were added in the meantime; the queries keep searching the snapshot
             }
-        }
-        return null;
+        });
     }
 
     /**
-     * Finds the furthest vertex from an certain vertex.
+     * Returns the distance matrix if it was computed for the current version of the graph.
+     * Must be called with the lock held, since the matrix is updated when routes are added.
      *
-     * @param root first vertex
-     * @return the furthest vertex from root
+     * @return distance matrix, or null if there isn't an up-to-date one
      */
-    private Vertex<Hub> dfs(Vertex<Hub> root) {
-        List<Vertex<Hub>> visited = new ArrayList<>();
-        Stack<Vertex<Hub>> stack = new Stack<>();
-
-        Vertex<Hub> furthest = null;
-
-        visited.add(root);
-        stack.push(root);
-
-        while (!stack.isEmpty()) {
-            Vertex<Hub> vHub = stack.pop();
-            furthest = vHub;
-            for (Edge<Route, Hub> edge : graph.incidentEdges(vHub)) {
-                Vertex<Hub> vHub2 = graph.opposite(vHub, edge);
-                if (!visited.contains(vHub2)) {
-                    visited.add(vHub2);
-                    stack.push(vHub2);
-                }
-            }
-        }
-        return furthest;
+    private DistanceMatrix distances() {
+        return distances != null && distancesVersion == version ? distances : null;
     }
 
     /**
-     * Applies the dijkstra algorithm.
+     * Returns the connected components of the network, building them again
+     * if a route was removed since the last query. Must be called with the lock held.
      *
-     * @param origin       origin vertex where the algorithm starts.
-     * @param costs        map with the cost of each vertex.
-     * @param predecessors map with the predecessors of each vertex
+     * @return connected components of the network
      */
-    private void dijkstra(Vertex<Hub> origin,
-                          Map<Vertex<Hub>, Integer> costs,
-                          Map<Vertex<Hub>, Vertex<Hub>> predecessors) {
-        costs.clear();
-        predecessors.clear();
-
-        List<Vertex<Hub>> unvisited = new ArrayList<>();
-
-        for (Vertex<Hub> v : graph.vertices()) {
-            if (graph.incidentEdges(v) != null) {
-                costs.put(v, Integer.MAX_VALUE);
-                predecessors.put(v, null);
-                unvisited.add(v);
-            }
+    private HubComponents components() {
+        HubComponents current = components;
+        if (current == null) {
+            current = HubComponents.of(graph);
+            components = current;
         }
-        costs.put(origin, 0);
+        return current;
+    }
 
-        while (!unvisited.isEmpty()) {
-            Vertex<Hub> lowerCostVertex = findLowerCostVertex(unvisited, costs);
-            if (lowerCostVertex == null) {
-                break;
-            } else {
-                unvisited.remove(lowerCostVertex);
+    /**
+     * Marks the graph as changed, so the snapshot and the distance matrix are no longer used.
+     */
+    private void graphChanged() {
+        version++;
+        snapshot = null;
+    }
 
-                for (Edge<Route, Hub> incidentEdges : graph.incidentEdges(lowerCostVertex)) {
-                    Vertex<Hub> opposite = graph.opposite(lowerCostVertex, incidentEdges);
+    /**
+     * Calculate the minimum-cost path between two vertices using their IDs,
+     * with the distance matrix if it is up to date, otherwise with the current
+     * path algorithm (A* by default).
+     *
+     * @param firstId  id of the first vertex (origin)
+     * @param secondId id of the second vertex (destination)
+     * @param path     List of hubs
+     * @return the minimum cost between two vertices
+     */
+    public int minimumCostPath(int firstId, int secondId, List<Hub> path) {
+        long stamp = lock.tryOptimisticRead();
+        LogisticsNetworkSnapshot current = snapshot;
+        boolean withMatrix = distances() != null;
+        if (current != null && !withMatrix && lock.validate(stamp)) {
+            return current.minimumCostPath(firstId, secondId, path, pathAlgorithm);
+        }
 
-                    if (unvisited.contains(opposite)) {
-                        int pathCost = costs.get(lowerCostVertex) + incidentEdges.element().getDistance();
-                        if (pathCost < costs.get(opposite)) {
-                            costs.put(opposite, pathCost);
-                            predecessors.put(opposite, lowerCostVertex);
-                        }
-                    }
-                }
+        stamp = lock.readLock();
+        try {
+            DistanceMatrix matrix = distances();
+            if (matrix != null) {
+                return matrix.minimumCostPath(firstId, secondId, path);
             }
+            current = snapshot();
+        } finally {
+            lock.unlockRead(stamp);
         }
+        return current.minimumCostPath(firstId, secondId, path, pathAlgorithm);
     }
 
-    //private void DFS(Graph<>)
-
     /**
-     * Find the lower cost vertex from a list of unvisited vertices and its costs.
+     * Calculates the longest minimum cost path between hubs. It needs the cost
+     * between every pair of hubs, so it uses the distance matrix if an up-to-date one
+     * was computed (see {@link #computeDistanceMatrix()}), otherwise the search from
+     * each hub is spread over the threads of a fork-join pool.
      *
-     * @param unvisited List of unvisited vertices.
-     * @param costs     Of each vertex.
-     * @return vertex with the lower cost.
+     * @param path Path to calculate
+     * @return longest minimum cost path
      */
-    private Vertex<Hub> findLowerCostVertex(List<Vertex<Hub>> unvisited,
-                                            Map<Vertex<Hub>, Integer> costs) {
-
-        int minimum = Integer.MAX_VALUE;
-        Vertex<Hub> lowerCostVertex = null;
-
-        for (Vertex<Hub> v : unvisited) {
-            int cost = costs.get(v);
-            if (cost < minimum) {
-                minimum = cost;
-                lowerCostVertex = v;
+    public int longestMinCostPath(List<Hub> path) {
+        LogisticsNetworkSnapshot current;
+        long stamp = lock.readLock();
+        try {
+            DistanceMatrix matrix = distances();
+            if (matrix != null) {
+                return matrix.longestMinCostPath(path);
             }
+            current = snapshot();
+        } finally {
+            lock.unlockRead(stamp);
         }
+        return current.longestMinCostPath(path);
+    }
 
-        return lowerCostVertex;
+    /**
+     * Find a local vertex.
+     *
+     * @param localId localId to find
+     * @return Vertex if exists, null otherwise
+     */
+    public Vertex<Hub> findLocal(int localId) {
+        if (localId < 0) return null;
 
+        long stamp = lock.readLock();
+        try {
+            return findHub(localId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
-
     /**
      * Returns the vertex related to a hub.
      *
@@ -263,10 +320,9 @@ public class LogisticsNetwork extends Subject implements Serializable, Originato
      * @return vertex if exists
      */
     public Vertex<Hub> returnVertex(Hub hub) {
-        for (Vertex<Hub> v : this.graph.vertices()) {
-            if (v.element().getIdentifier() == hub.getIdentifier() && v.element().getCity().equals(hub.getCity())) {
-                return v;
-            }
+        Vertex<Hub> v = findLocal(hub.getIdentifier());
+        if (v != null && v.element().getCity().equals(hub.getCity())) {
+            return v;
         }
         return null;
     }
@@ -282,15 +338,30 @@ public class LogisticsNetwork extends Subject implements Serializable, Originato
             throw new LogisticsNetworkException("The graph is empty!");
         }
 
+        long stamp = lock.writeLock();
         try {
-            DataSetManipulation dataSetManipulation = new DataSetManipulation("sgb5");
-            dataSetManipulation.insertHubsFromDirectory(graph);
-            dataSetManipulation.insertRoutesFromDirectory(graph);
-            notifyObservers(null);
-        } catch (FileNotFoundException e) {
-            throw new LogisticsNetworkException();
+            PersistentGraph.Version<Hub, Route> before = this.graph.version();
+            try {
+                DataSetManipulation dataSetManipulation = new DataSetManipulation("sgb5");
+                dataSetManipulation.insertHubsFromDirectory(graph);
+                dataSetManipulation.insertRoutesFromDirectory(graph);
+                saveCheckpoint();
+            } catch (IOException | NumberFormatException | InvalidVertexException | InvalidEdgeException e) {
+                //nothing of a failed load is kept, so it matches the snapshot and can be tried again
+                this.graph.restore(before);
+                throw new LogisticsNetworkException("The data could not be loaded: " + e.getMessage());
+            } finally {
+                graphChanged();
+                components = null;
+                hubIndex = null;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
         }
 
+        notifyObservers(null);
+        computeDistanceMatrixLater();
+
     }
 
     /**
@@ -305,17 +376,121 @@ public class LogisticsNetwork extends Subject implements Serializable, Originato
         }
 
         try {
-            GraphExportManipulation graphExportManipulation = new GraphExportManipulation("dataset", graph);
-            graphExportManipulation.setFileName();
-            graphExportManipulation.setFileRoutes();
-            graphExportManipulation.setFileWeight();
-            graphExportManipulation.setFileCoords();
+            GraphExportManipulation graphExportManipulation = copyForExport(graph);
+            graphExportManipulation.exportAll(progress -> {
+            });
             notifyObservers(null);
         } catch (IOException e) {
             throw new LogisticsNetworkException();
         }
     }
 
+    /**
+     * Makes a data export to a new folder in a background thread. The graph is
+     * copied before returning, so it can be changed while the files are written.
+     *
+     * @param graph    Graph
+     * @param progress receives the fraction (0 to 1) of the export that is done, in the export thread
+     * @return future completed when the export ends, or completed exceptionally with a
+     * LogisticsNetworkException if it fails
+     * @throws LogisticsNetworkException if the graph is null
+     */
+    public CompletableFuture<Void> globalDataExportAsync(Graph<Hub, Route> graph, DoubleConsumer progress)
+            throws LogisticsNetworkException {
+        if (graph == null) {
+            throw new LogisticsNetworkException("The graph is empty!");
+        }
+
+        GraphExportManipulation graphExportManipulation = copyForExport(graph);
+
+        return CompletableFuture.runAsync(() -> {
+            try {
+                graphExportManipulation.exportAll(progress);
+            } catch (IOException e) {
+                throw new CompletionException(new LogisticsNetworkException(e.getMessage()));
+            }
+        }, EXPORT_EXECUTOR);
+    }
+
+    /**
+     * Copies the graph to export under the read lock, so the files are written
+     * without holding it.
+     *
+     * @param graph Graph
+     * @return export of the copied graph
+     */
+    private GraphExportManipulation copyForExport(Graph<Hub, Route> graph) {
+        long stamp = lock.readLock();
+        try {
+            return new GraphExportManipulation("dataset", graph);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Loads a network saved in a binary file, without parsing any text.
+     *
+     * @param graph    Graph to load
+     * @param fileName path of the binary file
+     * @throws LogisticsNetworkException if the loading goes wrong
+     */
+    public void globalBinaryLoad(Graph<Hub, Route> graph, String fileName) throws LogisticsNetworkException {
+        if (graph == null) {
+            throw new LogisticsNetworkException("The graph is empty!");
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            PersistentGraph.Version<Hub, Route> before = this.graph.version();
+            try {
+                GraphBinaryManipulation binary = new GraphBinaryManipulation(fileName);
+                //the snapshot is replaced by the checkpoint, so it can't stay mapped
+                if (log != null && Paths.get(fileName).toAbsolutePath().normalize()
+                        .equals(Paths.get(snapshotFileName).toAbsolutePath().normalize())) {
+                    binary.loadCopy(graph);
+                } else {
+                    binary.load(graph);
+                }
+                saveCheckpoint();
+            } catch (IOException e) {
+                this.graph.restore(before);
+                throw new LogisticsNetworkException(e.getMessage());
+            } finally {
+                graphChanged();
+                components = null;
+                hubIndex = null;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+        notifyObservers(null);
+        computeDistanceMatrixLater();
+    }
+
+    /**
+     * Saves the network in a binary file, that globalBinaryLoad opens without parsing any text.
+     *
+     * @param graph    Graph
+     * @param fileName path of the binary file
+     * @throws LogisticsNetworkException if the saving fails
+     */
+    public void globalBinaryExport(Graph<Hub, Route> graph, String fileName) throws LogisticsNetworkException {
+        if (graph == null) {
+            throw new LogisticsNetworkException("The graph is empty!");
+        }
+
+        long stamp = lock.readLock();
+        try {
+            new GraphBinaryManipulation(fileName).save(graph);
+        } catch (IOException e) {
+            throw new LogisticsNetworkException(e.getMessage());
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
     /**
      * Get number of hubs.
      *
@@ -323,7 +498,18 @@ public class LogisticsNetwork extends Subject implements Serializable, Originato
      * @throws LogisticsNetworkException if an error occurs
      */
     public int getNumberOfHubs() throws LogisticsNetworkException {
-        return graph.numVertices();
+        long stamp = lock.tryOptimisticRead();
+        int hubs = graph.numVertices();
+        if (lock.validate(stamp)) {
+            return hubs;
+        }
+
+        stamp = lock.readLock();
+        try {
+            return graph.numVertices();
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
     /**
@@ -333,7 +519,19 @@ public class LogisticsNetwork extends Subject implements Serializable, Originato
      * @throws LogisticsNetworkException if an error occurs
      */
     public int getNumberOfRoutes() throws LogisticsNetworkException {
-        return graph.numEdges();
+        //counting the edges goes through the graph, so only the snapshot is read optimistically
+        long stamp = lock.tryOptimisticRead();
+        LogisticsNetworkSnapshot current = snapshot;
+        if (current != null && lock.validate(stamp)) {
+            return current.getNumberOfRoutes();
+        }
+
+        stamp = lock.readLock();
+        try {
+            return graph.numEdges();
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
     /**
@@ -345,6 +543,9 @@ public class LogisticsNetwork extends Subject implements Serializable, Originato
      * @throws LogisticsNetworkException if one of the hubs is null
      */
     public void addRoute(String distance, int idHub1, int idHub2) throws LogisticsNetworkException {
+        Edge<Route, Hub> edge;
+        long logged;
+        long stamp = lock.writeLock();
         try {
             Vertex<Hub> h1 = findHub(idHub1);
             Vertex<Hub> h2 = findHub(idHub2);
@@ -357,12 +558,30 @@ public class LogisticsNetwork extends Subject implements Serializable, Originato
 
             Route route = new Route(Integer.parseInt(distance));
 
-            graph.insertEdge(h1, h2, route);
+            edge = graph.insertEdge(h1, h2, route);
 
-            notifyObservers(null);
+            DistanceMatrix matrix = distances();
+            graphChanged();
+            if (matrix != null) {
+                matrix.addRoute(idHub1, idHub2, route.getDistance());
+                distancesVersion = version;
+            }
+            if (components != null) {
+                components.addRoute(idHub1, idHub2);
+            }
+            logged = logRoutes(Collections.singletonList(
+                    WriteAheadLog.Record.addRoute(idHub1, idHub2, route.getDistance())));
 
         } catch (InvalidVertexException e) {
             throw new LogisticsNetworkException();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+        try {
+            commitRoute(logged);
+        } finally {
+            notifyObservers(GraphChange.edgeInserted(edge));
         }
     }
 
@@ -374,6 +593,9 @@ public class LogisticsNetwork extends Subject implements Serializable, Originato
      * @throws LogisticsNetworkException if one of the hubs is null
      */
     public void removeRoute(int id1, int id2) throws LogisticsNetworkException {
+        Edge<Route, Hub> tempEdge;
+        long logged;
+        long stamp = lock.writeLock();
         try {
             Vertex<Hub> h1 = findHub(id1);
             Vertex<Hub> h2 = findHub(id2);
@@ -385,19 +607,341 @@ public class LogisticsNetwork extends Subject implements Serializable, Originato
                 throw new LogisticsNetworkException(" id " + id2 + " not exist");
             }
 
-            Edge<Route, Hub> tempEdge = null;
+            tempEdge = findRoute(h1, h2);
+            graph.removeEdge(tempEdge);
+            graphChanged();
+            components = null;
+            logged = logRoutes(Collections.singletonList(WriteAheadLog.Record.removeRoute(id1, id2)));
+
+        } catch (InvalidVertexException e) {
+            throw new LogisticsNetworkException();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+        try {
+            commitRoute(logged);
+        } finally {
+            notifyObservers(GraphChange.edgeRemoved(tempEdge));
+        }
+    }
+
+    /**
+     * Adds and removes the routes of a batch at once. The operations are
+     * validated together, so if one of them fails none is applied, and they are
+     * logged as a single batch. The observers are notified once, with the list
+     * of the changed routes (a route added and removed again isn't reported).
+     *
+     * @param batch routes to add and remove
+     * @throws LogisticsNetworkException if one of the operations fails (the network isn't changed)
+     */
+    public void applyBatch(RouteBatch batch) throws LogisticsNetworkException {
+        if (batch.isEmpty()) return;
+
+        List<RouteBatch.Operation> operations = batch.getOperations();
+        Map<Edge<Route, Hub>, GraphChange<Hub, Route>> changes = new LinkedHashMap<>();
+        List<WriteAheadLog.Record> records = new ArrayList<>(operations.size());
+        boolean removed = false;
+        long logged;
+
+        long stamp = lock.writeLock();
+        try {
+            PersistentGraph.Version<Hub, Route> before = graph.version();
+            RouteBatch.Operation current = null;
+            try {
+                for (RouteBatch.Operation operation : operations) {
+                    current = operation;
+                    Vertex<Hub> h1 = findHub(operation.idHub1);
+                    Vertex<Hub> h2 = findHub(operation.idHub2);
+                    if (h1 == null) {
+                        throw new LogisticsNetworkException(" id " + operation.idHub1 + " not exist");
+                    }
+                    if (h2 == null) {
+                        throw new LogisticsNetworkException(" id " + operation.idHub2 + " not exist");
+                    }
 
-            for (Edge<Route, Hub> edge : graph.incidentEdges(h1)) {
-                if (graph.opposite(h1, edge) == h2) {
-                    tempEdge = edge;
+                    if (operation.add) {
+                        Route route = new Route(Integer.parseInt(operation.distance));
+                        Edge<Route, Hub> edge = graph.insertEdge(h1, h2, route);
+                        changes.put(edge, GraphChange.edgeInserted(edge));
+                        records.add(WriteAheadLog.Record.addRoute(operation.idHub1, operation.idHub2,
+                                route.getDistance()));
+                    } else {
+                        Edge<Route, Hub> edge = findRoute(h1, h2);
+                        if (edge == null) {
+                            throw new LogisticsNetworkException("There is no route between the hubs.");
+                        }
+                        graph.removeEdge(edge);
+                        //a route added by the batch is not reported at all
+                        if (changes.remove(edge) == null) {
+                            changes.put(edge, GraphChange.edgeRemoved(edge));
+                        }
+                        records.add(WriteAheadLog.Record.removeRoute(operation.idHub1, operation.idHub2));
+                        removed = true;
+                    }
                 }
+            } catch (LogisticsNetworkException | NumberFormatException | InvalidVertexException |
+                     InvalidEdgeException e) {
+                graph.restore(before);
+                throw new LogisticsNetworkException("The batch wasn't applied (" + current + "): " + e.getMessage());
             }
-            graph.removeEdge(tempEdge);
 
-            notifyObservers(null);
+            DistanceMatrix matrix = distances();
+            if (matrix != null && operations.size() > graph.numVertices()) {
+                //each route updates the matrix in O(n²), so it's faster to compute it again
+                matrix = null;
+            }
+            graphChanged();
+            if (removed) {
+                components = null;
+            } else {
+                for (RouteBatch.Operation operation : operations) {
+                    int distance = Integer.parseInt(operation.distance);
+                    if (matrix != null) {
+                        matrix.addRoute(operation.idHub1, operation.idHub2, distance);
+                    }
+                    if (components != null) {
+                        components.addRoute(operation.idHub1, operation.idHub2);
+                    }
+                }
+                if (matrix != null) {
+                    distancesVersion = version;
+                }
+            }
+            logged = logRoutes(records);
 
-        } catch (InvalidVertexException e) {
-            throw new LogisticsNetworkException();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+        try {
+            commitRoute(logged);
+        } finally {
+            notifyObservers(Collections.unmodifiableList(new ArrayList<>(changes.values())));
+        }
+    }
+
+    /**
+     * Find the route between two hubs. Must be called with the lock held.
+     *
+     * @param h1 vertex of a hub
+     * @param h2 vertex of another hub
+     * @return route, or null if the hubs aren't adjacent
+     */
+    private Edge<Route, Hub> findRoute(Vertex<Hub> h1, Vertex<Hub> h2) {
+        Edge<Route, Hub> route = null;
+        for (Edge<Route, Hub> edge : graph.incidentEdges(h1)) {
+            if (graph.opposite(h1, edge) == h2) {
+                route = edge;
+            }
+        }
+        return route;
+    }
+
+    /**
+     * Recovers the network saved by a previous session: loads the snapshot and
+     * replays on top of it the routes of the write-ahead log. The following changes
+     * are logged. Since the recovered hubs get new identifiers, the network is saved
+     * in a new snapshot and the log starts empty.
+     *
+     * @param snapshotFileName path of the snapshot (a binary network), created if it doesn't exist
+     * @param logFileName      path of the write-ahead log, created if it doesn't exist
+     * @throws LogisticsNetworkException if the network isn't empty, or the files can't be read or written
+     */
+    public void openLog(String snapshotFileName, String logFileName) throws LogisticsNetworkException {
+        long stamp = lock.writeLock();
+        try {
+            if (log != null) {
+                throw new LogisticsNetworkException("The log is already open.");
+            }
+            if (graph.numVertices() > 0) {
+                throw new LogisticsNetworkException("Only an empty network can be recovered.");
+            }
+
+            PersistentGraph.Version<Hub, Route> empty = graph.version();
+            WriteAheadLog newLog = new WriteAheadLog(logFileName);
+            try {
+                Map<Integer, Vertex<Hub>> savedHubs = new HashMap<>();
+                if (Files.exists(Paths.get(snapshotFileName))) {
+                    savedHubs = new GraphBinaryManipulation(snapshotFileName).loadCopy(graph);
+                }
+                for (WriteAheadLog.Record record : newLog.open(WriteAheadLog.checksum(snapshotFileName))) {
+                    replay(record, savedHubs);
+                }
+
+                this.log = newLog;
+                this.snapshotFileName = snapshotFileName;
+                saveCheckpoint();
+            } catch (IOException | InvalidVertexException | InvalidEdgeException e) {
+                this.log = null;
+                graph.restore(empty);
+                try {
+                    newLog.close();
+                } catch (IOException closing) {
+                    e.addSuppressed(closing);
+                }
+                throw new LogisticsNetworkException("The network could not be recovered: " + e.getMessage());
+            } finally {
+                graphChanged();
+                components = null;
+                hubIndex = null;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+        notifyObservers(null);
+        computeDistanceMatrixLater();
+    }
+
+    /**
+     * Applies a route of the log to the graph. Must be called with the write lock held.
+     *
+     * @param record    logged route
+     * @param savedHubs vertices of the hubs, by the identifier they had when the snapshot was saved
+     * @throws IOException if the route doesn't apply to the snapshot
+     */
+    private void replay(WriteAheadLog.Record record, Map<Integer, Vertex<Hub>> savedHubs) throws IOException {
+        Vertex<Hub> h1 = savedHubs.get(record.getIdHub1());
+        Vertex<Hub> h2 = savedHubs.get(record.getIdHub2());
+        if (h1 == null || h2 == null) {
+            throw new IOException("the log has a route of an unknown hub (" + record + ")");
+        }
+
+        if (record.getType() == WriteAheadLog.Record.Type.ADD_ROUTE) {
+            graph.insertEdge(h1, h2, new Route(record.getDistance()));
+        } else {
+            Edge<Route, Hub> route = findRoute(h1, h2);
+            if (route == null) {
+                throw new IOException("the log removes a missing route (" + record + ")");
+            }
+            graph.removeEdge(route);
+        }
+    }
+
+    /**
+     * Saves the network in a new snapshot and empties the log.
+     *
+     * @throws LogisticsNetworkException if the log isn't open, or the files can't be written
+     */
+    public void checkpoint() throws LogisticsNetworkException {
+        long stamp = lock.writeLock();
+        try {
+            if (log == null) {
+                throw new LogisticsNetworkException("The log isn't open.");
+            }
+            saveCheckpoint();
+        } catch (IOException e) {
+            throw new LogisticsNetworkException(e.getMessage());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Saves the network in a new snapshot and empties the log, if it is open. The
+     * snapshot is written to a temporary file that then replaces the previous one, so
+     * a crash leaves either the old snapshot and its log or the new snapshot (the log
+     * is tied to the checksum of its snapshot). Must be called with the write lock held.
+     *
+     * @throws IOException if the files can't be written
+     */
+    private void saveCheckpoint() throws IOException {
+        if (log == null) return;
+
+        Path temporary = Paths.get(snapshotFileName + ".tmp");
+        new GraphBinaryManipulation(temporary.toString()).save(graph);
+        long base = WriteAheadLog.checksum(temporary.toString());
+
+        Files.move(temporary, Paths.get(snapshotFileName),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.reset(base);
+        checkpointAt = LOG_CHECKPOINT_RECORDS;
+    }
+
+    /**
+     * Appends the changed routes to the log, if it is open, and saves a new snapshot
+     * when the log is long. If the snapshot can't be saved, the failure is reported
+     * by {@link #commitRoute(long)} and it is only tried again after another
+     * {@link #LOG_CHECKPOINT_RECORDS} records. Must be called with the write lock held.
+     *
+     * @param records changed routes, recovered together
+     * @return sequence number to commit, or 0 if there is no log
+     */
+    private long logRoutes(List<WriteAheadLog.Record> records) {
+        if (log == null) return 0;
+
+        long sequence = log.append(records);
+        if (log.size() >= checkpointAt) {
+            try {
+                saveCheckpoint();
+            } catch (IOException e) {
+                //the routes are still committed to the log
+                checkpointAt = log.size() + LOG_CHECKPOINT_RECORDS;
+                checkpointFailure = e;
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Makes a logged route durable, grouped with the routes logged by other threads
+     * in the meantime. Called without the lock, so they can be logged.
+     *
+     * @param sequence sequence number of the route, or 0 if it wasn't logged
+     * @throws LogisticsNetworkException if the log can't be written (the route was changed anyway)
+     */
+    private void commitRoute(long sequence) throws LogisticsNetworkException {
+        WriteAheadLog current = log;
+        if (sequence == 0 || current == null) return;
+
+        try {
+            current.commit(sequence);
+        } catch (IOException e) {
+            throw new LogisticsNetworkException("The route was changed, but not saved in the log: " + e.getMessage());
+        }
+
+        IOException failure = takeCheckpointFailure();
+        if (failure != null) {
+            throw new LogisticsNetworkException("The route was saved in the log, but the snapshot could not be saved: "
+                    + failure.getMessage());
+        }
+    }
+
+    /**
+     * Returns the last failure to save a snapshot of a long log, so it is reported once.
+     *
+     * @return failure, or null if there wasn't one since the last report
+     */
+    private IOException takeCheckpointFailure() {
+        if (checkpointFailure == null) return null;
+
+        long stamp = lock.writeLock();
+        try {
+            IOException failure = checkpointFailure;
+            checkpointFailure = null;
+            return failure;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Closes the write-ahead log. The following changes are not logged.
+     *
+     * @throws LogisticsNetworkException if the log can't be closed
+     */
+    public void closeLog() throws LogisticsNetworkException {
+        long stamp = lock.writeLock();
+        try {
+            if (log != null) {
+                log.close();
+            }
+        } catch (IOException e) {
+            throw new LogisticsNetworkException(e.getMessage());
+        } finally {
+            log = null;
+            lock.unlockWrite(stamp);
         }
     }
 
@@ -409,52 +953,51 @@ public class LogisticsNetwork extends Subject implements Serializable, Originato
     public Collection<Hub> getHubs() {
         List<Hub> hubs = new ArrayList<>();
 
-        for (Vertex<Hub> v : graph.vertices()) {
-            hubs.add(v.element());
+        long stamp = lock.readLock();
+        try {
+            for (Vertex<Hub> v : graph.vertices()) {
+                hubs.add(v.element());
+            }
+        } finally {
+            lock.unlockRead(stamp);
         }
 
         return hubs;
     }
 
     /**
-     * Find a vertex(hub) based on an id.
+     * Find a vertex(hub) based on an id. Must be called with the lock held.
      *
      * @param id int
      * @return vertex(hub)
      */
     private Vertex<Hub> findHub(int id) {
-        for (Vertex<Hub> v : graph.vertices()) {
-            if (v.element().getIdentifier() == id) {
-                return v;
-            }
+        return hubIndex().get(id);
+    }
+
+    /**
+     * Returns the index of the vertices by hub id, building it again if hubs
+     * were loaded or restored, or inserted directly in the graph.
+     *
+     * @return index of the vertices
+     */
+    private HubIndex hubIndex() {
+        HubIndex current = hubIndex;
+        if (current == null || current.size() != graph.numVertices()) {
+            current = HubIndex.of(graph);
+            hubIndex = current;
         }
-        return null;
+        return current;
     }
 
     /**
-     * Get a map with the most central hubs by descending order.
+     * Get a map with the most central hubs by descending order, counted over the
+     * snapshot, so it runs in parallel with the other queries.
      *
      * @return map
      */
     private Map<Hub, Integer> getCentralizedHubsDesc() {
-
-        List<Hub> listHubs = (List<Hub>) getHubs();
-
-        Map<Hub, Integer> mapAux = new HashMap<>();
-
-        for (Hub hub : listHubs) {
-            Vertex<Hub> vertex;
-
-            vertex = findHub(hub.getIdentifier());
-
-            int count = 0;
-
-            for (Edge<Route, Hub> edge : this.graph.incidentEdges(vertex)) {
-                count++;
-            }
-            mapAux.put(hub, count);
-        }
-        return sortDescbyValue(mapAux);
+        return querySnapshot().getCentralizedHubsDesc();
     }
 
     /**
@@ -547,68 +1090,111 @@ public class LogisticsNetwork extends Subject implements Serializable, Originato
      * @return number of sub-graphs in the Graph
      */
     public int getSubGrapthCount() {
-        int counter = 0;
-        Stack<Vertex<Hub>> stack = new Stack<>();
-        List<Vertex<Hub>> visited = new ArrayList<>();
-
-        for (Vertex<Hub> vAux : graph.vertices()) {
-            visited.add(vAux);
-            stack.push(vAux);
-
-            while (!stack.isEmpty()) {
-                Vertex<Hub> v = stack.pop();
-                if (graph.incidentEdges(v).isEmpty())
-                    counter++;
-                for (Edge<Route, Hub> e : graph.incidentEdges(v)) {
-                    Vertex<Hub> w = graph.opposite(v, e);
-                    if (!visited.contains(w)) {
-                        counter++;
-                        visited.add(w);
-                        stack.push(w);
-                    }
-                }
-            }
+        long stamp = lock.readLock();
+        try {
+            return components().getCount();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Checks if there is a path between two hubs (if they are in the same sub-graph).
+     *
+     * @param idHub1 id of a hub
+     * @param idHub2 id of another hub
+     * @return true if both hubs exist and are connected, false otherwise
+     */
+    public boolean areConnected(int idHub1, int idHub2) {
+        long stamp = lock.readLock();
+        try {
+            HubComponents current = components();
+            int component = current.componentOf(idHub1);
+            return component != NULL_VALUES && component == current.componentOf(idHub2);
+        } finally {
+            lock.unlockRead(stamp);
         }
-        return counter;
     }
 
     /**
-     * Creates a memento (snapshot).
+     * Creates a memento (snapshot). It only keeps the current version of the
+     * graph, that is never changed, so it takes O(1) whatever the size of the network.
      *
      * @return memento
      */
     @Override
     public Memento createMemento() {
-        return new LogisticsNetworkMemento(this.graph.getVertices());
+        long stamp = lock.readLock();
+        try {
+            return new LogisticsNetworkMemento(this.graph.version());
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
     /**
-     * Sets a specific memento (snapshot).
+     * Sets a specific memento (snapshot) and notifies the observers.
      *
      * @param savedState savedState
      */
     @Override
     public void setMemento(Memento savedState) {
         if (savedState instanceof LogisticsNetworkMemento) {
+            IOException notSaved = null;
+
+            long stamp = lock.writeLock();
+            try {
+                graph.restore(((LogisticsNetworkMemento) savedState).state);
+                graphChanged();
+                components = null;
+                hubIndex = null;
+                saveCheckpoint();
+            } catch (IOException e) {
+                notSaved = e;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+
+            notifyObservers(null);
 
-            getGraph().getVertices().clear();
-            getGraph().getVertices().putAll(((LogisticsNetworkMemento) savedState).state);
+            if (notSaved != null) {
+                throw new LogisticsNetworkException("The network was restored, but not saved: " + notSaved.getMessage());
+            }
         }
     }
 
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        lock = new StampedLock();
+        checkpointAt = LOG_CHECKPOINT_RECORDS;
+    }
+
     /**
      * Inner class that implements Memento.
      */
     private class LogisticsNetworkMemento implements Memento {
-        private Map<Hub, Vertex<Hub>> state;
+        private final PersistentGraph.Version<Hub, Route> state;
 
-        public LogisticsNetworkMemento(Map<Hub, Vertex<Hub>> state) {
-            this.state = new HashMap<>(state);
+        public LogisticsNetworkMemento(PersistentGraph.Version<Hub, Route> state) {
+            this.state = state;
         }
 
         @Override
         public String getDescription() {
-            return state.toString();
+            return "Hubs: " + state.numVertices() + " Routes: " + state.numEdges();
+        }
+
+        /**
+         * Two mementos are equal if they saved the same version of the graph.
+         */
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof LogisticsNetworkMemento && ((LogisticsNetworkMemento) o).state == state;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(state);
         }
     }
 }
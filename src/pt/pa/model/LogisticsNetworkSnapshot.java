@@ -0,0 +1,540 @@
+package pt.pa.model;
+
+import pt.pa.graph.Edge;
+import pt.pa.graph.Graph;
+import pt.pa.graph.Vertex;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Immutable snapshot of a logistics network in compressed sparse row (CSR) format.
+ * <p>
+ * Hubs are given dense indexes (0..n-1, ordered by identifier) and the routes of
+ * hub 'i' are stored in 'targets' and 'weights' between 'offsets[i]' and 'offsets[i + 1]'.
+ * Every route appears once in each of its two hubs.
+ * <p>
+ * The hub coordinates are also kept, so point-to-point queries can use A*: the
+ * heuristic is the straight-line distance to the destination, scaled by the lowest
+ * ratio between a route's distance and the straight-line length of that route.
+ * No route is then shorter than the heuristic says, so it is admissible and consistent.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+public final class LogisticsNetworkSnapshot {
+    private static final int NULL_VALUES = -1; // Magic Number Fix
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final Hub[] hubs;
+    private final int[] identifiers;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int[] xs;
+    private final int[] ys;
+    private final double heuristicScale;
+    private ContractionHierarchy hierarchy;
+
+    private LogisticsNetworkSnapshot(Hub[] hubs, int[] offsets, int[] targets, int[] weights) {
+        this.hubs = hubs;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+
+        this.identifiers = new int[hubs.length];
+        this.xs = new int[hubs.length];
+        this.ys = new int[hubs.length];
+        for (int i = 0; i < hubs.length; i++) {
+            identifiers[i] = hubs[i].getIdentifier();
+            xs[i] = hubs[i].getCoordinates().getX();
+            ys[i] = hubs[i].getCoordinates().getY();
+        }
+
+        this.heuristicScale = calibrateHeuristic();
+    }
+
+    /**
+     * Freezes a graph into a new snapshot.
+     *
+     * @param graph graph to freeze
+     * @return snapshot of the graph
+     * @throws LogisticsNetworkException if the graph is null
+     */
+    public static LogisticsNetworkSnapshot freeze(Graph<Hub, Route> graph) throws LogisticsNetworkException {
+        if (graph == null) {
+            throw new LogisticsNetworkException("The graph is empty!");
+        }
+
+        List<Vertex<Hub>> vertices = new ArrayList<>(graph.vertices());
+        vertices.sort(Comparator.comparingInt(v -> v.element().getIdentifier()));
+
+        int n = vertices.size();
+        Hub[] hubs = new Hub[n];
+        Map<Vertex<Hub>, Integer> indexes = new HashMap<>();
+
+        for (int i = 0; i < n; i++) {
+            hubs[i] = vertices.get(i).element();
+            indexes.put(vertices.get(i), i);
+        }
+
+        int[] offsets = new int[n + 1];
+        List<Collection<Edge<Route, Hub>>> incident = new ArrayList<>(n);
+
+        for (int i = 0; i < n; i++) {
+            Collection<Edge<Route, Hub>> edges = graph.incidentEdges(vertices.get(i));
+            incident.add(edges);
+            offsets[i + 1] = offsets[i] + edges.size();
+        }
+
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+
+        for (int i = 0; i < n; i++) {
+            int pos = offsets[i];
+            for (Edge<Route, Hub> edge : incident.get(i)) {
+                targets[pos] = indexes.get(graph.opposite(vertices.get(i), edge));
+                weights[pos] = edge.element().getDistance();
+                pos++;
+            }
+        }
+
+        return new LogisticsNetworkSnapshot(hubs, offsets, targets, weights);
+    }
+
+    /**
+     * Get number of hubs.
+     *
+     * @return number of hubs
+     */
+    public int getNumberOfHubs() {
+        return hubs.length;
+    }
+
+    /**
+     * Get number of routes.
+     *
+     * @return number of routes
+     */
+    public int getNumberOfRoutes() {
+        int selfRoutes = 0;
+
+        for (int i = 0; i < hubs.length; i++) {
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                if (targets[k] == i) selfRoutes++;
+            }
+        }
+        return (targets.length + selfRoutes) / 2;
+    }
+
+    /**
+     * Get the hub stored at a dense index.
+     *
+     * @param index dense index of the hub
+     * @return hub
+     */
+    public Hub getHub(int index) {
+        return hubs[index];
+    }
+
+    /**
+     * Get the dense index of a hub.
+     *
+     * @param hubId identifier of the hub
+     * @return dense index, or -1 if the hub doesn't exist
+     */
+    public int indexOf(int hubId) {
+        int index = Arrays.binarySearch(identifiers, hubId);
+        return index < 0 ? NULL_VALUES : index;
+    }
+
+    /**
+     * Get the number of routes of a hub.
+     *
+     * @param index dense index of the hub
+     * @return number of adjacent hubs
+     */
+    public int degree(int index) {
+        return offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * Calculate the minimum-cost path between two hubs using their IDs.
+     *
+     * @param firstId  id of the first hub (origin)
+     * @param secondId id of the second hub (destination)
+     * @param path     List of hubs
+     * @return the minimum cost between two hubs, or -1 if there isn't a path
+     */
+    public int minimumCostPath(int firstId, int secondId, List<Hub> path) {
+        return minimumCostPath(firstId, secondId, path, PathAlgorithm.DIJKSTRA);
+    }
+
+    /**
+     * Calculate the minimum-cost path between two hubs using their IDs and a given algorithm.
+     *
+     * @param firstId   id of the first hub (origin)
+     * @param secondId  id of the second hub (destination)
+     * @param path      List of hubs
+     * @param algorithm algorithm of the search
+     * @return the minimum cost between two hubs, or -1 if there isn't a path
+     */
+    public int minimumCostPath(int firstId, int secondId, List<Hub> path, PathAlgorithm algorithm) {
+        int origin = indexOf(firstId);
+        int destination = indexOf(secondId);
+
+        if (origin == NULL_VALUES || destination == NULL_VALUES || path == null) return NULL_VALUES;
+
+        if (algorithm == PathAlgorithm.CONTRACTION_HIERARCHIES) {
+            return contractionHierarchy().minimumCostPath(origin, destination, path);
+        }
+
+        int[] costs = new int[hubs.length];
+        int[] predecessors = new int[hubs.length];
+
+        dijkstra(origin, destination, algorithm == PathAlgorithm.A_STAR, costs, predecessors);
+
+        return buildPath(origin, destination, costs, predecessors, path);
+    }
+
+    /**
+     * Returns the contraction hierarchies of the snapshot, building them on the first use.
+     *
+     * @return contraction hierarchies
+     */
+    private synchronized ContractionHierarchy contractionHierarchy() {
+        if (hierarchy == null) {
+            hierarchy = new ContractionHierarchy(hubs, offsets, targets, weights);
+        }
+        return hierarchy;
+    }
+
+    /**
+     * Calculates the longest minimum cost path between any two connected hubs.
+     *
+     * @param path Path to calculate
+     * @return longest minimum cost path, or -1 if there isn't one
+     */
+    public int longestMinCostPath(List<Hub> path) {
+        if (path == null) return NULL_VALUES;
+
+        int[] longest = ForkJoinPool.commonPool().invoke(new LongestPathTask(0, hubs.length));
+        int origin = longest[1];
+        int destination = longest[2];
+
+        if (origin == NULL_VALUES) return NULL_VALUES;
+
+        int[] costs = new int[hubs.length];
+        int[] predecessors = new int[hubs.length];
+
+        dijkstra(origin, destination, false, costs, predecessors);
+
+        return buildPath(origin, destination, costs, predecessors, path);
+    }
+
+    /**
+     * Finds the longest minimum cost from a range of origin hubs, one dijkstra per origin.
+     *
+     * @param from first origin hub
+     * @param to   last origin hub (exclusive)
+     * @return {cost, origin, destination} of the longest one, or {0, -1, -1}
+     */
+    private int[] longestFrom(int from, int to) {
+        int[] costs = new int[hubs.length];
+        int[] predecessors = new int[hubs.length];
+        IndexedMinHeap unvisited = new IndexedMinHeap(hubs.length);
+        int[] longest = {0, NULL_VALUES, NULL_VALUES};
+
+        for (int source = from; source < to; source++) {
+            dijkstra(source, NULL_VALUES, false, costs, predecessors, unvisited);
+
+            for (int target = 0; target < hubs.length; target++) {
+                if (costs[target] != INFINITY && costs[target] > longest[0]) {
+                    longest[0] = costs[target];
+                    longest[1] = source;
+                    longest[2] = target;
+                }
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Computes the minimum cost and next hop between every pair of hubs,
+     * with one dijkstra per origin hub split between the threads of a fork-join pool.
+     *
+     * @return distance matrix of the snapshot
+     * @throws LogisticsNetworkException if the snapshot has more than {@link DistanceMatrix#MAX_HUBS} hubs
+     */
+    public DistanceMatrix computeDistanceMatrix() throws LogisticsNetworkException {
+        if (hubs.length > DistanceMatrix.MAX_HUBS) {
+            throw new LogisticsNetworkException("Too many hubs for a distance matrix");
+        }
+
+        int[] costs = new int[hubs.length * hubs.length];
+        int[] nextHops = new int[hubs.length * hubs.length];
+
+        ForkJoinPool.commonPool().invoke(new DistanceMatrixTask(0, hubs.length, costs, nextHops));
+
+        return new DistanceMatrix(this, costs, nextHops);
+    }
+
+    /**
+     * Fills the rows of a range of origin hubs of the distance matrix.
+     * The predecessor of a hub in the search from 'source' is its next hop to 'source'.
+     *
+     * @param from     first origin hub
+     * @param to       last origin hub (exclusive)
+     * @param costs    costs of the matrix
+     * @param nextHops next hops of the matrix
+     */
+    private void distancesFrom(int from, int to, int[] costs, int[] nextHops) {
+        int[] sourceCosts = new int[hubs.length];
+        int[] predecessors = new int[hubs.length];
+        IndexedMinHeap unvisited = new IndexedMinHeap(hubs.length);
+
+        for (int source = from; source < to; source++) {
+            dijkstra(source, NULL_VALUES, false, sourceCosts, predecessors, unvisited);
+
+            System.arraycopy(sourceCosts, 0, costs, source * hubs.length, hubs.length);
+            System.arraycopy(predecessors, 0, nextHops, source * hubs.length, hubs.length);
+        }
+    }
+
+    /**
+     * Calculate the number of sub-graphs (connected components).
+     *
+     * @return number of sub-graphs
+     */
+    public int getSubGraphCount() {
+        boolean[] visited = new boolean[hubs.length];
+        int[] stack = new int[hubs.length];
+        int counter = 0;
+
+        for (int root = 0; root < hubs.length; root++) {
+            if (visited[root]) continue;
+
+            counter++;
+            int top = 0;
+            stack[top++] = root;
+            visited[root] = true;
+
+            while (top > 0) {
+                int v = stack[--top];
+                for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                    int w = targets[k];
+                    if (!visited[w]) {
+                        visited[w] = true;
+                        stack[top++] = w;
+                    }
+                }
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Get a map with the most central hubs (number of adjacent hubs) by descending order.
+     *
+     * @return map
+     */
+    public Map<Hub, Integer> getCentralizedHubsDesc() {
+        Integer[] order = new Integer[hubs.length];
+        for (int i = 0; i < hubs.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(degree(b), degree(a)));
+
+        Map<Hub, Integer> map = new LinkedHashMap<>();
+        for (int i : order) {
+            map.put(hubs[i], degree(i));
+        }
+        return map;
+    }
+
+    /**
+     * Applies the dijkstra algorithm over the flat arrays, using an indexed binary heap.
+     * The search stops as soon as the destination is settled.
+     * <p>
+     * With the heuristic, hubs are ordered by their cost plus the lower bound of the
+     * remaining distance to the destination (A*).
+     *
+     * @param origin       index of the hub where the algorithm starts
+     * @param destination  index of the hub where the algorithm may stop, or -1 to reach every hub
+     * @param heuristic    true to use the coordinates heuristic, requires a destination
+     * @param costs        cost of each hub (filled by this method)
+     * @param predecessors predecessor of each hub, or -1 (filled by this method)
+     */
+    private void dijkstra(int origin, int destination, boolean heuristic, int[] costs, int[] predecessors) {
+        dijkstra(origin, destination, heuristic, costs, predecessors, new IndexedMinHeap(hubs.length));
+    }
+
+    /**
+     * Applies the dijkstra algorithm, reusing a given heap.
+     * Settled hubs are never relaxed again, as no route has a negative distance.
+     *
+     * @param origin       index of the hub where the algorithm starts
+     * @param destination  index of the hub where the algorithm may stop, or -1 to reach every hub
+     * @param heuristic    true to use the coordinates heuristic, requires a destination
+     * @param costs        cost of each hub (filled by this method)
+     * @param predecessors predecessor of each hub, or -1 (filled by this method)
+     * @param unvisited    heap of the search
+     */
+    private void dijkstra(int origin, int destination, boolean heuristic, int[] costs, int[] predecessors,
+                          IndexedMinHeap unvisited) {
+        heuristic = heuristic && destination != NULL_VALUES;
+        unvisited.clear();
+
+        Arrays.fill(costs, INFINITY);
+        Arrays.fill(predecessors, NULL_VALUES);
+        costs[origin] = 0;
+        unvisited.insertOrDecrease(origin, heuristic ? lowerBound(origin, destination) : 0);
+
+        while (!unvisited.isEmpty()) {
+            int lowerCost = unvisited.poll();
+
+            if (lowerCost == destination) break;
+
+            for (int k = offsets[lowerCost]; k < offsets[lowerCost + 1]; k++) {
+                int opposite = targets[k];
+                int pathCost = costs[lowerCost] + weights[k];
+                if (pathCost < costs[opposite]) {
+                    costs[opposite] = pathCost;
+                    predecessors[opposite] = lowerCost;
+                    unvisited.insertOrDecrease(opposite, heuristic ? pathCost + lowerBound(opposite, destination) : pathCost);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lower bound of the distance between two hubs, from their coordinates.
+     *
+     * @param from index of a hub
+     * @param to   index of another hub
+     * @return distance that no path between the two hubs is shorter than
+     */
+    private int lowerBound(int from, int to) {
+        return (int) Math.floor(heuristicScale * Math.hypot(xs[from] - xs[to], ys[from] - ys[to]));
+    }
+
+    /**
+     * Finds the lowest ratio between the distance of a route and the straight-line
+     * length between its hubs, so the scaled straight-line distance never overestimates.
+     *
+     * @return scale of the heuristic, 0 if the coordinates don't give any bound
+     */
+    private double calibrateHeuristic() {
+        double scale = Double.MAX_VALUE;
+
+        for (int i = 0; i < hubs.length; i++) {
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                double length = Math.hypot(xs[i] - xs[targets[k]], ys[i] - ys[targets[k]]);
+                if (length > 0) {
+                    scale = Math.min(scale, weights[k] / length);
+                }
+            }
+        }
+
+        //slightly lower, so rounding errors can't make it overestimate
+        return scale == Double.MAX_VALUE ? 0 : scale * (1 - 1e-9);
+    }
+
+    /**
+     * Fills the path from origin to destination, following the predecessors.
+     *
+     * @param origin       index of the origin hub
+     * @param destination  index of the destination hub
+     * @param costs        cost of each hub
+     * @param predecessors predecessor of each hub
+     * @param path         list of hubs to fill
+     * @return cost of the path, or -1 if the destination can't be reached
+     */
+    private int buildPath(int origin, int destination, int[] costs, int[] predecessors, List<Hub> path) {
+        path.clear();
+        if (costs[destination] == INFINITY) return NULL_VALUES;
+
+        int length = 1;
+        for (int v = destination; v != origin; v = predecessors[v]) {
+            length++;
+        }
+
+        Hub[] ordered = new Hub[length];
+        for (int v = destination, i = length - 1; i >= 0; v = predecessors[v], i--) {
+            ordered[i] = hubs[v];
+        }
+        path.addAll(Arrays.asList(ordered));
+
+        return costs[destination];
+    }
+
+    /**
+     * Inner class that splits the origin hubs of the longest minimum cost path
+     * between the threads of a fork-join pool.
+     */
+    @SuppressWarnings("serial")
+    private final class LongestPathTask extends RecursiveTask<int[]> {
+        private final int from;
+        private final int to;
+
+        private LongestPathTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            int threshold = Math.max(1, hubs.length / (4 * ForkJoinPool.getCommonPoolParallelism()));
+            if (to - from <= threshold) {
+                return longestFrom(from, to);
+            }
+
+            int middle = (from + to) >>> 1;
+            LongestPathTask left = new LongestPathTask(from, middle);
+            left.fork();
+            int[] right = new LongestPathTask(middle, to).compute();
+            int[] leftLongest = left.join();
+
+            // on a tie keep the left one, the same result as a sequential search
+            return right[0] > leftLongest[0] ? right : leftLongest;
+        }
+    }
+
+    /**
+     * Inner class that splits the origin hubs of the distance matrix
+     * between the threads of a fork-join pool. Each origin fills its own rows.
+     */
+    @SuppressWarnings("serial")
+    private final class DistanceMatrixTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int[] costs;
+        private final int[] nextHops;
+
+        private DistanceMatrixTask(int from, int to, int[] costs, int[] nextHops) {
+            this.from = from;
+            this.to = to;
+            this.costs = costs;
+            this.nextHops = nextHops;
+        }
+
+        @Override
+        protected void compute() {
+            int threshold = Math.max(1, hubs.length / (4 * ForkJoinPool.getCommonPoolParallelism()));
+            if (to - from <= threshold) {
+                distancesFrom(from, to, costs, nextHops);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new DistanceMatrixTask(from, middle, costs, nextHops),
+                    new DistanceMatrixTask(middle, to, costs, nextHops));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package pt.pa.model;
+
+/**
+ * Algorithms available to calculate the minimum-cost path between two hubs.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+public enum PathAlgorithm {
+    /**
+     * Dijkstra's algorithm.
+     */
+    DIJKSTRA,
+    /**
+     * A* search, using the hub coordinates as the heuristic.
+     */
+    A_STAR,
+    /**
+     * Bidirectional search over contraction hierarchies, built once per snapshot.
+     */
+    CONTRACTION_HIERARCHIES
+}
@@ -0,0 +1,84 @@
+package pt.pa.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Routes to add to and remove from a network at once, with
+ * {@link LogisticsNetwork#applyBatch(RouteBatch)}.
+ * <p>
+ * The operations are applied in the order they were added, and they are
+ * validated together: if one of them fails, none is applied. The observers are
+ * notified once, with the list of the changed routes.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+public class RouteBatch {
+    private final List<Operation> operations = new ArrayList<>();
+
+    /**
+     * Adds a route between two hubs, like {@link LogisticsNetwork#addRoute}.
+     *
+     * @param distance String
+     * @param idHub1   int
+     * @param idHub2   int
+     * @return this batch
+     */
+    public RouteBatch addRoute(String distance, int idHub1, int idHub2) {
+        operations.add(new Operation(true, distance, idHub1, idHub2));
+        return this;
+    }
+
+    /**
+     * Removes the route between two hubs, like {@link LogisticsNetwork#removeRoute}.
+     *
+     * @param idHub1 int
+     * @param idHub2 int
+     * @return this batch
+     */
+    public RouteBatch removeRoute(int idHub1, int idHub2) {
+        operations.add(new Operation(false, null, idHub1, idHub2));
+        return this;
+    }
+
+    public int size() {
+        return operations.size();
+    }
+
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    List<Operation> getOperations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    /**
+     * Route added or removed.
+     */
+    static final class Operation {
+        final boolean add;
+        final String distance;
+        final int idHub1;
+        final int idHub2;
+
+        private Operation(boolean add, String distance, int idHub1, int idHub2) {
+            this.add = add;
+            this.distance = distance;
+            this.idHub1 = idHub1;
+            this.idHub2 = idHub2;
+        }
+
+        @Override
+        public String toString() {
+            return (add ? "add route " + idHub1 + "-" + idHub2 + " (" + distance + ")"
+                    : "remove route " + idHub1 + "-" + idHub2);
+        }
+    }
+}
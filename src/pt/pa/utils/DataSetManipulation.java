@@ -8,6 +8,11 @@ import pt.pa.model.Route;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
@@ -30,15 +35,28 @@ public class DataSetManipulation {
      * para a implementação de rotas, criar um mapa (Inteiro, Inteiro) que associa a linha e coluna que estão ligadas (para evitar rotas iguais)
      *
      */
+    private static final int NULL_VALUES = -1; // Magic Number Fix
+    private static final int EDGE_VALUES = 3;
+
     private List<String> dataSetFileList;
-    private String directory;
+    private Path folder;
+    private List<String> cityNames;
+    private List<Vertex<Hub>> insertedHubs;
 
     public DataSetManipulation(String directory) {
+        this(Paths.get("dataset", directory));
+    }
+
+    /**
+     * Opens a dataset outside the 'dataset' folder (e.g., an exported copy).
+     *
+     * @param folder folder with the files of the dataset
+     */
+    public DataSetManipulation(Path folder) {
         this.dataSetFileList = new ArrayList<>();
-        this.directory = directory;
+        this.folder = folder;
 
-        File folder = new File("dataset/" + directory + "/");
-        File[] listOfFiles = folder.listFiles();
+        File[] listOfFiles = folder.toFile().listFiles();
 
         for (int i = 0; i < listOfFiles.length; i++) {
             if (listOfFiles[i].isFile()) {
@@ -47,139 +65,173 @@ public class DataSetManipulation {
         }
     }
 
-    public int getNumberOfHubs() throws FileNotFoundException {
-        int lineCount = 0;
-        String fileName = getFileNameFromList("name.txt");
-        File countLines = new File("dataset/" + directory + "/" + fileName);
-        Scanner myReader = new Scanner(countLines);
-        while (myReader.hasNextLine()) {
-            myReader.nextLine();
-            lineCount++;
-        }
-        myReader.close();
-        return lineCount;
+    /**
+     * Get the number of hubs (lines of name.txt). The file is only read once.
+     *
+     * @return number of hubs
+     * @throws IOException if name.txt can't be read
+     */
+    public int getNumberOfHubs() throws IOException {
+        return getCityNames().size();
     }
 
-    public void insertHubsFromDirectory(Graph<Hub, Route> graph) throws FileNotFoundException, NumberFormatException {
-
-        int numberOfHubs = getNumberOfHubs();
+    /**
+     * Inserts the hubs of the dataset, line 'i' of name.txt, weight.txt and xy.txt
+     * being the hub 'i'. Each file is read once.
+     *
+     * @param graph graph where the hubs are inserted
+     * @throws IOException           if a file can't be read
+     * @throws NumberFormatException if weight.txt or xy.txt have invalid lines
+     */
+    public void insertHubsFromDirectory(Graph<Hub, Route> graph) throws IOException, NumberFormatException {
+        List<String> cityName = getCityNames();
+        int numberOfHubs = cityName.size();
 
-        String[] cityName = new String[numberOfHubs];
         int[] population = new int[numberOfHubs];
         Coordinate[] coordinates = new Coordinate[numberOfHubs];
+        int[] values = new int[2];
 
-        String fileName = getFileNameFromList("name.txt");
-
-        File fileCity = new File("dataset/" + directory + "/" + fileName);
-        Scanner myReader = new Scanner(fileCity);
-        String nextLine;
-        int count = 0;
-        while (myReader.hasNextLine()) {
-            nextLine = myReader.nextLine();
-            if (!nextLine.isEmpty() || nextLine != null) {
-                String[] data = nextLine.split(", ");
-                cityName[count] = nextLine;
-                count++;
-            }
-        }
-        myReader.close();
-
-        fileName = getFileNameFromList("weight.txt");
-
-        File filePopulation = new File("dataset/" + directory + "/" + fileName);
-        myReader = new Scanner(filePopulation);
-        count = 0;
-        while (myReader.hasNextLine()) {
-            nextLine = myReader.nextLine();
-            if (!nextLine.isEmpty() || nextLine != null) {
-                population[count] = Integer.valueOf(nextLine);
-                count++;
+        try (IntLineReader reader = new IntLineReader(getPath("weight.txt"))) {
+            for (int count = 0; count < numberOfHubs; count++) {
+                if (reader.readLine(values) < 1) {
+                    throw new NumberFormatException("Missing population of hub " + (count + 1));
+                }
+                population[count] = values[0];
             }
         }
-        myReader.close();
-
-        fileName = getFileNameFromList("xy.txt");
-
-        File fileCoordinate = new File("dataset/" + directory + "/" + fileName);
-        myReader = new Scanner(fileCoordinate);
-        count = 0;
-        while (myReader.hasNextLine()) {
-            nextLine = myReader.nextLine();
-            if (!nextLine.isEmpty() || nextLine != null) {
-                String[] data = nextLine.split(" ");
-                coordinates[count] = new Coordinate(Integer.valueOf(data[0]), Integer.valueOf(data[1]));
-                count++;
+
+        try (IntLineReader reader = new IntLineReader(getPath("xy.txt"))) {
+            for (int count = 0; count < numberOfHubs; count++) {
+                if (reader.readLine(values) < 2) {
+                    throw new NumberFormatException("Missing coordinates of hub " + (count + 1));
+                }
+                coordinates[count] = new Coordinate(values[0], values[1]);
             }
         }
-        myReader.close();
+
+        this.insertedHubs = new ArrayList<>(numberOfHubs);
         for (int i = 0; i < numberOfHubs; i++) {
-            Hub hubTemp = new Hub(cityName[i], population[i], coordinates[i]);
-            graph.insertVertex(hubTemp);
+            Hub hubTemp = new Hub(cityName.get(i), population[i], coordinates[i]);
+            insertedHubs.add(graph.insertVertex(hubTemp));
         }
     }
 
-    public void insertRoutesFromDirectory(Graph<Hub, Route> graph) throws FileNotFoundException, NumberFormatException {
-        int numberOfHubs = getNumberOfHubs();
-        int row = 0;
-
-        List<String> routesList = new ArrayList<>();
+    /**
+     * Inserts the routes of every routes file of the dataset. A 'routes*.edges' file is
+     * a sparse list of routes, one "from to distance" per line, with hubs numbered from 1
+     * (the line in name.txt). Any other 'routes_*' file is an adjacency matrix, where a
+     * positive value in row 'i' and column 'j' is a route between the hubs 'i' and 'j'.
+     * A route between two adjacent hubs is ignored, so the first file wins.
+     * Rows and columns are resolved to vertices by index.
+     *
+     * @param graph graph where the routes are inserted
+     * @throws IOException           if a file can't be read
+     * @throws NumberFormatException if a file has something other than integers
+     */
+    public void insertRoutesFromDirectory(Graph<Hub, Route> graph) throws IOException, NumberFormatException {
+        List<Vertex<Hub>> hubs = getHubsByIndex(graph);
 
         for (String fileName : dataSetFileList) {
-            String[] data = fileName.split("_");
-            if (data[0].equals("routes")) {
-                routesList.add(fileName);
+            if (isEdgeList(fileName)) {
+                insertRoutesFromEdgeList(graph, hubs, fileName);
+            } else if (fileName.split("_")[0].equals("routes")) {
+                insertRoutesFromMatrix(graph, hubs, fileName);
             }
         }
+    }
+
+    private void insertRoutesFromMatrix(Graph<Hub, Route> graph, List<Vertex<Hub>> hubs, String fileName)
+            throws IOException, NumberFormatException {
+        int numberOfHubs = getNumberOfHubs();
+        int[] data = new int[numberOfHubs];
+
+        try (IntLineReader reader = new IntLineReader(getPath(fileName))) {
+            int row = 0;
+            int length;
+
+            while (row < hubs.size() && (length = reader.readLine(data)) != NULL_VALUES) {
+                if (length != numberOfHubs) continue;
 
-        for (int i = 0; i < routesList.size(); i++) {
-            String fileName = routesList.get(i);
-
-            File fileRoutes = new File("dataset/" + directory + "/" + fileName);
-
-            Scanner myReader = new Scanner(fileRoutes);
-            Collection<Vertex<Hub>> hubs = graph.vertices();
-            while (myReader.hasNextLine()) {
-                String nextLine = myReader.nextLine();
-                if (!nextLine.isEmpty()) {
-                    String[] data = nextLine.split(" ");
-                    if (data.length == getNumberOfHubs()) {
-                        for (int j = 0; j < data.length; j++) {
-                            int part = Integer.parseInt(data[j]);
-                            if (part > 0) {
-
-                                Route route = new Route(part);
-                                Hub Hub1 = null;
-                                Hub Hub2 = null;
-                                Vertex<Hub> vHub1 = null;
-                                Vertex<Hub> vHub2 = null;
-
-                                for (Vertex<Hub> vHub : hubs) {
-                                    Hub hubTemp = vHub.element();
-                                    if (row != j) {
-                                        if (hubTemp.getIdentifier() - 1 == row) {
-                                            Hub1 = hubTemp;
-                                            vHub1 = vHub;
-                                        } else if (hubTemp.getIdentifier() - 1 == j) {
-                                            Hub2 = hubTemp;
-                                            vHub2 = vHub;
-                                        }
-                                    }
-                                }
-                                if (!graph.areAdjacent(vHub1, vHub2)) {
-                                    if (Hub1 != null && Hub2 != null)
-                                        graph.insertEdge(Hub1, Hub2, route);
-                                }
-
-                            }
-                        }
-                        row++;
+                Vertex<Hub> vHub1 = hubs.get(row);
+                for (int j = 0; j < numberOfHubs && j < hubs.size(); j++) {
+                    if (data[j] > 0 && row != j) {
+                        insertRoute(graph, vHub1, hubs.get(j), data[j]);
                     }
                 }
+                row++;
             }
-            row = 0;
         }
+    }
+
+    private void insertRoutesFromEdgeList(Graph<Hub, Route> graph, List<Vertex<Hub>> hubs, String fileName)
+            throws IOException, NumberFormatException {
+        int[] data = new int[EDGE_VALUES];
+
+        try (IntLineReader reader = new IntLineReader(getPath(fileName))) {
+            int length;
+
+            while ((length = reader.readLine(data)) != NULL_VALUES) {
+                if (length == 0) continue;
+                if (length != EDGE_VALUES) {
+                    throw new NumberFormatException("Invalid route in " + fileName);
+                }
+
+                int from = data[0] - 1;
+                int to = data[1] - 1;
+                if (from < 0 || from >= hubs.size() || to < 0 || to >= hubs.size()) {
+                    throw new NumberFormatException("Unknown hub in " + fileName + ": " + data[0] + " " + data[1]);
+                }
+                if (data[2] > 0 && from != to) {
+                    insertRoute(graph, hubs.get(from), hubs.get(to), data[2]);
+                }
+            }
+        }
+    }
+
+    private void insertRoute(Graph<Hub, Route> graph, Vertex<Hub> vHub1, Vertex<Hub> vHub2, int distance) {
+        if (!graph.areAdjacent(vHub1, vHub2)) {
+            graph.insertEdge(vHub1, vHub2, new Route(distance));
+        }
+    }
 
+    /**
+     * Checks if a file of the dataset is a sparse list of routes.
+     *
+     * @param fileName name of the file
+     * @return true if it is a 'routes*.edges' file
+     */
+    private static boolean isEdgeList(String fileName) {
+        return fileName.startsWith("routes") && fileName.endsWith(".edges");
+    }
+
+    /**
+     * Get the vertex of each hub index: the hubs inserted by this object or, if
+     * they were inserted before, the hubs of the graph ordered by identifier.
+     *
+     * @param graph graph with the hubs
+     * @return vertices by index
+     */
+    private List<Vertex<Hub>> getHubsByIndex(Graph<Hub, Route> graph) {
+        if (insertedHubs != null) return insertedHubs;
 
+        List<Vertex<Hub>> hubs = new ArrayList<>(graph.vertices());
+        hubs.sort(Comparator.comparingInt(v -> v.element().getIdentifier()));
+        return hubs;
+    }
+
+    private List<String> getCityNames() throws IOException {
+        if (cityNames == null) {
+            cityNames = Files.readAllLines(getPath("name.txt"), StandardCharsets.UTF_8);
+        }
+        return cityNames;
+    }
+
+    private Path getPath(String name) throws FileNotFoundException {
+        String fileName = getFileNameFromList(name);
+        if (fileName == null) {
+            throw new FileNotFoundException(folder.resolve(name).toString());
+        }
+        return folder.resolve(fileName);
     }
 
     private String getFileNameFromList(String name) {
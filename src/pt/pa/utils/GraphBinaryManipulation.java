@@ -0,0 +1,241 @@
+package pt.pa.utils;
+
+import pt.pa.graph.Edge;
+import pt.pa.graph.Graph;
+import pt.pa.graph.InvalidEdgeException;
+import pt.pa.graph.InvalidVertexException;
+import pt.pa.graph.Vertex;
+import pt.pa.model.Coordinate;
+import pt.pa.model.Hub;
+import pt.pa.model.Route;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Class that saves and loads a graph in a binary file, read and written in a
+ * single pass through a file channel, so no text is parsed.
+ * <p>
+ * {@link #load(Graph)} maps the file in memory. A mapping is only released by the
+ * garbage collector, and on some systems (e.g., Windows) a mapped file can't be
+ * replaced, so files that are replaced while the program runs (the checkpoints of
+ * the network) are read with {@link #loadCopy(Graph)} instead.
+ * <p>
+ * Layout (little-endian ints):
+ * <ul>
+ *     <li>header: magic, version, number of hubs 'n', number of routes 'm', string pool size;</li>
+ *     <li>hub table: 'n' x (id, population, x, y, name offset, name length);</li>
+ *     <li>string pool: UTF-8 city names, padded to 4 bytes;</li>
+ *     <li>routes (CSR): offsets ('n + 1'), targets ('m') and distances ('m').</li>
+ * </ul>
+ * Hubs are stored by identifier order and each route is stored once, under its hub
+ * with the lowest index. Loaded hubs get new identifiers, like the text datasets.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+public class GraphBinaryManipulation {
+    private static final int MAGIC = 0x424E474C; // "LGNB"
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 5;
+    private static final int HUB_INTS = 6;
+
+    private Path file;
+
+    public GraphBinaryManipulation(String fileName) {
+        this.file = Paths.get(fileName);
+    }
+
+    /**
+     * Saves the hubs and routes of a graph.
+     *
+     * @param graph graph to save
+     * @throws IOException if the file can't be written
+     */
+    public void save(Graph<Hub, Route> graph) throws IOException {
+        List<Vertex<Hub>> vertices = new ArrayList<>(graph.vertices());
+        vertices.sort(Comparator.comparingInt(v -> v.element().getIdentifier()));
+
+        int n = vertices.size();
+        Map<Vertex<Hub>, Integer> indexes = new HashMap<>();
+        byte[][] names = new byte[n][];
+        int poolSize = 0;
+
+        for (int i = 0; i < n; i++) {
+            indexes.put(vertices.get(i), i);
+            names[i] = vertices.get(i).element().getCity().getBytes(StandardCharsets.UTF_8);
+            poolSize += names[i].length;
+        }
+
+        int[] offsets = new int[n + 1];
+        List<Edge<Route, Hub>> routes = new ArrayList<>(graph.edges());
+        int[] owners = new int[routes.size()];
+
+        for (int k = 0; k < routes.size(); k++) {
+            Vertex<Hub>[] hubs = routes.get(k).vertices();
+            owners[k] = Math.min(indexes.get(hubs[0]), indexes.get(hubs[1]));
+            offsets[owners[k] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        int m = routes.size();
+        int[] targets = new int[m];
+        int[] distances = new int[m];
+        int[] next = Arrays.copyOf(offsets, n);
+
+        for (int k = 0; k < m; k++) {
+            Vertex<Hub>[] hubs = routes.get(k).vertices();
+            int pos = next[owners[k]]++;
+            targets[pos] = Math.max(indexes.get(hubs[0]), indexes.get(hubs[1]));
+            distances[pos] = routes.get(k).element().getDistance();
+        }
+
+        long size = 4L * (HEADER_INTS + HUB_INTS * n) + align(poolSize) + 4L * (n + 1 + 2L * m);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("The graph is too large for " + file);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m).putInt(poolSize);
+
+            int nameOffset = 0;
+            for (int i = 0; i < n; i++) {
+                Hub hub = vertices.get(i).element();
+                buffer.putInt(hub.getIdentifier()).putInt(hub.getPopulation())
+                        .putInt(hub.getCoordinates().getX()).putInt(hub.getCoordinates().getY())
+                        .putInt(nameOffset).putInt(names[i].length);
+                nameOffset += names[i].length;
+            }
+
+            for (byte[] name : names) {
+                buffer.put(name);
+            }
+            buffer.position(buffer.position() + align(poolSize) - poolSize);
+
+            IntBuffer ints = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            ints.put(offsets).put(targets).put(distances);
+
+            buffer.rewind();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Loads the hubs and routes of the file into a graph, reading it through a
+     * memory mapping.
+     *
+     * @param graph graph where the hubs and routes are inserted, that may keep part of them if it fails
+     * @return the loaded hubs, by the identifier they had when they were saved
+     * @throws IOException if the file can't be read or isn't a valid binary graph
+     */
+    public Map<Integer, Vertex<Hub>> load(Graph<Hub, Route> graph) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer.order(ByteOrder.LITTLE_ENDIAN), graph);
+        }
+    }
+
+    /**
+     * Loads the hubs and routes of the file into a graph, like {@link #load(Graph)},
+     * but copying the file to the heap, so it can be replaced as soon as this returns.
+     *
+     * @param graph graph where the hubs and routes are inserted, that may keep part of them if it fails
+     * @return the loaded hubs, by the identifier they had when they were saved
+     * @throws IOException if the file can't be read or isn't a valid binary graph
+     */
+    public Map<Integer, Vertex<Hub>> loadCopy(Graph<Hub, Route> graph) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) ;
+            buffer.flip();
+            return read(buffer, graph);
+        }
+    }
+
+    /**
+     * Inserts the hubs and routes of a whole file, from its first byte, into a graph.
+     */
+    private Map<Integer, Vertex<Hub>> read(ByteBuffer buffer, Graph<Hub, Route> graph) throws IOException {
+        try {
+            if (buffer.limit() < 4L * HEADER_INTS || buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a binary graph");
+            }
+            if (buffer.getInt() != VERSION) {
+                throw new IOException(file + " has an unsupported version");
+            }
+
+            int n = buffer.getInt();
+            int m = buffer.getInt();
+            int poolSize = buffer.getInt();
+
+            long size = 4L * (HEADER_INTS + HUB_INTS * (long) n) + align(poolSize) + 4L * (n + 1 + 2L * m);
+            if (n < 0 || m < 0 || poolSize < 0 || size != buffer.limit()) {
+                throw new IOException(file + " is corrupted");
+            }
+
+            IntBuffer table = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            int poolStart = 4 * (HEADER_INTS + HUB_INTS * n);
+            byte[] pool = new byte[poolSize];
+            buffer.position(poolStart);
+            buffer.get(pool);
+
+            List<Vertex<Hub>> vertices = new ArrayList<>(n);
+            Map<Integer, Vertex<Hub>> savedIds = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                int base = HUB_INTS * i;
+                String city = new String(pool, table.get(base + 4), table.get(base + 5), StandardCharsets.UTF_8);
+                Coordinate coordinate = new Coordinate(table.get(base + 2), table.get(base + 3));
+                vertices.add(graph.insertVertex(new Hub(city, table.get(base + 1), coordinate)));
+                savedIds.put(table.get(base), vertices.get(i));
+            }
+
+            buffer.position(poolStart + align(poolSize));
+            IntBuffer routes = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            int targets = n + 1;
+            int distances = targets + m;
+
+            for (int i = 0; i < n; i++) {
+                for (int k = routes.get(i); k < routes.get(i + 1); k++) {
+                    Vertex<Hub> opposite = vertices.get(routes.get(targets + k));
+                    graph.insertEdge(vertices.get(i), opposite, new Route(routes.get(distances + k)));
+                }
+            }
+
+            return savedIds;
+        } catch (IndexOutOfBoundsException | InvalidVertexException | InvalidEdgeException e) {
+            //e.g., a route to a missing hub or the same route twice
+            throw new IOException(file + " is corrupted", e);
+        }
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 3) & ~3;
+    }
+}
@@ -2,20 +2,23 @@ package pt.pa.utils;
 
 import pt.pa.graph.Edge;
 import pt.pa.graph.Graph;
-import pt.pa.graph.GraphAdjacencyList;
 import pt.pa.graph.Vertex;
 import pt.pa.model.Hub;
 import pt.pa.model.Route;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.List;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.DoubleConsumer;
 
 /**
  * Class that exports graph's data.
  * <p>
+ * The hubs and routes are copied from the graph when the object is created, so the
+ * files can be written by another thread while the graph keeps changing. Every file
+ * is written in a single pass, through a large buffer.
+ * <p>
  * Docente Orientador: Luís Damas
  * <p>
  * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
@@ -24,9 +27,20 @@ import java.util.List;
  * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
  */
 public class GraphExportManipulation {
+    private static final int NUMBER_OF_FILES = 5;
+    //the dense routes.txt has n² cells, so it is only written for small networks
+    public static final int DENSE_ROUTES_MAX_HUBS = 2000;
+    private static final int PROGRESS_STEPS = 100;
+
     private String directory;
     private File fileDirectory;
-    private Graph<Hub, Route> graph;
+    private Hub[] hubs;
+    private int[] offsets;
+    private int[] targets;
+    private int[] distances;
+
+    private DoubleConsumer progress;
+    private long linesWritten;
 
     public GraphExportManipulation(String directory, Graph<Hub, Route> g) {
         this.directory = directory;
@@ -34,64 +48,166 @@ public class GraphExportManipulation {
         if (!fileDirectory.exists()) {
             fileDirectory.mkdir();
         }
-        this.graph = g;
+        this.progress = value -> {
+        };
+
+        copyGraph(g);
+    }
+
+    /**
+     * Copies the hubs (in the order of the graph) and the routes of each hub.
+     *
+     * @param graph graph to export
+     */
+    private void copyGraph(Graph<Hub, Route> graph) {
+        List<Vertex<Hub>> vertices = new ArrayList<>(graph.vertices());
+        int n = vertices.size();
+        Map<Vertex<Hub>, Integer> indexes = new HashMap<>();
+
+        hubs = new Hub[n];
+        offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            hubs[i] = vertices.get(i).element();
+            indexes.put(vertices.get(i), i);
+        }
+
+        List<Collection<Edge<Route, Hub>>> incident = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            incident.add(graph.incidentEdges(vertices.get(i)));
+            offsets[i + 1] = offsets[i] + incident.get(i).size();
+        }
+
+        targets = new int[offsets[n]];
+        distances = new int[offsets[n]];
+        for (int i = 0; i < n; i++) {
+            int pos = offsets[i];
+            for (Edge<Route, Hub> edge : incident.get(i)) {
+                targets[pos] = indexes.get(graph.opposite(vertices.get(i), edge));
+                distances[pos] = edge.element().getDistance();
+                pos++;
+            }
+        }
+    }
+
+    /**
+     * Writes every file of the dataset, reporting the progress.
+     *
+     * @param progress receives the fraction (0 to 1) of the export that is done
+     * @throws IOException if a file can't be written
+     */
+    public void exportAll(DoubleConsumer progress) throws IOException {
+        this.progress = progress;
+        this.linesWritten = 0;
+
+        setFileName();
+        if (writesDenseRoutes()) {
+            setFileRoutes();
+        }
+        setFileEdges();
+        setFileWeight();
+        setFileCoords();
+
+        progress.accept(1);
+    }
+
+    /**
+     * Checks if the dense matrix (routes.txt) is written alongside routes.edges.
+     *
+     * @return true if the network has at most {@link #DENSE_ROUTES_MAX_HUBS} hubs
+     */
+    public boolean writesDenseRoutes() {
+        return hubs.length <= DENSE_ROUTES_MAX_HUBS;
     }
 
     public void setFileName() throws IOException {
-        File file = new File(fileDirectory + "/name.txt");
-        file.createNewFile();
-        FileWriter fw = new FileWriter(file.getAbsoluteFile());
-        BufferedWriter bw = new BufferedWriter(fw);
-        for (Vertex<Hub> vHub : graph.vertices()) {
-            bw.write(vHub.element().getCity());
-            bw.newLine();
+        try (IntLineWriter writer = new IntLineWriter(getPath("name.txt"))) {
+            for (Hub hub : hubs) {
+                writer.writeText(hub.getCity()).newLine();
+                lineWritten();
+            }
         }
-        bw.close();
     }
 
+    /**
+     * Writes the routes as a dense matrix, each row built from the routes of its hub.
+     *
+     * @throws IOException if the file can't be written
+     */
     public void setFileRoutes() throws IOException {
-        File file = new File(fileDirectory + "/routes.txt");
-        FileWriter fw = new FileWriter(file.getAbsoluteFile());
-        BufferedWriter bw = new BufferedWriter(fw);
-        for (Vertex<Hub> vHub1 : graph.vertices()) {
-            for (Vertex<Hub> vHub2 : graph.vertices()) {
-                if (vHub1 == vHub2) {
-                    bw.write("0 ");
+        int[] row = new int[hubs.length];
+
+        try (IntLineWriter writer = new IntLineWriter(getPath("routes.txt"))) {
+            for (int i = 0; i < hubs.length; i++) {
+                for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                    row[targets[k]] = distances[k];
                 }
-                if (graph.areAdjacent(vHub1, vHub2)) {
-                    for (Edge<Route, Hub> edge : graph.incidentEdges(vHub2)) {
-                        if (vHub1.equals(graph.opposite(vHub2, edge))) {
-                            bw.write(String.valueOf(edge.element().getDistance()) + " ");
-                        }
+                for (int j = 0; j < hubs.length; j++) {
+                    writer.writeInt(row[j]).writeChar(' ');
+                }
+                writer.newLine();
+
+                for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                    row[targets[k]] = 0;
+                }
+                lineWritten();
+            }
+        }
+    }
+
+    /**
+     * Writes the routes as a sparse list, one "from to distance" per line, with hubs
+     * numbered from 1 in the order of name.txt. Each route is written once and the
+     * size of the file only depends on the number of routes.
+     *
+     * @throws IOException if the file can't be written
+     */
+    public void setFileEdges() throws IOException {
+        try (IntLineWriter writer = new IntLineWriter(getPath("routes.edges"))) {
+            for (int i = 0; i < hubs.length; i++) {
+                for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                    if (i < targets[k]) {
+                        writer.writeInt(i + 1).writeChar(' ').writeInt(targets[k] + 1).writeChar(' ')
+                                .writeInt(distances[k]).newLine();
                     }
-                } else {
-                    bw.write("0 ");
                 }
+                lineWritten();
             }
-            bw.newLine();
         }
-        bw.close();
     }
 
     public void setFileWeight() throws IOException {
-        File file = new File(fileDirectory + "/weight.txt");
-        FileWriter fw = new FileWriter(file.getAbsoluteFile());
-        BufferedWriter bw = new BufferedWriter(fw);
-        for (Vertex<Hub> vHub : graph.vertices()) {
-            bw.write(String.valueOf(vHub.element().getPopulation()));
-            bw.newLine();
+        try (IntLineWriter writer = new IntLineWriter(getPath("weight.txt"))) {
+            for (Hub hub : hubs) {
+                writer.writeInt(hub.getPopulation()).newLine();
+                lineWritten();
+            }
         }
-        bw.close();
     }
 
     public void setFileCoords() throws IOException {
-        File file = new File(fileDirectory + "/xy.txt");
-        FileWriter fw = new FileWriter(file.getAbsoluteFile());
-        BufferedWriter bw = new BufferedWriter(fw);
-        for (Vertex<Hub> vHub : graph.vertices()) {
-            bw.write(vHub.element().getCoordinates().getX() + " " + vHub.element().getCoordinates().getY());
-            bw.newLine();
+        try (IntLineWriter writer = new IntLineWriter(getPath("xy.txt"))) {
+            for (Hub hub : hubs) {
+                writer.writeInt(hub.getCoordinates().getX()).writeChar(' ')
+                        .writeInt(hub.getCoordinates().getY()).newLine();
+                lineWritten();
+            }
+        }
+    }
+
+    private Path getPath(String name) {
+        return fileDirectory.toPath().resolve(name);
+    }
+
+    /**
+     * Counts a written line (one per hub in each file), reporting the progress
+     * about every 1% of the export.
+     */
+    private void lineWritten() {
+        long total = (long) (writesDenseRoutes() ? NUMBER_OF_FILES : NUMBER_OF_FILES - 1) * hubs.length;
+        linesWritten++;
+
+        if (linesWritten * PROGRESS_STEPS / total != (linesWritten - 1) * PROGRESS_STEPS / total) {
+            progress.accept((double) linesWritten / total);
         }
-        bw.close();
     }
 }
@@ -0,0 +1,106 @@
+package pt.pa.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads lines of whitespace-separated integers from a file, through a file
+ * channel and a reusable buffer. The digits are parsed straight from the bytes,
+ * without creating a String per line or per number.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+final class IntLineReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int END_OF_FILE = -1;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private int position;
+    private int limit;
+
+    /**
+     * Opens a file to read.
+     *
+     * @param path path of the file
+     * @throws IOException if the file can't be opened
+     */
+    IntLineReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.bytes = buffer.array();
+    }
+
+    /**
+     * Reads the next line. Only the first 'values.length' numbers are stored,
+     * but every number of the line is counted.
+     *
+     * @param values array to fill with the numbers of the line
+     * @return number of numbers in the line, or -1 at the end of the file
+     * @throws IOException           if the file can't be read
+     * @throws NumberFormatException if the line has something other than integers, or one is out of range
+     */
+    int readLine(int[] values) throws IOException, NumberFormatException {
+        int b = next();
+        if (b == END_OF_FILE) return END_OF_FILE;
+
+        int count = 0;
+        while (b != '\n' && b != END_OF_FILE) {
+            if (b == ' ' || b == '\t' || b == '\r') {
+                b = next();
+                continue;
+            }
+
+            boolean negative = b == '-';
+            if (negative) b = next();
+            if (b < '0' || b > '9') {
+                throw new NumberFormatException("Invalid character '" + (char) b + "'");
+            }
+
+            //accumulated as a negative number, like Integer.parseInt, to reach Integer.MIN_VALUE
+            int value = 0;
+            while (b >= '0' && b <= '9') {
+                int digit = b - '0';
+                if (value < (Integer.MIN_VALUE + digit) / 10) {
+                    throw new NumberFormatException("Number out of range");
+                }
+                value = value * 10 - digit;
+                b = next();
+            }
+            if (!negative && value == Integer.MIN_VALUE) {
+                throw new NumberFormatException("Number out of range");
+            }
+
+            if (count < values.length) {
+                values[count] = negative ? value : -value;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private int next() throws IOException {
+        if (position == limit) {
+            buffer.clear();
+            limit = Math.max(channel.read(buffer), 0);
+            position = 0;
+            if (limit == 0) return END_OF_FILE;
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
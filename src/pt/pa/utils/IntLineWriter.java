@@ -0,0 +1,135 @@
+package pt.pa.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes lines of text and integers to a file, through a file channel and a large
+ * reusable buffer. Integers are written digit by digit, without creating a String.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+final class IntLineWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_DIGITS = 11;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] digits;
+
+    /**
+     * Creates (or truncates) a file to write.
+     *
+     * @param path path of the file
+     * @throws IOException if the file can't be opened
+     */
+    IntLineWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.digits = new byte[MAX_DIGITS];
+    }
+
+    /**
+     * Writes an integer.
+     *
+     * @param value integer to write
+     * @return this writer
+     * @throws IOException if the file can't be written
+     */
+    IntLineWriter writeInt(int value) throws IOException {
+        ensure(MAX_DIGITS);
+
+        long v = value;
+        if (v < 0) {
+            buffer.put((byte) '-');
+            v = -v;
+        }
+
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v > 0);
+
+        while (count > 0) {
+            buffer.put(digits[--count]);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a single ASCII character, e.g. the separator.
+     *
+     * @param c character to write
+     * @return this writer
+     * @throws IOException if the file can't be written
+     */
+    IntLineWriter writeChar(char c) throws IOException {
+        ensure(1);
+        buffer.put((byte) c);
+        return this;
+    }
+
+    /**
+     * Writes a text in UTF-8.
+     *
+     * @param text text to write
+     * @return this writer
+     * @throws IOException if the file can't be written
+     */
+    IntLineWriter writeText(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > buffer.capacity()) {
+            flush();
+            channel.write(ByteBuffer.wrap(bytes));
+        } else {
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+        return this;
+    }
+
+    /**
+     * Ends the current line.
+     *
+     * @return this writer
+     * @throws IOException if the file can't be written
+     */
+    IntLineWriter newLine() throws IOException {
+        return writeChar('\n');
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package pt.pa.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of the routes added to and removed from a network, written
+ * before the changes are reported as done, so they survive a crash without
+ * saving the whole network each time.
+ * <p>
+ * Layout (little-endian):
+ * <ul>
+ *     <li>header: magic, version (ints) and the checksum of the snapshot the log applies to (long);</li>
+ *     <li>records: type (byte), first hub id, second hub id, distance (ints) and the CRC-32C of those 13 bytes (int).</li>
+ * </ul>
+ * The high bit of the type is set when the next record belongs to the same batch,
+ * so a batch is recovered whole or not at all.
+ * The records are appended to a buffer, in memory, and made durable by {@link #commit(long)}.
+ * Commits are grouped: the thread that writes a batch writes every record appended
+ * until then and forces them to the disk once, so the threads that were waiting for it
+ * return without writing. A record that was only partly written (the end of the file
+ * at a crash) fails its checksum, and it is discarded with the ones after it when the
+ * log is opened.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+public class WriteAheadLog implements Closeable {
+    private static final int MAGIC = 0x4C41574C; // "LWAL"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 17;
+    private static final int DATA_BYTES = RECORD_BYTES - 4;
+    private static final int MORE_IN_BATCH = 0x80;
+    private static final int BUFFER_RECORDS = 256;
+
+    private final Path file;
+    private FileChannel channel;
+
+    //records appended and not written yet, guarded by this
+    private ByteBuffer pending = newBuffer(BUFFER_RECORDS);
+    private ByteBuffer spare = newBuffer(BUFFER_RECORDS);
+    private long appended;
+    private int records;
+
+    //serializes the writes to the channel
+    private final Object commitLock = new Object();
+    private volatile long committed;
+    private IOException failure;
+
+    public WriteAheadLog(String fileName) {
+        this.file = Paths.get(fileName);
+    }
+
+    /**
+     * Opens the log for appending, creating it if it doesn't exist.
+     * <p>
+     * The records of another snapshot (e.g., a crash after the snapshot was replaced
+     * but before the log was reset) are discarded, as well as any damaged record at
+     * the end of the file.
+     *
+     * @param base checksum of the snapshot the records apply to, see {@link #checksum(String)}
+     * @return the records of the log, in the order they were appended
+     * @throws IOException if the log can't be read or written, or isn't a log
+     */
+    public List<Record> open(long base) throws IOException {
+        if (channel != null) {
+            throw new IOException(file + " is already open");
+        }
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            List<Record> list = read(base);
+            synchronized (this) {
+                records = list.size();
+            }
+            return list;
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the records of the opened file and positions the channel after the last valid one.
+     */
+    private List<Record> read(long base) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException(file + " is too large");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) ;
+        buffer.flip();
+
+        List<Record> list = new ArrayList<>();
+        if (size < HEADER_BYTES) {
+            //new log, or a crash while it was created
+            writeHeader(base);
+            return list;
+        }
+
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException(file + " is not a write-ahead log");
+        }
+        if (buffer.getInt() != VERSION) {
+            throw new IOException(file + " has an unsupported version");
+        }
+        if (buffer.getLong() != base) {
+            writeHeader(base);
+            return list;
+        }
+
+        CRC32C crc = new CRC32C();
+        int complete = 0;
+        while (buffer.remaining() >= RECORD_BYTES) {
+            int start = buffer.position();
+            crc.reset();
+            crc.update(buffer.array(), start, DATA_BYTES);
+
+            boolean more = (buffer.get(start) & MORE_IN_BATCH) != 0;
+            Record record = Record.read(buffer);
+            if (record == null || buffer.getInt() != (int) crc.getValue()) {
+                break;
+            }
+            list.add(record);
+            if (!more) {
+                complete = list.size();
+            }
+        }
+        //the records of a batch that wasn't fully written are discarded
+        list.subList(complete, list.size()).clear();
+
+        long end = HEADER_BYTES + (long) RECORD_BYTES * list.size();
+        if (end < size) {
+            channel.truncate(end);
+            channel.force(false);
+        }
+        channel.position(end);
+        return list;
+    }
+
+    /**
+     * Truncates the file to a new header, forced to the disk.
+     */
+    private void writeHeader(long base) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(base).flip();
+
+        channel.truncate(0);
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        channel.force(false);
+        channel.position(HEADER_BYTES);
+    }
+
+    /**
+     * Appends a record to the buffer of the log. It only becomes durable when it is committed.
+     *
+     * @param record record to append
+     * @return sequence number of the record, to commit it
+     */
+    public long append(Record record) {
+        return append(Collections.singletonList(record));
+    }
+
+    /**
+     * Appends the records of a batch to the buffer of the log. They only become
+     * durable when the last one is committed, and they are recovered together.
+     *
+     * @param batch records to append, not empty
+     * @return sequence number of the last record, to commit them
+     */
+    public synchronized long append(List<Record> batch) {
+        int needed = batch.size() * RECORD_BYTES;
+        if (pending.remaining() < needed) {
+            int capacity = pending.capacity() / RECORD_BYTES;
+            while (capacity * RECORD_BYTES - pending.position() < needed) {
+                capacity *= 2;
+            }
+            ByteBuffer larger = newBuffer(capacity);
+            pending.flip();
+            pending = larger.put(pending);
+        }
+
+        CRC32C crc = new CRC32C();
+        for (int i = 0; i < batch.size(); i++) {
+            int start = pending.position();
+            batch.get(i).write(pending, i < batch.size() - 1);
+
+            crc.reset();
+            crc.update(pending.array(), start, DATA_BYTES);
+            pending.putInt((int) crc.getValue());
+        }
+
+        records += batch.size();
+        appended += batch.size();
+        return appended;
+    }
+
+    /**
+     * Makes a record, and every record appended before it, durable. If another
+     * thread is already writing, it waits for it and then writes all the records
+     * appended in the meantime at once.
+     *
+     * @param sequence sequence number returned by {@link #append(Record)}
+     * @throws IOException if the records can't be written, or a previous write failed
+     */
+    public void commit(long sequence) throws IOException {
+        if (committed >= sequence) return;
+
+        synchronized (commitLock) {
+            if (failure != null) {
+                throw new IOException("A previous write to " + file + " failed", failure);
+            }
+            if (committed >= sequence) return;
+
+            ByteBuffer batch;
+            long last;
+            synchronized (this) {
+                batch = pending;
+                pending = spare != null ? spare : newBuffer(BUFFER_RECORDS);
+                spare = null;
+                last = appended;
+            }
+
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+
+            batch.clear();
+            synchronized (this) {
+                spare = batch;
+            }
+            committed = last;
+        }
+    }
+
+    /**
+     * Discards every record, after the changes they describe were saved in a new snapshot.
+     * The records appended and not committed are discarded too, so the changes must
+     * not happen while the snapshot is saved and the log is reset.
+     *
+     * @param base checksum of the new snapshot
+     * @throws IOException if the log can't be written
+     */
+    public void reset(long base) throws IOException {
+        synchronized (commitLock) {
+            try {
+                writeHeader(base);
+            } catch (IOException e) {
+                //the records can't be committed to a log that may be tied to another snapshot
+                failure = e;
+                throw e;
+            }
+            failure = null;
+
+            synchronized (this) {
+                pending.clear();
+                records = 0;
+                committed = appended;
+            }
+        }
+    }
+
+    /**
+     * Get the number of records in the log, committed or not.
+     *
+     * @return number of records
+     */
+    public synchronized int size() {
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (commitLock) {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * Computes the checksum (CRC-32C) of a snapshot file, that ties a log to it.
+     *
+     * @param fileName path of the snapshot
+     * @return checksum, or 0 if the file doesn't exist
+     * @throws IOException if the file can't be read
+     */
+    public static long checksum(String fileName) throws IOException {
+        Path path = Paths.get(fileName);
+        if (!path.toFile().exists()) return 0;
+
+        CRC32C crc = new CRC32C();
+        try (FileChannel snapshot = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            while (snapshot.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        //0 is reserved for a missing snapshot
+        return crc.getValue() + 1;
+    }
+
+    private static ByteBuffer newBuffer(int records) {
+        return ByteBuffer.allocate(records * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Route added to or removed from the network, identified by the ids of its hubs.
+     */
+    public static final class Record {
+
+        public enum Type {
+            ADD_ROUTE, REMOVE_ROUTE
+        }
+
+        private final Type type;
+        private final int idHub1;
+        private final int idHub2;
+        private final int distance;
+
+        private Record(Type type, int idHub1, int idHub2, int distance) {
+            this.type = type;
+            this.idHub1 = idHub1;
+            this.idHub2 = idHub2;
+            this.distance = distance;
+        }
+
+        public static Record addRoute(int idHub1, int idHub2, int distance) {
+            return new Record(Type.ADD_ROUTE, idHub1, idHub2, distance);
+        }
+
+        public static Record removeRoute(int idHub1, int idHub2) {
+            return new Record(Type.REMOVE_ROUTE, idHub1, idHub2, 0);
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public int getIdHub1() {
+            return idHub1;
+        }
+
+        public int getIdHub2() {
+            return idHub2;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+
+        private void write(ByteBuffer buffer, boolean moreInBatch) {
+            buffer.put((byte) (type.ordinal() | (moreInBatch ? MORE_IN_BATCH : 0))).putInt(idHub1).putInt(idHub2).putInt(distance);
+        }
+
+        /**
+         * @return record, or null if the type is unknown
+         */
+        private static Record read(ByteBuffer buffer) {
+            int type = buffer.get() & (MORE_IN_BATCH - 1);
+            int idHub1 = buffer.getInt();
+            int idHub2 = buffer.getInt();
+            int distance = buffer.getInt();
+
+            if (type < 0 || type >= Type.values().length) return null;
+            return new Record(Type.values()[type], idHub1, idHub2, distance);
+        }
+
+        @Override
+        public String toString() {
+            return type + " " + idHub1 + " " + idHub2 + (type == Type.ADD_ROUTE ? " " + distance : "");
+        }
+    }
+}
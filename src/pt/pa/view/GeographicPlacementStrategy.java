@@ -0,0 +1,71 @@
+package pt.pa.view;
+
+import com.brunomnsilva.smartgraph.graphview.SmartGraphVertex;
+import com.brunomnsilva.smartgraph.graphview.SmartPlacementStrategy;
+import pt.pa.graph.Graph;
+import pt.pa.model.Coordinate;
+import pt.pa.model.Hub;
+
+import java.util.Collection;
+
+/**
+ * Places the hubs at their coordinates, scaled (keeping the aspect ratio) and
+ * centered to fit the panel, so the network is readable without running the
+ * automatic layout. Vertices that aren't hubs are placed in the middle.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+public class GeographicPlacementStrategy implements SmartPlacementStrategy {
+    private static final double MARGIN = 30; // room for the labels at the borders
+
+    @Override
+    public <V, E> void place(double width, double height, Graph<V, E> theGraph,
+                             Collection<? extends SmartGraphVertex<V>> vertices) {
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+
+        for (SmartGraphVertex<V> vertex : vertices) {
+            Coordinate coordinate = getCoordinates(vertex);
+            if (coordinate == null) continue;
+
+            minX = Math.min(minX, coordinate.getX());
+            minY = Math.min(minY, coordinate.getY());
+            maxX = Math.max(maxX, coordinate.getX());
+            maxY = Math.max(maxY, coordinate.getY());
+        }
+
+        double spanX = Math.max(maxX - minX, 1);
+        double spanY = Math.max(maxY - minY, 1);
+        double scale = Math.max(Math.min((width - 2 * MARGIN) / spanX, (height - 2 * MARGIN) / spanY), 0);
+
+        //center the network in both directions
+        double offsetX = (width - spanX * scale) / 2;
+        double offsetY = (height - spanY * scale) / 2;
+
+        for (SmartGraphVertex<V> vertex : vertices) {
+            Coordinate coordinate = getCoordinates(vertex);
+            if (coordinate == null) {
+                vertex.setPosition(width / 2, height / 2);
+            } else {
+                vertex.setPosition(offsetX + (coordinate.getX() - minX) * scale,
+                        offsetY + (coordinate.getY() - minY) * scale);
+            }
+        }
+    }
+
+    /**
+     * Get the coordinates of the hub of a vertex.
+     *
+     * @param vertex vertex of the panel
+     * @return coordinates, or null if the vertex isn't a hub
+     */
+    private static <V> Coordinate getCoordinates(SmartGraphVertex<V> vertex) {
+        V element = vertex.getUnderlyingVertex().element();
+        return element instanceof Hub ? ((Hub) element).getCoordinates() : null;
+    }
+}
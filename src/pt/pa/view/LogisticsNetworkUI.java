@@ -28,6 +28,8 @@ public interface LogisticsNetworkUI extends Observer {
 
     void enableGlobalButton();
 
+    void setExportProgress(double progress);
+
     TextInputDialog createDialog(String defaultValue, String headerText);
 
     void displayMinPath(LogisticsNetworkController controller, String ids);
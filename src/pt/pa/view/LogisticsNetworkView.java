@@ -1,6 +1,7 @@
 package pt.pa.view;
 
 import com.brunomnsilva.smartgraph.graphview.*;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -14,6 +15,7 @@ import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 import pt.pa.controller.LogisticsNetworkController;
 import pt.pa.graph.Edge;
+import pt.pa.graph.GraphChange;
 import pt.pa.graph.Vertex;
 import pt.pa.model.Hub;
 import pt.pa.model.LogisticsNetwork;
@@ -21,6 +23,8 @@ import pt.pa.model.Route;
 import pt.pa.observerpattern.Observable;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
@@ -38,6 +42,7 @@ import java.util.List;
 public class LogisticsNetworkView extends BorderPane implements LogisticsNetworkUI {
     private final LogisticsNetwork model;
     private SmartGraphPanel<Hub, Route> graphPanel;
+    private SmartPlacementStrategy placementStrategy;
 
     private Button btGlobalImport;
     private Button btGlobalExport;
@@ -58,6 +63,7 @@ public class LogisticsNetworkView extends BorderPane implements LogisticsNetwork
     private Button btGetCentralizedHubs;
     private Button btGetTop5CentralizedHubs;
     private Button btUndo;
+    private Button btRedo;
 
 
     public LogisticsNetworkView(LogisticsNetwork model) {
@@ -67,7 +73,9 @@ public class LogisticsNetworkView extends BorderPane implements LogisticsNetwork
     }
 
     /**
-     * Updates the object being observed.
+     * Updates the object being observed. When the model reports the changes it
+     * made (a GraphChange, or a list of them for a batch), only those changes are
+     * applied to the graph panel.
      *
      * @param subject Observable
      * @param arg     Object
@@ -75,7 +83,11 @@ public class LogisticsNetworkView extends BorderPane implements LogisticsNetwork
     @Override
     public void update(Observable subject, Object arg) {
         if (subject == model) {
-            graphPanel.updateAndWait();
+            if (arg instanceof GraphChange || arg instanceof Collection) {
+                graphPanel.updateAndWait(changesOf(arg));
+            } else {
+                graphPanel.updateAndWait();
+            }
 
             lblNumHubs.setText(model.getNumberOfHubs() + "");
             lblNumRoutes.setText(model.getNumberOfRoutes() + "");
@@ -89,6 +101,11 @@ public class LogisticsNetworkView extends BorderPane implements LogisticsNetwork
                 this.btShortestPath.setDisable(true);
             }
 
+            //the hubs are the same when only routes changed
+            if (onlyRoutesChanged(arg)) {
+                return;
+            }
+
             cbHubId1.getItems().clear();
             cbHubId2.getItems().clear();
             List<Hub> hubList = new ArrayList<>(model.getHubs());
@@ -100,6 +117,41 @@ public class LogisticsNetworkView extends BorderPane implements LogisticsNetwork
         }
     }
 
+    /**
+     * Gets the changes reported by a notification of the model.
+     *
+     * @param arg argument of the notification, a GraphChange or a collection of them
+     * @return changes of the graph
+     */
+    @SuppressWarnings("unchecked")
+    private static Collection<GraphChange<Hub, Route>> changesOf(Object arg) {
+        if (arg instanceof GraphChange) {
+            return Collections.singletonList((GraphChange<Hub, Route>) arg);
+        }
+        return (Collection<GraphChange<Hub, Route>>) arg;
+    }
+
+    /**
+     * Checks if a notification of the model only reports added or removed routes.
+     *
+     * @param arg argument of the notification
+     * @return true if only routes changed
+     */
+    private static boolean onlyRoutesChanged(Object arg) {
+        if (arg instanceof GraphChange) {
+            return ((GraphChange<?, ?>) arg).isEdgeChange();
+        }
+        if (!(arg instanceof Collection)) {
+            return false;
+        }
+        for (Object change : (Collection<?>) arg) {
+            if (!(change instanceof GraphChange) || !((GraphChange<?, ?>) change).isEdgeChange()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Initializes the app's layout.
      */
@@ -115,8 +167,10 @@ public class LogisticsNetworkView extends BorderPane implements LogisticsNetwork
         vSidePanel.setPadding(new Insets(0, 4, 0, 2));
         setRight(vSidePanel);
 
-        SmartGraphProperties smartGraphProperties = new SmartGraphProperties("edge.label = true" + "\n" + "edge.arrow = false");
-        graphPanel = new SmartGraphPanel<>(model.getGraph(), smartGraphProperties, new SmartCircularSortedPlacementStrategy());
+        SmartGraphProperties smartGraphProperties = new SmartGraphProperties("edge.label = true" + "\n" + "edge.arrow = false"
+                + "\n" + "layout.barnes-hut = true");
+        placementStrategy = new GeographicPlacementStrategy();
+        graphPanel = new SmartGraphPanel<>(model.getGraph(), smartGraphProperties, placementStrategy);
         setCenter(graphPanel);
 
         this.btGlobalImport = new Button("Global Import");
@@ -168,10 +222,12 @@ public class LogisticsNetworkView extends BorderPane implements LogisticsNetwork
         btRemoveDistance = new Button("Remove");
         btRemoveDistance.setStyle("-fx-background-color: red; -fx-text-fill: white;");
         btUndo = new Button("Undo");
+        btRedo = new Button("Redo");
 
         relationPane.add(addRel, 1, 4);
         relationPane.add(btRemoveDistance, 1, 5);
         relationPane.add(btUndo, 1, 6);
+        relationPane.add(btRedo, 1, 7);
 
         lblGetCentralizedHubs = new Label();
 
@@ -277,11 +333,9 @@ public class LogisticsNetworkView extends BorderPane implements LogisticsNetwork
 
             });
         });
-        this.btUndo.setOnAction(event -> {
-            controller.undo();
-            update(model, null);
-            resetGraphPanel();
-        });
+        //the model notifies the changes, so only the affected routes are updated
+        this.btUndo.setOnAction(event -> controller.undo());
+        this.btRedo.setOnAction(event -> controller.redo());
     }
 
     /**
@@ -402,6 +456,21 @@ public class LogisticsNetworkView extends BorderPane implements LogisticsNetwork
         this.btGlobalImport.setDisable(false);
     }
 
+    /**
+     * Shows the progress of the global export in its button, disabled until the export ends.
+     * Can be called from the export thread.
+     *
+     * @param progress fraction (0 to 1) of the export that is done
+     */
+    @Override
+    public void setExportProgress(double progress) {
+        Platform.runLater(() -> {
+            boolean done = progress >= 1;
+            this.btGlobalExport.setDisable(!done);
+            this.btGlobalExport.setText(done ? "Global Export" : "Exporting " + (int) (progress * 100) + "%");
+        });
+    }
+
     /**
      * Creates a textInputDialog box.
      *
@@ -580,11 +649,7 @@ public class LogisticsNetworkView extends BorderPane implements LogisticsNetwork
      */
     @Override
     public void resetGraphPanel() {
-        for (Vertex v : this.model.getGraph().vertices()) {
-            Hub temp = (Hub) v.element();
-            graphPanel.setVertexPosition(v, temp.getCoordinates().getX(), temp.getCoordinates().getY());
-        }
-
+        graphPanel.placeVertices(placementStrategy);
     }
 
     /**
@@ -0,0 +1,138 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019 brunomnsilva@gmail.com.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.brunomnsilva.smartgraph.graphview;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the forces of the quadtree with the exact O(n^2) loop of the layout.
+ */
+class BarnesHutQuadtreeTest {
+    private static final double SCALE = 25;
+
+    /**
+     * Same repelling forces of the layout without the quadtree.
+     */
+    private static double[] exactForce(int i, double[] xs, double[] ys, int n) {
+        double fx = 0, fy = 0;
+        for (int j = 0; j < n; j++) {
+            double dx = xs[i] - xs[j], dy = ys[i] - ys[j];
+            double distance = Math.sqrt(dx * dx + dy * dy);
+            if (distance == 0) continue;
+
+            double factor = UtilitiesPoint2D.repellingFunction(distance, SCALE) / distance;
+            fx += dx * factor;
+            fy += dy * factor;
+        }
+        return new double[]{fx, fy};
+    }
+
+    private static double[] randomPoints(Random random, int n, double side) {
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextDouble() * side;
+        }
+        return values;
+    }
+
+    @Test
+    void repellingForce_ThetaZeroIsExact() {
+        Random random = new Random(42);
+        int n = 500;
+        double[] xs = randomPoints(random, n, 1000), ys = randomPoints(random, n, 1000);
+
+        BarnesHutQuadtree tree = new BarnesHutQuadtree();
+        tree.build(xs, ys, n);
+        double[] force = new double[2];
+        int[] stack = BarnesHutQuadtree.newStack();
+
+        for (int i = 0; i < n; i++) {
+            double[] exact = exactForce(i, xs, ys, n);
+            tree.repellingForce(i, SCALE, 0, force, stack);
+
+            double tolerance = 1e-9 * Math.max(1, Math.hypot(exact[0], exact[1]));
+            assertEquals(exact[0], force[0], tolerance);
+            assertEquals(exact[1], force[1], tolerance);
+        }
+    }
+
+    @Test
+    void repellingForce_ThetaBoundsTheError() {
+        Random random = new Random(7);
+        int n = 2000;
+        double[] xs = randomPoints(random, n, 1000), ys = randomPoints(random, n, 1000);
+
+        BarnesHutQuadtree tree = new BarnesHutQuadtree();
+        tree.build(xs, ys, n);
+        double[] force = new double[2];
+        int[] stack = BarnesHutQuadtree.newStack();
+
+        double errors = 0, magnitudes = 0;
+        for (int i = 0; i < n; i++) {
+            double[] exact = exactForce(i, xs, ys, n);
+            tree.repellingForce(i, SCALE, 0.9, force, stack);
+
+            errors += Math.hypot(force[0] - exact[0], force[1] - exact[1]);
+            magnitudes += Math.hypot(exact[0], exact[1]);
+        }
+        assertTrue(errors / magnitudes < 0.05, "relative error " + errors / magnitudes);
+    }
+
+    @Test
+    void repellingForce_CoincidentVertices() {
+        Random random = new Random(3);
+        int n = 200;
+        double[] xs = randomPoints(random, n, 1000), ys = randomPoints(random, n, 1000);
+
+        //a cluster closer than the deepest cell, and vertices at the same position
+        for (int i = 0; i < 50; i++) {
+            xs[i] = 500 + i * 1e-13;
+            ys[i] = 500 - i * 1e-13;
+        }
+        xs[50] = xs[51] = 100;
+        ys[50] = ys[51] = 100;
+
+        BarnesHutQuadtree tree = new BarnesHutQuadtree();
+        tree.build(xs, ys, n);
+        double[] force = new double[2];
+        int[] stack = BarnesHutQuadtree.newStack();
+
+        for (int i = 0; i < n; i++) {
+            tree.repellingForce(i, SCALE, 0, force, stack);
+            assertTrue(Double.isFinite(force[0]) && Double.isFinite(force[1]));
+
+            //the vertices away from the cluster still get the exact forces
+            if (i > 51) {
+                double[] exact = exactForce(i, xs, ys, n);
+                double tolerance = 1e-9 * Math.max(1, Math.hypot(exact[0], exact[1]));
+                assertEquals(exact[0], force[0], tolerance);
+                assertEquals(exact[1], force[1], tolerance);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package pt.pa.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class with Unit Tests.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+class HashTrieMapTest {
+
+    /**
+     * Key with few different hash codes, so many keys collide.
+     */
+    private static final class Key {
+        private final int value;
+
+        Key(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value % 37;
+        }
+    }
+
+    @Test
+    void sameAsHashMap() {
+        Map<Key, Integer> expected = new HashMap<>();
+        HashTrieMap<Key, Integer> map = HashTrieMap.empty();
+        Random random = new Random(3);
+
+        for (int i = 0; i < 5000; i++) {
+            Key key = new Key(random.nextInt(500));
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.remove(key);
+            } else {
+                expected.put(key, i);
+                map = map.put(key, i);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        for (int i = 0; i < 500; i++) {
+            assertEquals(expected.get(new Key(i)), map.get(new Key(i)));
+            assertEquals(expected.containsKey(new Key(i)), map.containsKey(new Key(i)));
+        }
+
+        Map<Key, Integer> entries = new HashMap<>();
+        map.forEach(entries::put);
+        assertEquals(expected, entries);
+    }
+
+    @Test
+    void previousVersionsDontChange() {
+        HashTrieMap<Integer, String> empty = HashTrieMap.empty();
+        HashTrieMap<Integer, String> one = empty.put(1, "a");
+        HashTrieMap<Integer, String> two = one.put(33, "b").put(1, "c");
+
+        assertTrue(empty.isEmpty());
+        assertEquals("a", one.get(1));
+        assertNull(one.get(33));
+        assertEquals("c", two.get(1));
+        assertEquals("b", two.get(33));
+        assertSame(two, two.remove(2));
+        assertEquals(1, two.remove(1).size());
+    }
+}
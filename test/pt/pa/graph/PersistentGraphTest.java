@@ -0,0 +1,153 @@
+package pt.pa.graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pt.pa.model.Coordinate;
+import pt.pa.model.Hub;
+import pt.pa.model.Route;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class with Unit Tests.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+class PersistentGraphTest {
+
+    PersistentGraph<Hub, Route> g;
+    Vertex<Hub> lisboa;
+    Vertex<Hub> porto;
+    Vertex<Hub> coimbra;
+    Vertex<Hub> faro;
+
+    Edge<Route, Hub> routeHubEdge;
+
+    @BeforeEach
+    void setUp() {
+
+        g = new PersistentGraph<>();
+
+        lisboa = g.insertVertex(new Hub("lisboa", 1000, new Coordinate(1000, 500)));
+        porto = g.insertVertex(new Hub("porto", 900, new Coordinate(950, 800)));
+        coimbra = g.insertVertex(new Hub("coimbra", 800, new Coordinate(975, 600)));
+        faro = g.insertVertex(new Hub("faro", 600, new Coordinate(750, 200)));
+
+        routeHubEdge = g.insertEdge(lisboa, coimbra, new Route(7000));
+        g.insertEdge(lisboa, porto, new Route(11550));
+        g.insertEdge(porto, coimbra, new Route(1303));
+    }
+
+    @Test
+    void insertAndRemove() {
+        assertEquals(4, g.numVertices());
+        assertEquals(3, g.numEdges());
+        assertTrue(g.areAdjacent(coimbra, lisboa));
+        assertEquals(coimbra, g.opposite(lisboa, routeHubEdge));
+        assertEquals(2, g.incidentEdges(lisboa).size());
+
+        assertThrows(InvalidEdgeException.class, () -> g.insertEdge(lisboa, porto, new Route(1)));
+        assertThrows(InvalidVertexException.class, () -> g.insertVertex(lisboa.element()));
+
+        assertEquals(7000, g.removeEdge(routeHubEdge).getDistance());
+        assertFalse(g.areAdjacent(coimbra, lisboa));
+        assertThrows(InvalidEdgeException.class, () -> g.removeEdge(routeHubEdge));
+
+        assertEquals("porto", g.removeVertex(porto).getCity());
+        assertEquals(3, g.numVertices());
+        assertEquals(0, g.numEdges());
+        assertThrows(InvalidVertexException.class, () -> g.incidentEdges(porto));
+    }
+
+    @Test
+    void restore() {
+        PersistentGraph.Version<Hub, Route> before = g.version();
+
+        g.removeEdge(routeHubEdge);
+        g.insertEdge(faro, porto, new Route(8132));
+        g.removeVertex(coimbra);
+        assertEquals(3, g.numVertices());
+        assertEquals(2, g.numEdges());
+
+        PersistentGraph.Version<Hub, Route> after = g.version();
+        g.restore(before);
+
+        //the same vertices and edges are valid again
+        assertEquals(4, g.numVertices());
+        assertEquals(3, g.numEdges());
+        assertEquals(coimbra, g.opposite(lisboa, routeHubEdge));
+        assertFalse(g.areAdjacent(faro, porto));
+
+        g.restore(after);
+        assertTrue(g.areAdjacent(faro, porto));
+        assertThrows(InvalidVertexException.class, () -> g.incidentEdges(coimbra));
+    }
+
+    @Test
+    void replace() {
+        Hub test = new Hub("test", 900, new Coordinate(950, 800));
+        assertThrows(InvalidVertexException.class, () -> g.replace(lisboa, porto.element()));
+        assertEquals(lisboa.element(), g.replace(lisboa, test));
+
+        Vertex<Hub> replaced = g.getVertices().get(test);
+        assertNotNull(replaced);
+        assertNull(g.getVertices().get(lisboa.element()));
+        assertTrue(g.areAdjacent(replaced, porto));
+        assertEquals(3, g.numEdges());
+
+        Edge<Route, Hub> edge = g.incidentEdges(porto).iterator().next();
+        Route route = new Route(1);
+        assertEquals(edge.element(), g.replace(edge, route));
+        assertEquals(3, g.numEdges());
+    }
+
+    @Test
+    void sameAsAdjacencyList() {
+        Graph<Integer, Integer> list = new GraphAdjacencyList<>();
+        PersistentGraph<Integer, Integer> persistent = new PersistentGraph<>();
+        Map<Integer, Vertex<Integer>> listVertices = new HashMap<>();
+        Map<Integer, Vertex<Integer>> persistentVertices = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 2000; i++) {
+            listVertices.put(i, list.insertVertex(i));
+            persistentVertices.put(i, persistent.insertVertex(i));
+        }
+
+        for (int i = 0; i < 20000; i++) {
+            int a = random.nextInt(2000), b = random.nextInt(2000);
+            boolean adjacent = list.areAdjacent(listVertices.get(a), listVertices.get(b));
+            assertEquals(adjacent, persistent.areAdjacent(persistentVertices.get(a), persistentVertices.get(b)));
+
+            if (!adjacent) {
+                list.insertEdge(a, b, i);
+                persistent.insertEdge(a, b, i);
+            } else if (random.nextBoolean()) {
+                for (Edge<Integer, Integer> e : persistent.incidentEdges(persistentVertices.get(a))) {
+                    if (persistent.opposite(persistentVertices.get(a), e) == persistentVertices.get(b)) {
+                        persistent.removeEdge(e);
+                    }
+                }
+                for (Edge<Integer, Integer> e : list.incidentEdges(listVertices.get(a))) {
+                    if (list.opposite(listVertices.get(a), e) == listVertices.get(b)) {
+                        list.removeEdge(e);
+                    }
+                }
+            }
+        }
+
+        assertEquals(list.numEdges(), persistent.numEdges());
+        assertEquals(list.edges().size(), persistent.edges().size());
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(list.incidentEdges(listVertices.get(i)).size(),
+                    persistent.incidentEdges(persistentVertices.get(i)).size());
+        }
+    }
+}
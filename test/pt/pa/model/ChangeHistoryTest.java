@@ -0,0 +1,145 @@
+package pt.pa.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pt.pa.graph.Vertex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class with Unit Tests.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+class ChangeHistoryTest {
+
+    LogisticsNetwork network;
+    List<Integer> ids;
+
+    @BeforeEach
+    void setUp() {
+        network = new LogisticsNetwork();
+        ids = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            Vertex<Hub> hub = network.getGraph().insertVertex(new Hub("hub" + i, 100, new Coordinate(i, i)));
+            ids.add(hub.element().getIdentifier());
+        }
+    }
+
+    private int cost(int from, int to) {
+        return network.minimumCostPath(ids.get(from), ids.get(to), new ArrayList<>());
+    }
+
+    @Test
+    void undoAndRedo() {
+        ChangeHistory history = new ChangeHistory(network);
+        assertFalse(history.canUndo());
+        assertThrows(NoMementoException.class, history::undo);
+
+        network.addRoute("10", ids.get(0), ids.get(1));
+        network.addRoute("20", ids.get(1), ids.get(2));
+        network.removeRoute(ids.get(0), ids.get(1));
+        assertEquals(1, network.getNumberOfRoutes());
+
+        history.undo();
+        assertEquals(2, network.getNumberOfRoutes());
+        assertEquals(30, cost(0, 2));
+
+        history.undo();
+        history.undo();
+        assertEquals(0, network.getNumberOfRoutes());
+        assertFalse(history.canUndo());
+
+        history.redo();
+        history.redo();
+        assertEquals(30, cost(0, 2));
+        assertTrue(history.canRedo());
+
+        //a new change discards the steps that could be redone
+        network.addRoute("5", ids.get(0), ids.get(2));
+        assertFalse(history.canRedo());
+        assertEquals(5, cost(0, 2));
+    }
+
+    @Test
+    void undoBatch() {
+        network.addRoute("10", ids.get(0), ids.get(1));
+        ChangeHistory history = new ChangeHistory(network);
+
+        network.applyBatch(new RouteBatch()
+                .addRoute("20", ids.get(1), ids.get(2))
+                .addRoute("30", ids.get(2), ids.get(3))
+                .removeRoute(ids.get(0), ids.get(1)));
+        assertEquals(2, network.getNumberOfRoutes());
+
+        history.undo();
+        assertFalse(history.canUndo());
+        assertEquals(1, network.getNumberOfRoutes());
+        assertEquals(10, cost(0, 1));
+
+        history.redo();
+        assertEquals(50, cost(1, 3));
+        assertEquals(2, network.getNumberOfRoutes());
+    }
+
+    @Test
+    void compactsLargeBatch() {
+        ChangeHistory history = new ChangeHistory(network, 10, 5);
+        network.addRoute("1", ids.get(0), ids.get(1));
+
+        //the batch alone is heavier than the history, so it becomes a checkpoint
+        RouteBatch batch = new RouteBatch();
+        for (int i = 2; i < 20; i++) {
+            batch.addRoute("1", ids.get(i - 1), ids.get(i));
+        }
+        network.applyBatch(batch);
+        network.addRoute("5", ids.get(0), ids.get(19));
+
+        history.undo();
+        assertEquals(19, network.getNumberOfRoutes());
+        history.undo();
+        assertEquals(1, network.getNumberOfRoutes());
+        history.undo();
+        assertEquals(0, network.getNumberOfRoutes());
+        assertFalse(history.canUndo());
+
+        while (history.canRedo()) {
+            history.redo();
+        }
+        assertEquals(5, cost(0, 19));
+    }
+
+    @Test
+    void compactsOldSteps() {
+        ChangeHistory history = new ChangeHistory(network, 4, 2);
+
+        for (int i = 1; i < 20; i++) {
+            network.addRoute("1", ids.get(i - 1), ids.get(i));
+        }
+
+        int undone = 0;
+        while (history.canUndo()) {
+            history.undo();
+            undone++;
+        }
+
+        //the oldest routes are undone at once, back to the first state
+        assertTrue(undone <= 4);
+        assertEquals(0, network.getNumberOfRoutes());
+
+        while (history.canRedo()) {
+            history.redo();
+        }
+        assertEquals(19, network.getNumberOfRoutes());
+        assertEquals(19, cost(0, 19));
+    }
+}
@@ -0,0 +1,64 @@
+package pt.pa.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pt.pa.graph.Graph;
+import pt.pa.graph.GraphAdjacencyList;
+import pt.pa.graph.Vertex;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class with Unit Tests.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+class HubComponentsTest {
+
+    Graph<Hub, Route> g;
+    Vertex<Hub> lisboa;
+    Vertex<Hub> porto;
+    Vertex<Hub> coimbra;
+    Vertex<Hub> faro;
+
+    @BeforeEach
+    void setUp() {
+
+        g = new GraphAdjacencyList<>();
+
+        lisboa = g.insertVertex(new Hub("lisboa", 1000, new Coordinate(1000, 500)));
+        porto = g.insertVertex(new Hub("porto", 900, new Coordinate(950, 800)));
+        coimbra = g.insertVertex(new Hub("coimbra", 800, new Coordinate(975, 600)));
+        faro = g.insertVertex(new Hub("faro", 600, new Coordinate(750, 200)));
+
+        g.insertEdge(lisboa, coimbra, new Route(7000));
+        g.insertEdge(porto, coimbra, new Route(1303));
+    }
+
+    @Test
+    void of() {
+        HubComponents components = HubComponents.of(g);
+
+        assertEquals(2, components.getCount());
+        assertEquals(components.componentOf(lisboa.element().getIdentifier()), components.componentOf(porto.element().getIdentifier()));
+        assertNotEquals(components.componentOf(lisboa.element().getIdentifier()), components.componentOf(faro.element().getIdentifier()));
+        assertEquals(-1, components.componentOf(-1));
+    }
+
+    @Test
+    void addRoute() {
+        HubComponents components = HubComponents.of(g);
+
+        components.addRoute(porto.element().getIdentifier(), lisboa.element().getIdentifier());
+        assertEquals(2, components.getCount());
+
+        components.addRoute(faro.element().getIdentifier(), porto.element().getIdentifier());
+        assertEquals(1, components.getCount());
+        assertEquals(components.componentOf(lisboa.element().getIdentifier()), components.componentOf(faro.element().getIdentifier()));
+    }
+}
@@ -0,0 +1,62 @@
+package pt.pa.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pt.pa.graph.Graph;
+import pt.pa.graph.GraphAdjacencyList;
+import pt.pa.graph.Vertex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class with Unit Tests.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+class HubIndexTest {
+
+    Graph<Hub, Route> g;
+    List<Vertex<Hub>> vertices;
+
+    @BeforeEach
+    void setUp() {
+
+        g = new GraphAdjacencyList<>();
+        vertices = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            vertices.add(g.insertVertex(new Hub("hub" + i, i, new Coordinate(i, i))));
+        }
+    }
+
+    @Test
+    void get() {
+        HubIndex index = HubIndex.of(g);
+
+        assertEquals(100, index.size());
+        for (Vertex<Hub> v : vertices) {
+            assertSame(v, index.get(v.element().getIdentifier()));
+        }
+        assertNull(index.get(-1));
+    }
+
+    @Test
+    void put() {
+        HubIndex index = new HubIndex();
+        Vertex<Hub> v = vertices.get(0);
+
+        index.put(v);
+        index.put(v);
+
+        assertEquals(1, index.size());
+        assertSame(v, index.get(v.element().getIdentifier()));
+    }
+}
@@ -0,0 +1,336 @@
+package pt.pa.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pt.pa.graph.Edge;
+import pt.pa.graph.Graph;
+import pt.pa.graph.GraphAdjacencyList;
+import pt.pa.graph.Vertex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class with Unit Tests.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+class LogisticsNetworkSnapshotTest {
+
+    Graph<Hub, Route> g;
+    Vertex<Hub> lisboa;
+    Vertex<Hub> porto;
+    Vertex<Hub> coimbra;
+    Vertex<Hub> setubal;
+    Vertex<Hub> faro;
+    Vertex<Hub> barreiro;
+
+    @BeforeEach
+    void setUp() {
+
+        g = new GraphAdjacencyList<>();
+
+        lisboa = g.insertVertex(new Hub("lisboa", 1000, new Coordinate(1000, 500)));
+        porto = g.insertVertex(new Hub("porto", 900, new Coordinate(950, 800)));
+        coimbra = g.insertVertex(new Hub("coimbra", 800, new Coordinate(975, 600)));
+        setubal = g.insertVertex(new Hub("setubal", 700, new Coordinate(990, 450)));
+        faro = g.insertVertex(new Hub("faro", 600, new Coordinate(750, 200)));
+        barreiro = g.insertVertex(new Hub("barreiro", 500, new Coordinate(1, 1)));
+
+        g.insertEdge(lisboa, coimbra, new Route(7000));
+        g.insertEdge(lisboa, porto, new Route(11550));
+        g.insertEdge(porto, coimbra, new Route(1303));
+        g.insertEdge(coimbra, setubal, new Route(5567));
+        g.insertEdge(setubal, lisboa, new Route(1264));
+        g.insertEdge(barreiro, lisboa, new Route(7815));
+        g.insertEdge(setubal, faro, new Route(1845));
+        g.insertEdge(faro, porto, new Route(8132));
+    }
+
+    /**
+     * Replaces the graph with a random one, with distinct routes and possibly some isolated hubs.
+     */
+    private List<Vertex<Hub>> randomGraph(int numHubs, int numRoutes, long seed) {
+        Random random = new Random(seed);
+        g = new GraphAdjacencyList<>();
+
+        List<Vertex<Hub>> vertices = new ArrayList<>();
+        for (int i = 0; i < numHubs; i++) {
+            vertices.add(g.insertVertex(new Hub("hub" + i, i, new Coordinate(random.nextInt(1000), random.nextInt(1000)))));
+        }
+
+        Map<Long, Integer> inserted = new HashMap<>();
+        while (inserted.size() < numRoutes) {
+            int first = random.nextInt(numHubs);
+            int second = random.nextInt(numHubs);
+            if (first == second || inserted.containsKey(key(first, second))) continue;
+
+            int distance = 1 + random.nextInt(10000);
+            g.insertEdge(vertices.get(first), vertices.get(second), new Route(distance));
+            inserted.put(key(first, second), distance);
+        }
+        return vertices;
+    }
+
+    private static long key(int first, int second) {
+        return first < second ? (long) first << 32 | second : (long) second << 32 | first;
+    }
+
+    /**
+     * Minimum costs between every pair of the given hubs, by Floyd-Warshall, with -1 when unreachable.
+     */
+    private long[][] floydWarshall(List<Vertex<Hub>> vertices) {
+        int n = vertices.size();
+        long[][] costs = new long[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                costs[i][j] = i == j ? 0 : Long.MAX_VALUE;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j && g.areAdjacent(vertices.get(i), vertices.get(j))) {
+                    costs[i][j] = distance(vertices.get(i), vertices.get(j));
+                }
+            }
+        }
+
+        for (int k = 0; k < n; k++) {
+            for (int i = 0; i < n; i++) {
+                if (costs[i][k] == Long.MAX_VALUE) continue;
+                for (int j = 0; j < n; j++) {
+                    if (costs[k][j] != Long.MAX_VALUE && costs[i][k] + costs[k][j] < costs[i][j]) {
+                        costs[i][j] = costs[i][k] + costs[k][j];
+                    }
+                }
+            }
+        }
+
+        for (long[] row : costs) {
+            for (int j = 0; j < n; j++) {
+                if (row[j] == Long.MAX_VALUE) row[j] = -1;
+            }
+        }
+        return costs;
+    }
+
+    private int distance(Vertex<Hub> first, Vertex<Hub> second) {
+        for (Edge<Route, Hub> edge : g.incidentEdges(first)) {
+            if (g.opposite(first, edge) == second) return edge.element().getDistance();
+        }
+        return -1;
+    }
+
+    /**
+     * Cost of a path, by the routes between its consecutive hubs, or -1 if two of them aren't adjacent.
+     */
+    private int pathCost(List<Hub> path, Map<Hub, Vertex<Hub>> vertexOf) {
+        int cost = 0;
+        for (int i = 1; i < path.size(); i++) {
+            int distance = distance(vertexOf.get(path.get(i - 1)), vertexOf.get(path.get(i)));
+            if (distance == -1) return -1;
+            cost += distance;
+        }
+        return cost;
+    }
+
+    private static Map<Hub, Vertex<Hub>> vertexOf(List<Vertex<Hub>> vertices) {
+        Map<Hub, Vertex<Hub>> vertexOf = new HashMap<>();
+        for (Vertex<Hub> v : vertices) {
+            vertexOf.put(v.element(), v);
+        }
+        return vertexOf;
+    }
+
+    @Test
+    void freeze() {
+        LogisticsNetworkSnapshot snapshot = LogisticsNetworkSnapshot.freeze(g);
+        assertEquals(6, snapshot.getNumberOfHubs());
+        assertEquals(8, snapshot.getNumberOfRoutes());
+        assertEquals(4, snapshot.degree(snapshot.indexOf(lisboa.element().getIdentifier())));
+        assertEquals(-1, snapshot.indexOf(-1));
+        assertThrows(LogisticsNetworkException.class, () -> LogisticsNetworkSnapshot.freeze(null));
+    }
+
+    @Test
+    void minimumCostPath() {
+        LogisticsNetworkSnapshot snapshot = LogisticsNetworkSnapshot.freeze(g);
+        List<Hub> path = new ArrayList<>();
+
+        assertEquals(8134, snapshot.minimumCostPath(lisboa.element().getIdentifier(), porto.element().getIdentifier(), path));
+        assertEquals(List.of(lisboa.element(), setubal.element(), coimbra.element(), porto.element()), path);
+
+        assertEquals(0, snapshot.minimumCostPath(faro.element().getIdentifier(), faro.element().getIdentifier(), path));
+        assertEquals(List.of(faro.element()), path);
+    }
+
+    @Test
+    void minimumCostPath_AllAlgorithms() {
+        LogisticsNetworkSnapshot snapshot = LogisticsNetworkSnapshot.freeze(g);
+        List<Hub> path = new ArrayList<>();
+        List<Hub> otherPath = new ArrayList<>();
+
+        for (Vertex<Hub> u : g.vertices()) {
+            for (Vertex<Hub> v : g.vertices()) {
+                int firstId = u.element().getIdentifier();
+                int secondId = v.element().getIdentifier();
+                int cost = snapshot.minimumCostPath(firstId, secondId, path);
+
+                for (PathAlgorithm algorithm : PathAlgorithm.values()) {
+                    assertEquals(cost, snapshot.minimumCostPath(firstId, secondId, otherPath, algorithm));
+                    assertEquals(u.element(), otherPath.get(0));
+                    assertEquals(v.element(), otherPath.get(otherPath.size() - 1));
+                }
+            }
+        }
+    }
+
+    @Test
+    void minimumCostPath_ContractionHierarchies() {
+        LogisticsNetworkSnapshot snapshot = LogisticsNetworkSnapshot.freeze(g);
+        List<Hub> path = new ArrayList<>();
+
+        assertEquals(15949, snapshot.minimumCostPath(barreiro.element().getIdentifier(), porto.element().getIdentifier(), path, PathAlgorithm.CONTRACTION_HIERARCHIES));
+        assertEquals(List.of(barreiro.element(), lisboa.element(), setubal.element(), coimbra.element(), porto.element()), path);
+    }
+
+    @Test
+    void minimumCostPath_BruteForce() {
+        List<Vertex<Hub>> vertices = randomGraph(60, 90, 3);
+        long[][] expected = floydWarshall(vertices);
+        Map<Hub, Vertex<Hub>> vertexOf = vertexOf(vertices);
+        LogisticsNetworkSnapshot snapshot = LogisticsNetworkSnapshot.freeze(g);
+        List<Hub> path = new ArrayList<>();
+
+        for (int i = 0; i < vertices.size(); i++) {
+            for (int j = 0; j < vertices.size(); j++) {
+                Hub origin = vertices.get(i).element();
+                Hub destination = vertices.get(j).element();
+                int cost = snapshot.minimumCostPath(origin.getIdentifier(), destination.getIdentifier(), path, PathAlgorithm.DIJKSTRA);
+
+                assertEquals(expected[i][j], cost);
+                if (cost == -1) {
+                    assertTrue(path.isEmpty());
+                } else {
+                    assertEquals(origin, path.get(0));
+                    assertEquals(destination, path.get(path.size() - 1));
+                    assertEquals(cost, pathCost(path, vertexOf));
+                }
+            }
+        }
+    }
+
+    @Test
+    void minimumCostPath_Unreachable() {
+        Vertex<Hub> test = g.insertVertex(new Hub("test", 1, new Coordinate(1, 1)));
+        LogisticsNetworkSnapshot snapshot = LogisticsNetworkSnapshot.freeze(g);
+        List<Hub> path = new ArrayList<>();
+
+        assertEquals(-1, snapshot.minimumCostPath(lisboa.element().getIdentifier(), test.element().getIdentifier(), path));
+        assertTrue(path.isEmpty());
+    }
+
+    @Test
+    void longestMinCostPath() {
+        LogisticsNetworkSnapshot snapshot = LogisticsNetworkSnapshot.freeze(g);
+        List<Hub> path = new ArrayList<>();
+
+        assertEquals(15949, snapshot.longestMinCostPath(path));
+        assertEquals(5, path.size());
+    }
+
+    @Test
+    void longestMinCostPath_BruteForce() {
+        //enough hubs for the fork-join task to split the origins between threads
+        List<Vertex<Hub>> vertices = randomGraph(300, 420, 6);
+        long[][] expected = floydWarshall(vertices);
+        Map<Hub, Vertex<Hub>> vertexOf = vertexOf(vertices);
+
+        long longest = 0;
+        for (long[] row : expected) {
+            for (long cost : row) {
+                longest = Math.max(longest, cost);
+            }
+        }
+
+        LogisticsNetworkSnapshot snapshot = LogisticsNetworkSnapshot.freeze(g);
+        List<Hub> path = new ArrayList<>();
+
+        assertEquals(longest, snapshot.longestMinCostPath(path));
+        assertEquals(longest, pathCost(path, vertexOf));
+
+        int origin = vertices.indexOf(vertexOf.get(path.get(0)));
+        int destination = vertices.indexOf(vertexOf.get(path.get(path.size() - 1)));
+        assertEquals(longest, expected[origin][destination]);
+    }
+
+    @Test
+    void computeDistanceMatrix() {
+        LogisticsNetworkSnapshot snapshot = LogisticsNetworkSnapshot.freeze(g);
+        DistanceMatrix matrix = snapshot.computeDistanceMatrix();
+        List<Hub> path = new ArrayList<>();
+        List<Hub> otherPath = new ArrayList<>();
+
+        for (Vertex<Hub> u : g.vertices()) {
+            for (Vertex<Hub> v : g.vertices()) {
+                int firstId = u.element().getIdentifier();
+                int secondId = v.element().getIdentifier();
+
+                assertEquals(snapshot.minimumCostPath(firstId, secondId, path), matrix.minimumCostPath(firstId, secondId, otherPath));
+                assertEquals(path, otherPath);
+            }
+        }
+
+        assertEquals(15949, matrix.longestMinCostPath(path));
+        assertEquals(5, path.size());
+    }
+
+    @Test
+    void computeDistanceMatrix_AddRoute() {
+        DistanceMatrix matrix = LogisticsNetworkSnapshot.freeze(g).computeDistanceMatrix();
+        List<Hub> path = new ArrayList<>();
+
+        g.insertEdge(barreiro, porto, new Route(2000));
+        matrix.addRoute(barreiro.element().getIdentifier(), porto.element().getIdentifier(), 2000);
+
+        LogisticsNetworkSnapshot snapshot = LogisticsNetworkSnapshot.freeze(g);
+        for (Vertex<Hub> u : g.vertices()) {
+            for (Vertex<Hub> v : g.vertices()) {
+                int firstId = u.element().getIdentifier();
+                int secondId = v.element().getIdentifier();
+                int cost = matrix.minimumCostPath(firstId, secondId, path);
+
+                assertEquals(snapshot.minimumCostPath(firstId, secondId, new ArrayList<>()), cost);
+                assertEquals(u.element(), path.get(0));
+                assertEquals(v.element(), path.get(path.size() - 1));
+            }
+        }
+
+        assertEquals(3303, matrix.minimumCostPath(coimbra.element().getIdentifier(), barreiro.element().getIdentifier(), path));
+        assertEquals(List.of(coimbra.element(), porto.element(), barreiro.element()), path);
+    }
+
+    @Test
+    void getSubGraphCount() {
+        assertEquals(1, LogisticsNetworkSnapshot.freeze(g).getSubGraphCount());
+        g.insertVertex(new Hub("test", 1, new Coordinate(1, 1)));
+        assertEquals(2, LogisticsNetworkSnapshot.freeze(g).getSubGraphCount());
+    }
+
+    @Test
+    void getCentralizedHubsDesc() {
+        LogisticsNetworkSnapshot snapshot = LogisticsNetworkSnapshot.freeze(g);
+        assertEquals(lisboa.element(), snapshot.getCentralizedHubsDesc().keySet().iterator().next());
+        assertEquals(4, snapshot.getCentralizedHubsDesc().get(lisboa.element()));
+    }
+}
@@ -0,0 +1,201 @@
+package pt.pa.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pt.pa.graph.Graph;
+import pt.pa.graph.GraphAdjacencyList;
+import pt.pa.graph.Vertex;
+import pt.pa.utils.GraphBinaryManipulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class with Unit Tests.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+class LogisticsNetworkTest {
+    private static final int HUBS = 200;
+
+    LogisticsNetwork network;
+    List<Vertex<Hub>> hubs;
+
+    @BeforeEach
+    void setUp() {
+        network = new LogisticsNetwork();
+        hubs = new ArrayList<>();
+
+        for (int i = 0; i < HUBS; i++) {
+            hubs.add(network.getGraph().insertVertex(new Hub("hub" + i, 100, new Coordinate(i, i))));
+        }
+    }
+
+    private int id(int i) {
+        return hubs.get(i).element().getIdentifier();
+    }
+
+    @Test
+    void globalBinaryLoad_Corrupted(@TempDir Path directory) throws IOException {
+        Graph<Hub, Route> saved = new GraphAdjacencyList<>();
+        Vertex<Hub> lisboa = saved.insertVertex(new Hub("lisboa", 1000, new Coordinate(1000, 500)));
+        Vertex<Hub> porto = saved.insertVertex(new Hub("porto", 900, new Coordinate(950, 800)));
+        saved.insertEdge(lisboa, porto, new Route(11550));
+
+        //the same route twice
+        Path file = directory.resolve("network.bin");
+        new GraphBinaryManipulation(file.toString()).save(saved);
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 8).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(bytes, 0, bytes.length - 20);
+        //offsets, targets and distances of 2 routes of the first hub
+        buffer.putInt(0).putInt(2).putInt(2).putInt(1).putInt(1).putInt(11550).putInt(11550);
+        buffer.putInt(12, 2);
+        Files.write(file, buffer.array());
+
+        assertThrows(LogisticsNetworkException.class, () -> network.globalBinaryLoad(network.getGraph(), file.toString()));
+        assertEquals(HUBS, network.getNumberOfHubs());
+        assertEquals(0, network.getNumberOfRoutes());
+    }
+
+    @Test
+    void addAndRemoveRoute() {
+        network.addRoute("10", id(0), id(1));
+        network.addRoute("20", id(1), id(2));
+
+        List<Hub> path = new ArrayList<>();
+        assertEquals(30, network.minimumCostPath(id(0), id(2), path));
+        assertEquals(3, path.size());
+        assertEquals(2, network.getNumberOfRoutes());
+        assertTrue(network.areConnected(id(0), id(2)));
+
+        network.removeRoute(id(1), id(2));
+        assertEquals(1, network.getNumberOfRoutes());
+        assertFalse(network.areConnected(id(0), id(2)));
+    }
+
+    @Test
+    void applyBatch() {
+        List<Object> notifications = new ArrayList<>();
+        network.addObserver((subject, arg) -> notifications.add(arg));
+
+        RouteBatch batch = new RouteBatch();
+        for (int i = 1; i < HUBS; i++) {
+            batch.addRoute("1", id(i - 1), id(i));
+        }
+        batch.addRoute("7", id(0), id(2)).removeRoute(id(0), id(2));
+        network.applyBatch(batch);
+
+        assertEquals(1, notifications.size());
+        assertEquals(HUBS - 1, ((List<?>) notifications.get(0)).size());
+        assertEquals(HUBS - 1, network.getNumberOfRoutes());
+        assertEquals(HUBS - 1, network.minimumCostPath(id(0), id(HUBS - 1), new ArrayList<>()));
+
+        //an invalid operation cancels the whole batch
+        RouteBatch invalid = new RouteBatch()
+                .removeRoute(id(0), id(1))
+                .addRoute("1", id(2), id(3));
+        assertThrows(LogisticsNetworkException.class, () -> network.applyBatch(invalid));
+        assertEquals(1, notifications.size());
+        assertEquals(HUBS - 1, network.getNumberOfRoutes());
+        assertTrue(network.areConnected(id(0), id(1)));
+    }
+
+    @Test
+    void recoverFromLog(@TempDir Path directory) {
+        String snapshotFile = directory.resolve("network.bin").toString();
+        String logFile = directory.resolve("network.wal").toString();
+
+        LogisticsNetwork logged = new LogisticsNetwork();
+        logged.openLog(snapshotFile, logFile);
+        for (int i = 0; i < 3; i++) {
+            logged.getGraph().insertVertex(new Hub("hub" + i, 100, new Coordinate(i, i)));
+        }
+        logged.checkpoint();
+
+        List<Integer> ids = new ArrayList<>();
+        for (Hub hub : logged.getHubs()) {
+            ids.add(hub.getIdentifier());
+        }
+        ids.sort(null);
+        logged.addRoute("10", ids.get(0), ids.get(1));
+        logged.addRoute("20", ids.get(1), ids.get(2));
+        logged.addRoute("5", ids.get(0), ids.get(2));
+        logged.removeRoute(ids.get(0), ids.get(2));
+        //a crash: the log isn't closed, but every route was committed
+
+        LogisticsNetwork recovered = new LogisticsNetwork();
+        recovered.openLog(snapshotFile, logFile);
+        assertEquals(3, recovered.getNumberOfHubs());
+        assertEquals(2, recovered.getNumberOfRoutes());
+
+        //the recovered hubs have new ids, and the recovery saved a snapshot with them
+        List<Integer> newIds = new ArrayList<>();
+        for (Hub hub : recovered.getHubs()) {
+            newIds.add(hub.getIdentifier());
+        }
+        newIds.sort(null);
+        assertEquals(30, recovered.minimumCostPath(newIds.get(0), newIds.get(2), new ArrayList<>()));
+
+        recovered.removeRoute(newIds.get(0), newIds.get(1));
+        recovered.closeLog();
+
+        LogisticsNetwork again = new LogisticsNetwork();
+        again.openLog(snapshotFile, logFile);
+        assertEquals(1, again.getNumberOfRoutes());
+        again.closeLog();
+        logged.closeLog();
+    }
+
+    @Test
+    void queriesWhileAddingRoutes() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> readers = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < 3; t++) {
+                readers.add(executor.submit(() -> {
+                    for (int k = 0; k < 300; k++) {
+                        int routes = network.getNumberOfRoutes();
+                        assertTrue(routes >= 0 && routes < HUBS);
+
+                        //the chain grows from the first hub, so a path is either complete or missing
+                        List<Hub> path = new ArrayList<>();
+                        int cost = network.minimumCostPath(id(0), id(HUBS / 2), path);
+                        assertTrue(cost == HUBS / 2 || path.isEmpty(), "cost " + cost);
+                    }
+                }));
+            }
+
+            for (int i = 1; i < HUBS; i++) {
+                network.addRoute("1", id(i - 1), id(i));
+            }
+
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(HUBS - 1, network.getNumberOfRoutes());
+        assertEquals(HUBS - 1, network.minimumCostPath(id(0), id(HUBS - 1), new ArrayList<>()));
+    }
+}
@@ -0,0 +1,128 @@
+package pt.pa.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pt.pa.graph.Edge;
+import pt.pa.graph.Graph;
+import pt.pa.graph.GraphAdjacencyList;
+import pt.pa.graph.Vertex;
+import pt.pa.model.Coordinate;
+import pt.pa.model.Hub;
+import pt.pa.model.Route;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class with Unit Tests.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+class DataSetManipulationTest {
+
+    @TempDir
+    Path directory;
+
+    Graph<Hub, Route> g;
+
+    @BeforeEach
+    void setUp() {
+        g = new GraphAdjacencyList<>();
+
+        Vertex<Hub> lisboa = g.insertVertex(new Hub("lisboa", 1000, new Coordinate(1000, 500)));
+        Vertex<Hub> porto = g.insertVertex(new Hub("porto", 900, new Coordinate(950, 800)));
+        Vertex<Hub> setubal = g.insertVertex(new Hub("setúbal", 700, new Coordinate(990, 450)));
+        g.insertVertex(new Hub("faro", 600, new Coordinate(750, 200)));
+
+        g.insertEdge(lisboa, porto, new Route(11550));
+        g.insertEdge(setubal, lisboa, new Route(1264));
+    }
+
+    private Path export() throws IOException {
+        new GraphExportManipulation(directory.toString(), g).exportAll(progress -> {
+        });
+        return directory.resolve("sgb-copy");
+    }
+
+    private Graph<Hub, Route> load(Path folder) throws IOException {
+        Graph<Hub, Route> loaded = new GraphAdjacencyList<>();
+        DataSetManipulation dataSet = new DataSetManipulation(folder);
+        dataSet.insertHubsFromDirectory(loaded);
+        dataSet.insertRoutesFromDirectory(loaded);
+        return loaded;
+    }
+
+    /**
+     * Distances of the routes, by the cities of their hubs.
+     */
+    private static Map<String, Integer> routes(Graph<Hub, Route> graph) {
+        Map<String, Integer> routes = new HashMap<>();
+        for (Edge<Route, Hub> edge : graph.edges()) {
+            String first = edge.vertices()[0].element().getCity();
+            String second = edge.vertices()[1].element().getCity();
+            String key = first.compareTo(second) < 0 ? first + "-" + second : second + "-" + first;
+            routes.put(key, edge.element().getDistance());
+        }
+        return routes;
+    }
+
+    @Test
+    void exportAndImport_Edges() throws IOException {
+        Path folder = export();
+        assertTrue(Files.exists(folder.resolve("routes.edges")));
+
+        Graph<Hub, Route> loaded = load(folder);
+
+        assertEquals(4, loaded.numVertices());
+        assertEquals(routes(g), routes(loaded));
+
+        Hub setubal = null;
+        for (Vertex<Hub> v : loaded.vertices()) {
+            if (v.element().getCity().equals("setúbal")) setubal = v.element();
+        }
+        assertNotNull(setubal);
+        assertEquals(700, setubal.getPopulation());
+        assertEquals(990, setubal.getCoordinates().getX());
+    }
+
+    @Test
+    void exportAndImport_Matrix() throws IOException {
+        Path folder = export();
+
+        //the dense matrix, read as a routes_* file instead of the edge list
+        Files.move(folder.resolve("routes.txt"), folder.resolve("routes_1.txt"));
+        Files.delete(folder.resolve("routes.edges"));
+
+        assertEquals(routes(g), routes(load(folder)));
+    }
+
+    @Test
+    void import_MalformedRoute() throws IOException {
+        Path folder = export();
+        Files.delete(folder.resolve("routes.txt"));
+        Files.write(folder.resolve("routes.edges"), "1 2 100\n2 3\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(NumberFormatException.class, () -> load(folder));
+    }
+
+    @Test
+    void import_UnknownHub() throws IOException {
+        Path folder = export();
+        Files.delete(folder.resolve("routes.txt"));
+        Files.write(folder.resolve("routes.edges"), "1 2 100\n1 9 100\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(NumberFormatException.class, () -> load(folder));
+    }
+}
@@ -0,0 +1,106 @@
+package pt.pa.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pt.pa.graph.Graph;
+import pt.pa.graph.GraphAdjacencyList;
+import pt.pa.graph.Vertex;
+import pt.pa.model.Coordinate;
+import pt.pa.model.Hub;
+import pt.pa.model.Route;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class with Unit Tests.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+class GraphBinaryManipulationTest {
+
+    @TempDir
+    Path directory;
+
+    Graph<Hub, Route> g;
+
+    @BeforeEach
+    void setUp() {
+
+        g = new GraphAdjacencyList<>();
+
+        Vertex<Hub> lisboa = g.insertVertex(new Hub("lisboa", 1000, new Coordinate(1000, 500)));
+        Vertex<Hub> porto = g.insertVertex(new Hub("porto", 900, new Coordinate(950, 800)));
+        Vertex<Hub> setubal = g.insertVertex(new Hub("setúbal", 700, new Coordinate(990, 450)));
+        g.insertVertex(new Hub("faro", 600, new Coordinate(750, 200)));
+
+        g.insertEdge(lisboa, porto, new Route(11550));
+        g.insertEdge(setubal, lisboa, new Route(1264));
+    }
+
+    @Test
+    void saveAndLoad() throws IOException {
+        GraphBinaryManipulation binary = new GraphBinaryManipulation(directory.resolve("network.bin").toString());
+        binary.save(g);
+
+        Graph<Hub, Route> loaded = new GraphAdjacencyList<>();
+        binary.load(loaded);
+
+        assertEquals(4, loaded.numVertices());
+        assertEquals(2, loaded.numEdges());
+
+        Vertex<Hub> setubal = null;
+        for (Vertex<Hub> v : loaded.vertices()) {
+            if (v.element().getCity().equals("setúbal")) setubal = v;
+        }
+        assertNotNull(setubal);
+        assertEquals(700, setubal.element().getPopulation());
+        assertEquals(450, setubal.element().getCoordinates().getY());
+        assertEquals(1264, loaded.incidentEdges(setubal).iterator().next().element().getDistance());
+    }
+
+    @Test
+    void saveAndLoadCopy() throws IOException {
+        GraphBinaryManipulation binary = new GraphBinaryManipulation(directory.resolve("network.bin").toString());
+        binary.save(g);
+
+        Graph<Hub, Route> loaded = new GraphAdjacencyList<>();
+        binary.loadCopy(loaded);
+        assertEquals(4, loaded.numVertices());
+        assertEquals(2, loaded.numEdges());
+    }
+
+    @Test
+    void load_Invalid() throws IOException {
+        Path file = directory.resolve("invalid.bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20});
+
+        assertThrows(IOException.class, () -> new GraphBinaryManipulation(file.toString()).load(new GraphAdjacencyList<>()));
+    }
+
+    @Test
+    void load_DuplicateRoute() throws IOException {
+        Path file = directory.resolve("duplicate.bin");
+        new GraphBinaryManipulation(file.toString()).save(g);
+
+        //both routes are stored under lisboa; now both go to porto
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(bytes.length - 16, 1).putInt(bytes.length - 12, 1);
+        Files.write(file, bytes);
+
+        IOException e = assertThrows(IOException.class,
+                () -> new GraphBinaryManipulation(file.toString()).load(new GraphAdjacencyList<>()));
+        assertTrue(e.getMessage().endsWith("is corrupted"));
+    }
+}
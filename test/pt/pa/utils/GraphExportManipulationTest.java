@@ -0,0 +1,151 @@
+package pt.pa.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pt.pa.graph.Graph;
+import pt.pa.graph.GraphAdjacencyList;
+import pt.pa.graph.Vertex;
+import pt.pa.model.Coordinate;
+import pt.pa.model.Hub;
+import pt.pa.model.Route;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class with Unit Tests.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+class GraphExportManipulationTest {
+    private static final int NUMBER_OF_HUBS = 50;
+
+    @TempDir
+    Path directory;
+
+    Graph<Hub, Route> g;
+    List<Vertex<Hub>> vertices;
+    int[][] distances;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(13);
+        g = new GraphAdjacencyList<>();
+        vertices = new ArrayList<>();
+        distances = new int[NUMBER_OF_HUBS][NUMBER_OF_HUBS];
+
+        for (int i = 0; i < NUMBER_OF_HUBS; i++) {
+            vertices.add(g.insertVertex(new Hub("hub" + i, 100 + i, new Coordinate(i, 2 * i))));
+        }
+        for (int i = 0; i < 120; i++) {
+            int first = random.nextInt(NUMBER_OF_HUBS);
+            int second = random.nextInt(NUMBER_OF_HUBS);
+            if (first == second || distances[first][second] != 0) continue;
+
+            int distance = 1 + random.nextInt(10000);
+            g.insertEdge(vertices.get(first), vertices.get(second), new Route(distance));
+            distances[first][second] = distance;
+            distances[second][first] = distance;
+        }
+    }
+
+    private List<String> lines(String name) throws IOException {
+        return Files.readAllLines(directory.resolve("sgb-copy").resolve(name), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void exportAll() throws IOException {
+        new GraphExportManipulation(directory.toString(), g).exportAll(progress -> {
+        });
+
+        List<String> names = lines("name.txt");
+        List<String> weights = lines("weight.txt");
+        List<String> coordinates = lines("xy.txt");
+        assertEquals(NUMBER_OF_HUBS, names.size());
+
+        //the files follow the order of the graph's vertices, given by name.txt
+        int[] hubOf = new int[NUMBER_OF_HUBS];
+        for (int i = 0; i < NUMBER_OF_HUBS; i++) {
+            int hub = Integer.parseInt(names.get(i).substring("hub".length()));
+            hubOf[i] = hub;
+            assertEquals(String.valueOf(100 + hub), weights.get(i));
+            assertEquals(hub + " " + 2 * hub, coordinates.get(i));
+        }
+
+        List<String> rows = lines("routes.txt");
+        assertEquals(NUMBER_OF_HUBS, rows.size());
+        for (int i = 0; i < NUMBER_OF_HUBS; i++) {
+            String[] cells = rows.get(i).trim().split(" ");
+            assertEquals(NUMBER_OF_HUBS, cells.length);
+            for (int j = 0; j < NUMBER_OF_HUBS; j++) {
+                assertEquals(distances[hubOf[i]][hubOf[j]], Integer.parseInt(cells[j]));
+            }
+        }
+
+        int[][] edges = new int[NUMBER_OF_HUBS][NUMBER_OF_HUBS];
+        List<String> edgeLines = lines("routes.edges");
+        assertEquals(g.numEdges(), edgeLines.size());
+        for (String line : edgeLines) {
+            String[] values = line.split(" ");
+            int first = Integer.parseInt(values[0]) - 1;
+            int second = Integer.parseInt(values[1]) - 1;
+            assertTrue(first < second);
+            edges[hubOf[first]][hubOf[second]] = Integer.parseInt(values[2]);
+            edges[hubOf[second]][hubOf[first]] = edges[hubOf[first]][hubOf[second]];
+        }
+        assertArrayEquals(distances, edges);
+    }
+
+    @Test
+    void exportAll_Progress() throws IOException {
+        List<Double> values = new ArrayList<>();
+        new GraphExportManipulation(directory.toString(), g).exportAll(values::add);
+
+        assertFalse(values.isEmpty());
+        for (int i = 1; i < values.size(); i++) {
+            assertTrue(values.get(i) >= values.get(i - 1));
+        }
+        assertTrue(values.get(0) > 0);
+        assertEquals(1, values.get(values.size() - 1));
+    }
+
+    @Test
+    void exportAll_DenseRoutesThreshold() throws IOException {
+        Vertex<Hub> first = vertices.get(0);
+        for (int i = g.numVertices(); i < GraphExportManipulation.DENSE_ROUTES_MAX_HUBS; i++) {
+            g.insertEdge(first, g.insertVertex(new Hub("extra" + i, 1, new Coordinate(0, 0))), new Route(1));
+        }
+
+        Path dense = Files.createDirectory(directory.resolve("dense"));
+        GraphExportManipulation export = new GraphExportManipulation(dense.toString(), g);
+        assertTrue(export.writesDenseRoutes());
+        export.exportAll(progress -> {
+        });
+        assertTrue(Files.exists(dense.resolve("sgb-copy").resolve("routes.txt")));
+        assertTrue(Files.exists(dense.resolve("sgb-copy").resolve("routes.edges")));
+
+        //one hub over the limit only writes the sparse list
+        g.insertVertex(new Hub("over", 1, new Coordinate(0, 0)));
+        Path sparse = Files.createDirectory(directory.resolve("sparse"));
+        export = new GraphExportManipulation(sparse.toString(), g);
+        assertFalse(export.writesDenseRoutes());
+        export.exportAll(progress -> {
+        });
+        assertFalse(Files.exists(sparse.resolve("sgb-copy").resolve("routes.txt")));
+        assertEquals(g.numEdges(), Files.readAllLines(sparse.resolve("sgb-copy").resolve("routes.edges")).size());
+        assertEquals(GraphExportManipulation.DENSE_ROUTES_MAX_HUBS + 1, Files.readAllLines(sparse.resolve("sgb-copy").resolve("name.txt")).size());
+    }
+}
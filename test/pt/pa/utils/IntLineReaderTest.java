@@ -0,0 +1,95 @@
+package pt.pa.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class with Unit Tests.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+class IntLineReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readLine() throws IOException {
+        Path file = directory.resolve("numbers.txt");
+        Files.write(file, "12 -7\t2147483647\r\n-2147483648\n\n3".getBytes(StandardCharsets.UTF_8));
+
+        int[] values = new int[3];
+        try (IntLineReader reader = new IntLineReader(file)) {
+            assertEquals(3, reader.readLine(values));
+            assertArrayEquals(new int[]{12, -7, Integer.MAX_VALUE}, values);
+            assertEquals(1, reader.readLine(values));
+            assertEquals(Integer.MIN_VALUE, values[0]);
+            assertEquals(0, reader.readLine(values));
+            assertEquals(1, reader.readLine(values));
+            assertEquals(3, values[0]);
+            assertEquals(-1, reader.readLine(values));
+        }
+    }
+
+    @Test
+    void readLine_Invalid() throws IOException {
+        Path overflow = directory.resolve("overflow.txt");
+        Files.write(overflow, "1 2147483648\n".getBytes(StandardCharsets.UTF_8));
+        try (IntLineReader reader = new IntLineReader(overflow)) {
+            assertThrows(NumberFormatException.class, () -> reader.readLine(new int[2]));
+        }
+
+        //a 0xFF byte is an invalid character, not the end of the file
+        Path binary = directory.resolve("binary.txt");
+        Files.write(binary, new byte[]{'1', '\n', (byte) 0xFF, '\n'});
+        try (IntLineReader reader = new IntLineReader(binary)) {
+            assertEquals(1, reader.readLine(new int[1]));
+            assertThrows(NumberFormatException.class, () -> reader.readLine(new int[1]));
+        }
+    }
+
+    @Test
+    void readLine_AcrossBuffers() throws IOException {
+        //enough lines to refill the buffer several times, with numbers split between reads
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50000; i++) {
+            text.append(i).append(' ').append(-i * 7).append('\n');
+        }
+        Path file = directory.resolve("large.txt");
+        Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+
+        int[] values = new int[2];
+        try (IntLineReader reader = new IntLineReader(file)) {
+            for (int i = 0; i < 50000; i++) {
+                assertEquals(2, reader.readLine(values));
+                assertEquals(i, values[0]);
+                assertEquals(-i * 7, values[1]);
+            }
+            assertEquals(-1, reader.readLine(values));
+        }
+    }
+
+    @Test
+    void readLine_MoreValuesThanArray() throws IOException {
+        Path file = directory.resolve("numbers.txt");
+        Files.write(file, "1 2 3 4\n".getBytes(StandardCharsets.UTF_8));
+
+        int[] values = new int[2];
+        try (IntLineReader reader = new IntLineReader(file)) {
+            assertEquals(4, reader.readLine(values));
+            assertArrayEquals(new int[]{1, 2}, values);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package pt.pa.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Class with Unit Tests.
+ * <p>
+ * Docente Orientador: Luís Damas
+ * <p>
+ * Grupo: Diogo Letras - Nº 202002529 - Turma: 2ºL_EI-SW-06
+ * Miguel Vicente - Nº 202000563 - Turma: 2ºL_EI-SW-06
+ * Pedro Cunha - Nº 202000757 - Turma: 2ºL_EI-SW-02
+ * Jorge Mimoso - Nº 202000695 - Turma: 2ºL_EI-SW-03
+ */
+class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void commitAndReopen() throws IOException {
+        String file = directory.resolve("network.wal").toString();
+
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            assertTrue(log.open(7).isEmpty());
+            log.append(WriteAheadLog.Record.addRoute(1, 2, 300));
+            log.commit(log.append(WriteAheadLog.Record.removeRoute(2, 1)));
+            assertEquals(2, log.size());
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            List<WriteAheadLog.Record> records = log.open(7);
+            assertEquals(2, records.size());
+            assertEquals(WriteAheadLog.Record.Type.ADD_ROUTE, records.get(0).getType());
+            assertEquals(300, records.get(0).getDistance());
+            assertEquals(WriteAheadLog.Record.Type.REMOVE_ROUTE, records.get(1).getType());
+            assertEquals(1, records.get(1).getIdHub2());
+        }
+
+        //a log of another snapshot is discarded
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            assertTrue(log.open(8).isEmpty());
+        }
+    }
+
+    @Test
+    void open_TornRecord() throws IOException {
+        String file = directory.resolve("network.wal").toString();
+
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            log.open(1);
+            log.append(WriteAheadLog.Record.addRoute(1, 2, 300));
+            log.commit(log.append(WriteAheadLog.Record.addRoute(2, 3, 400)));
+        }
+
+        //a crash in the middle of the last record
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 5);
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            assertEquals(1, log.open(1).size());
+            log.commit(log.append(WriteAheadLog.Record.addRoute(3, 4, 500)));
+        }
+
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            List<WriteAheadLog.Record> records = log.open(1);
+            assertEquals(2, records.size());
+            assertEquals(500, records.get(1).getDistance());
+        }
+    }
+
+    @Test
+    void open_TornBatch() throws IOException {
+        String file = directory.resolve("network.wal").toString();
+
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            log.open(1);
+            log.append(WriteAheadLog.Record.addRoute(1, 2, 300));
+            log.commit(log.append(Arrays.asList(
+                    WriteAheadLog.Record.addRoute(2, 3, 400),
+                    WriteAheadLog.Record.addRoute(3, 4, 500),
+                    WriteAheadLog.Record.removeRoute(1, 2))));
+            assertEquals(4, log.size());
+        }
+
+        //a crash in the middle of the last record of the batch
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 5);
+        }
+
+        //the first records of the batch are discarded too
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            List<WriteAheadLog.Record> records = log.open(1);
+            assertEquals(1, records.size());
+            assertEquals(300, records.get(0).getDistance());
+        }
+    }
+}